@@ -61,6 +61,24 @@ public class FreeMarkerConstants {
 
         /** Prefix to extract FreeMarker configuration settings from 'freemarker-generator.properties' */
         public static final String SETTING_PREFIX = "freemarker.configuration.setting.";
+
+        /** Key for the maximum number of bytes of all cached data source content */
+        public static final String DATASOURCE_CACHE_MAX_SIZE_KEY = "freemarker.datasource.cache.maxSize";
+
+        /** Key for the maximum number of bytes of a single cached data source content */
+        public static final String DATASOURCE_CACHE_MAX_ENTRY_SIZE_KEY = "freemarker.datasource.cache.maxEntrySize";
+
+        /** Key for the maximum number of cached data source parse results */
+        public static final String DATASOURCE_PARSE_CACHE_MAX_SIZE_KEY = "freemarker.datasource.parse.cache.maxSize";
+
+        /** Key for the HTTP connect timeout in milliseconds */
+        public static final String HTTP_CONNECT_TIMEOUT_KEY = "freemarker.http.connectTimeout";
+
+        /** Key for the HTTP read timeout in milliseconds */
+        public static final String HTTP_READ_TIMEOUT_KEY = "freemarker.http.readTimeout";
+
+        /** Key for the directory caching HTTP content across runs */
+        public static final String HTTP_CACHE_DIRECTORY_KEY = "freemarker.http.cache.directory";
     }
 
     public static class Location {
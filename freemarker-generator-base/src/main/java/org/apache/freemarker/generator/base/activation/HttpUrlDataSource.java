@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.base.activation;
+
+import org.apache.freemarker.generator.base.http.HttpClient;
+import org.apache.freemarker.generator.base.http.HttpContent;
+
+import javax.activation.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+
+import static java.util.Objects.requireNonNull;
+import static org.apache.freemarker.generator.base.mime.Mimetypes.MIME_APPLICATION_OCTET_STREAM;
+
+/**
+ * Data source fetching the content of an HTTP URL once using the <code>HttpClient</code>.
+ * In contrast to the <code>URLDataSource</code> the content type and the content
+ * are retrieved by a single request. The content is streamed from the file written
+ * by the <code>HttpClient</code> - a temporary file is deleted when the data source
+ * is closed, and the URL is fetched again when it is used afterwards.
+ */
+public class HttpUrlDataSource implements DataSource, Closeable {
+
+    private final URL url;
+    private final HttpClient httpClient;
+    private HttpContent content;
+
+    public HttpUrlDataSource(URL url, HttpClient httpClient) {
+        this.url = requireNonNull(url);
+        this.httpClient = requireNonNull(httpClient);
+    }
+
+    public URL getURL() {
+        return url;
+    }
+
+    /**
+     * Fetch the content unless it was already fetched.
+     */
+    public void prefetch() {
+        content();
+    }
+
+    public long getLength() {
+        return content().getLength();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return content().getInputStream();
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return null;
+    }
+
+    @Override
+    public String getContentType() {
+        final String contentType = content().getContentType();
+        return contentType != null ? contentType : MIME_APPLICATION_OCTET_STREAM;
+    }
+
+    @Override
+    public String getName() {
+        return url.toExternalForm();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (content != null) {
+            content.delete();
+            content = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "HttpUrlDataSource{url=" + url + "}";
+    }
+
+    private synchronized HttpContent content() {
+        if (content == null) {
+            content = httpClient.get(url);
+        }
+        return content;
+    }
+}
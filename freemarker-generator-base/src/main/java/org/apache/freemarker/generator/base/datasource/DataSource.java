@@ -19,7 +19,9 @@ package org.apache.freemarker.generator.base.datasource;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.LineIterator;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.freemarker.generator.base.activation.ByteArrayDataSource;
+import org.apache.freemarker.generator.base.activation.HttpUrlDataSource;
 import org.apache.freemarker.generator.base.activation.StringDataSource;
 import org.apache.freemarker.generator.base.mime.MimeTypeParser;
 import org.apache.freemarker.generator.base.util.CloseableReaper;
@@ -27,19 +29,26 @@ import org.apache.freemarker.generator.base.util.StringUtils;
 import org.apache.freemarker.generator.base.util.Validate;
 
 import javax.activation.FileDataSource;
+import java.io.ByteArrayInputStream;
 import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.StringWriter;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 import static org.apache.freemarker.generator.base.FreeMarkerConstants.DATASOURCE_UNKNOWN_LENGTH;
@@ -56,6 +65,9 @@ import static org.apache.freemarker.generator.base.mime.Mimetypes.MIME_APPLICATI
  * <br>
  * The implementation makes no assumption if the underlying input
  * stream can be consumed more than once.
+ * <br>
+ * When the <code>DataSourceContentCache</code> is enabled, small files are
+ * kept in memory and shared by subsequent reads.
  */
 public class DataSource implements Closeable, javax.activation.DataSource {
 
@@ -180,6 +192,9 @@ public class DataSource implements Closeable, javax.activation.DataSource {
     @Override
     public void close() {
         closeables.close();
+        if (isHttpUrlDataSource()) {
+            ((HttpUrlDataSource) dataSource).close();
+        }
     }
 
     public String getGroup() {
@@ -262,13 +277,26 @@ public class DataSource implements Closeable, javax.activation.DataSource {
         return properties;
     }
 
+    /**
+     * Fetch the content of a remote data source ahead of its first use, e.g. to
+     * download multiple data sources concurrently. Other data sources are not affected.
+     */
+    public void prefetch() {
+        if (isHttpUrlDataSource()) {
+            ((HttpUrlDataSource) dataSource).prefetch();
+        }
+    }
+
     /**
      * Try to get the length lazily, efficient and without consuming the input stream.
      *
      * @return Length of data source or UNKNOWN_LENGTH
      */
     public long getLength() {
-        if (isFileDataSource()) {
+        final byte[] content = peekCachedContent();
+        if (content != null) {
+            return content.length;
+        } else if (isFileDataSource()) {
             return ((FileDataSource) dataSource).getFile().length();
         } else if (isStringDataSource()) {
             return ((StringDataSource) dataSource).length();
@@ -285,6 +313,11 @@ public class DataSource implements Closeable, javax.activation.DataSource {
      * @return InputStream
      */
     public InputStream getUnsafeInputStream() {
+        final byte[] content = cachedContent();
+        if (content != null) {
+            return new ByteArrayInputStream(content);
+        }
+
         try {
             return dataSource.getInputStream();
         } catch (IOException e) {
@@ -298,6 +331,13 @@ public class DataSource implements Closeable, javax.activation.DataSource {
 
     public String getText(String charsetName) {
         Validate.notEmpty(charsetName, "No charset name provided");
+        final byte[] content = cachedContent();
+        if (content != null) {
+            return new String(content, Charset.forName(charsetName));
+        } else if (isMappableFileDataSource()) {
+            return Charset.forName(charsetName).decode(getByteBuffer()).toString();
+        }
+
         final StringWriter writer = new StringWriter();
         try (InputStream is = getUnsafeInputStream()) {
             IOUtils.copy(is, writer, Charset.forName(charsetName));
@@ -358,6 +398,16 @@ public class DataSource implements Closeable, javax.activation.DataSource {
     }
 
     public byte[] getBytes() {
+        final byte[] content = cachedContent();
+        if (content != null) {
+            return content.clone();
+        } else if (isMappableFileDataSource()) {
+            final ByteBuffer buffer = getByteBuffer();
+            final byte[] result = new byte[buffer.remaining()];
+            buffer.get(result);
+            return result;
+        }
+
         try (InputStream inputStream = getUnsafeInputStream()) {
             return IOUtils.toByteArray(inputStream);
         } catch (IOException e) {
@@ -365,6 +415,93 @@ public class DataSource implements Closeable, javax.activation.DataSource {
         }
     }
 
+    /**
+     * Get the content as read-only <code>ByteBuffer</code>. The content of a file-based
+     * data source is memory-mapped instead of being copied onto the heap.
+     *
+     * @return read-only byte buffer
+     */
+    public ByteBuffer getByteBuffer() {
+        final byte[] content = cachedContent();
+        if (content != null) {
+            return ByteBuffer.wrap(content).asReadOnlyBuffer();
+        } else if (isFileDataSource()) {
+            Validate.isTrue(isMappableFileDataSource(), "File is too large to be mapped at once: " + this);
+            return getByteBuffer(0, getLength());
+        } else if (isByteArrayDataSource()) {
+            return ByteBuffer.wrap(((ByteArrayDataSource) dataSource).getContent()).asReadOnlyBuffer();
+        } else {
+            return ByteBuffer.wrap(getBytes()).asReadOnlyBuffer();
+        }
+    }
+
+    /**
+     * Get a region of the content as read-only <code>ByteBuffer</code>. For a file-based
+     * data source only the requested region is memory-mapped which allows processing
+     * files larger than 2 GB region by region.
+     *
+     * @param position start of the region
+     * @param size     size of the region
+     * @return read-only byte buffer
+     */
+    public ByteBuffer getByteBuffer(long position, long size) {
+        Validate.isTrue(position >= 0, "Negative position: " + position);
+        Validate.isTrue(size >= 0 && size <= Integer.MAX_VALUE, "Invalid size: " + size);
+
+        if (isFileDataSource()) {
+            final File file = ((FileDataSource) dataSource).getFile();
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                final long currentSize = Math.max(0, Math.min(size, channel.size() - position));
+                // the mapping stays valid after closing the channel
+                return channel.map(FileChannel.MapMode.READ_ONLY, position, currentSize);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to map file: " + this, e);
+            }
+        } else {
+            final ByteBuffer buffer = getByteBuffer();
+            final int start = (int) Math.min(position, buffer.limit());
+            final int end = (int) Math.min(start + size, buffer.limit());
+            buffer.position(start);
+            buffer.limit(end);
+            return buffer.slice();
+        }
+    }
+
+    /**
+     * Get the content as <code>CharSequence</code> using the charset of the data source.
+     *
+     * @return char sequence
+     * @see #getCharSequence(String)
+     */
+    public CharSequence getCharSequence() {
+        return getCharSequence(getCharset().name());
+    }
+
+    /**
+     * Get the content as <code>CharSequence</code>, e.g. for matching regular expressions.
+     * Single-byte content (ISO-8859-1 or ASCII-only content) of a file-based data source
+     * is decoded lazily on access from the memory-mapped file while any other content is
+     * decoded once.
+     *
+     * @param charsetName The name of the requested charset
+     * @return char sequence
+     */
+    public CharSequence getCharSequence(String charsetName) {
+        Validate.notEmpty(charsetName, "No charset name provided");
+        final Charset charset = Charset.forName(charsetName);
+
+        if (isStringDataSource() && charset.equals(((StringDataSource) dataSource).getCharset())) {
+            return ((StringDataSource) dataSource).getContent();
+        }
+
+        final ByteBuffer buffer = getByteBuffer();
+        if (isSingleByteContent(charset, buffer)) {
+            return new ByteBufferCharSequence(buffer);
+        } else {
+            return charset.decode(buffer).asReadOnlyBuffer();
+        }
+    }
+
     /**
      * Expose various parts of the metadata as simple strings to cater for filtering in a script.
      *
@@ -469,6 +606,76 @@ public class DataSource implements Closeable, javax.activation.DataSource {
         return dataSource instanceof FileDataSource;
     }
 
+    /**
+     * Get the content from the <code>DataSourceContentCache</code> - only files are
+     * cached since their modification time tells if the cached content is stale.
+     * Content of HTTP URLs is cached by the <code>HttpClient</code> instead.
+     *
+     * @return cached content or null
+     */
+    private byte[] cachedContent() {
+        final DataSourceContentCache cache = DataSourceContentCache.getInstance();
+        if (!cache.isEnabled() || !isFileDataSource()) {
+            return null;
+        }
+
+        final long maxEntrySize = cache.getMaxEntrySize();
+        if (((FileDataSource) dataSource).getFile().length() > maxEntrySize) {
+            return null;
+        }
+
+        return cache.get(contentCacheKey(), () -> readContent(maxEntrySize));
+    }
+
+    private byte[] peekCachedContent() {
+        final DataSourceContentCache cache = DataSourceContentCache.getInstance();
+        return cache.isEnabled() && isFileDataSource() ? cache.peek(contentCacheKey()) : null;
+    }
+
+    DataSourceContentCache.Key contentCacheKey() {
+        if (isFileDataSource()) {
+            final File file = ((FileDataSource) dataSource).getFile();
+            return DataSourceContentCache.Key.of(file.getAbsolutePath(), file.lastModified(), file.length());
+        } else {
+            return DataSourceContentCache.Key.of(dataSource);
+        }
+    }
+
+    /**
+     * Read the content unless it is larger than the given size, e.g. when
+     * the file grew after its length was checked.
+     *
+     * @param maxSize maximum number of bytes to read
+     * @return content or null if the content is too large
+     */
+    private byte[] readContent(long maxSize) {
+        try (InputStream is = dataSource.getInputStream()) {
+            final byte[] content = IOUtils.toByteArray(new BoundedInputStream(is, maxSize + 1));
+            return content.length > maxSize ? null : content;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read content: " + this, e);
+        }
+    }
+
+    /**
+     * A file larger than 2 GB can't be mapped in one piece.
+     *
+     * @return true if the content can be accessed as a single memory-mapped buffer
+     */
+    private boolean isMappableFileDataSource() {
+        return isFileDataSource() && getLength() <= Integer.MAX_VALUE;
+    }
+
+    private static boolean isSingleByteContent(Charset charset, ByteBuffer buffer) {
+        if (charset.equals(ISO_8859_1)) {
+            return true;
+        } else if (charset.equals(US_ASCII) || charset.equals(UTF_8)) {
+            return ByteBufferCharSequence.isAscii(buffer);
+        } else {
+            return false;
+        }
+    }
+
     private boolean isStringDataSource() {
         return dataSource instanceof StringDataSource;
     }
@@ -477,6 +684,10 @@ public class DataSource implements Closeable, javax.activation.DataSource {
         return dataSource instanceof ByteArrayDataSource;
     }
 
+    private boolean isHttpUrlDataSource() {
+        return dataSource instanceof HttpUrlDataSource;
+    }
+
     public static final class DataSourceBuilder {
         private String name;
         private String group;
@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.base.datasource;
+
+import org.apache.freemarker.generator.base.util.Validate;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Global cache for the content of files being read more than once, e.g. calling
+ * <code>dataSource.getText()</code> several times in a template. The cache is
+ * bounded by a total number of bytes and evicts the least recently used content.
+ * Content larger than the maximum entry size is not cached but streamed from the
+ * underlying file. Content of URLs is not cached since it can't be checked for
+ * changes cheaply - HTTP content is cached by the <code>HttpClient</code>.
+ * <p>
+ * The cache is disabled unless a maximum size is configured.
+ */
+public class DataSourceContentCache {
+
+    /** Default maximum size of a single cached content */
+    public static final long DEFAULT_MAX_ENTRY_SIZE = 4L * 1024 * 1024;
+
+    private static final DataSourceContentCache INSTANCE = new DataSourceContentCache(0, DEFAULT_MAX_ENTRY_SIZE);
+
+    /** Maximum number of entries including the ones marking content as not cacheable */
+    private static final int MAX_ENTRIES = 10_000;
+
+    /** Marks content which turned out to be too large to be cached */
+    private static final byte[] NOT_CACHEABLE = new byte[0];
+
+    /** Cached content in access order */
+    private final Map<Key, byte[]> entries;
+
+    /** Maximum number of bytes of all cached content */
+    private long maxSize;
+
+    /** Maximum number of bytes of a single cached content */
+    private long maxEntrySize;
+
+    /** Number of bytes of all cached content */
+    private long currentSize;
+
+    public DataSourceContentCache(long maxSize, long maxEntrySize) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        configure(maxSize, maxEntrySize);
+    }
+
+    public static DataSourceContentCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Change the limits of the cache - all cached content is dropped when the limits change.
+     *
+     * @param maxSize      maximum number of bytes of all cached content, zero disables the cache
+     * @param maxEntrySize maximum number of bytes of a single cached content
+     */
+    public synchronized void configure(long maxSize, long maxEntrySize) {
+        Validate.isTrue(maxSize >= 0, "maxSize must not be negative: " + maxSize);
+        Validate.isTrue(maxEntrySize >= 0, "maxEntrySize must not be negative: " + maxEntrySize);
+
+        if (maxSize != this.maxSize || maxEntrySize != this.maxEntrySize) {
+            this.maxSize = maxSize;
+            this.maxEntrySize = maxEntrySize;
+            clear();
+        }
+    }
+
+    public synchronized boolean isEnabled() {
+        return maxSize > 0 && maxEntrySize > 0;
+    }
+
+    public synchronized long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Get the maximum size of content being cached.
+     *
+     * @return maximum number of bytes of a single cached content
+     */
+    public synchronized long getMaxEntrySize() {
+        return Math.min(maxSize, maxEntrySize);
+    }
+
+    public synchronized long getCurrentSize() {
+        return currentSize;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        currentSize = 0;
+    }
+
+    /**
+     * Get the cached content without loading it.
+     *
+     * @param key key of the content
+     * @return cached content or null
+     */
+    synchronized byte[] peek(Key key) {
+        final byte[] content = entries.get(key);
+        return content == NOT_CACHEABLE ? null : content;
+    }
+
+    /**
+     * Get the cached content or load it. The content is loaded without holding
+     * the lock of the cache so loading content does not block other threads.
+     *
+     * @param key    key of the content
+     * @param loader loads the content or returns null if it is too large to be cached
+     * @return cached content or null if the content is not cached
+     */
+    byte[] get(Key key, Supplier<byte[]> loader) {
+        synchronized (this) {
+            if (!isEnabled()) {
+                return null;
+            }
+            final byte[] content = entries.get(key);
+            if (content != null) {
+                return content == NOT_CACHEABLE ? null : content;
+            }
+        }
+
+        final byte[] content = put(key, loader.get());
+        return content == NOT_CACHEABLE ? null : content;
+    }
+
+    /**
+     * Add the content unless another thread was faster.
+     *
+     * @param key     key of the content
+     * @param content content or null if it is too large to be cached
+     * @return content being cached or <code>NOT_CACHEABLE</code>
+     */
+    private synchronized byte[] put(Key key, byte[] content) {
+        final byte[] existing = entries.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        final byte[] value = content == null || content.length > getMaxEntrySize() ? NOT_CACHEABLE : content;
+        final Iterator<byte[]> iterator = entries.values().iterator();
+        while ((currentSize + value.length > maxSize || entries.size() >= MAX_ENTRIES) && iterator.hasNext()) {
+            currentSize -= iterator.next().length;
+            iterator.remove();
+        }
+
+        entries.put(key, value);
+        currentSize += value.length;
+        return value;
+    }
+
+    /**
+     * Identifies the content of a data source. File-based content is identified by
+     * the file's URI, modification time and length so all data sources of an unchanged
+     * file share the content. Any other content is bound to a single data source since
+     * it might change, e.g. when downloading it again.
+     */
+    static final class Key {
+
+        private final Object owner;
+        private final String uri;
+        private final long lastModified;
+        private final long length;
+
+        private Key(Object owner, String uri, long lastModified, long length) {
+            this.owner = owner;
+            this.uri = uri;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        static Key of(String uri, long lastModified, long length) {
+            return new Key(null, uri, lastModified, length);
+        }
+
+        static Key of(Object owner) {
+            return new Key(Objects.requireNonNull(owner), null, 0, 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return owner == key.owner && lastModified == key.lastModified && length == key.length && Objects.equals(uri, key.uri);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(owner), uri, lastModified, length);
+        }
+    }
+}
@@ -19,8 +19,10 @@ package org.apache.freemarker.generator.base.datasource;
 import org.apache.freemarker.generator.base.FreeMarkerConstants.Location;
 import org.apache.freemarker.generator.base.activation.ByteArrayDataSource;
 import org.apache.freemarker.generator.base.activation.CachingUrlDataSource;
+import org.apache.freemarker.generator.base.activation.HttpUrlDataSource;
 import org.apache.freemarker.generator.base.activation.InputStreamDataSource;
 import org.apache.freemarker.generator.base.activation.StringDataSource;
+import org.apache.freemarker.generator.base.http.HttpClient;
 import org.apache.freemarker.generator.base.mime.MimetypesFileTypeMapFactory;
 import org.apache.freemarker.generator.base.util.PropertiesFactory;
 import org.apache.freemarker.generator.base.util.UriUtils;
@@ -108,6 +110,18 @@ public abstract class DataSourceFactory {
         return create(name, group, uri, dataSource, contentType, charset, properties);
     }
 
+    public static DataSource fromHttpUrl(
+            String name,
+            String group,
+            URL url,
+            String contentType,
+            Charset charset,
+            Map<String, String> properties) {
+        final HttpUrlDataSource dataSource = new HttpUrlDataSource(url, HttpClient.getInstance());
+        final URI uri = UriUtils.toUri(url);
+        return create(name, group, uri, dataSource, contentType, charset, properties);
+    }
+
     // == String ============================================================
 
     public static DataSource fromString(String name, String group, String content, String contentType) {
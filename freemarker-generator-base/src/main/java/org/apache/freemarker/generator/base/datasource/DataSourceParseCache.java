@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.base.datasource;
+
+import org.apache.freemarker.generator.base.util.CachingSupplier;
+import org.apache.freemarker.generator.base.util.Validate;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Global cache for the results of parsing a data source, e.g. a JSON document
+ * parsed by the <code>GsonTool</code>. A data source shared between multiple
+ * outputs is therefore only parsed once per parser. File-based data sources
+ * are identified by the file's URI, modification time and length so a changed
+ * file is parsed again.
+ * <p>
+ * The cache is disabled by default and keeps a bounded number of parse results
+ * in least recently used order. Parse results are softly referenced so they can
+ * be reclaimed when memory gets tight.
+ * <p>
+ * Cached parse results are shared between threads - maps, lists and sets are
+ * therefore copied into read-only collections. Parsers creating other mutable
+ * or non-thread-safe results, e.g. a DOM, must not use the cache.
+ */
+public class DataSourceParseCache {
+
+    private static final DataSourceParseCache INSTANCE = new DataSourceParseCache(0);
+
+    /** Parse results in access order - a supplier parses its data source once */
+    private final Map<List<Object>, SoftReference<CachingSupplier<Object>>> entries;
+
+    /** Maximum number of cached parse results, zero disables the cache */
+    private int maxSize;
+
+    /** Number of requests served from the cache */
+    private final AtomicLong hits;
+
+    /** Number of requests parsing their data source */
+    private final AtomicLong misses;
+
+    public DataSourceParseCache(int maxSize) {
+        this.entries = new LinkedHashMap<List<Object>, SoftReference<CachingSupplier<Object>>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, SoftReference<CachingSupplier<Object>>> eldest) {
+                return size() > DataSourceParseCache.this.maxSize;
+            }
+        };
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        configure(maxSize);
+    }
+
+    public static DataSourceParseCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Change the maximum number of cached parse results - all cached parse results
+     * are dropped when the limit changes.
+     *
+     * @param maxSize maximum number of cached parse results, zero disables the cache
+     */
+    public synchronized void configure(int maxSize) {
+        Validate.isTrue(maxSize >= 0, "maxSize must not be negative: " + maxSize);
+
+        if (maxSize != this.maxSize) {
+            this.maxSize = maxSize;
+            clear();
+        }
+    }
+
+    /**
+     * Get the parse result of the data source or parse it. Concurrent callers
+     * requesting the same parse result wait for a single parse. Maps, lists and
+     * sets of a cached parse result are read-only.
+     *
+     * @param dataSource data source to parse
+     * @param parserKey  identifies the parser and its options, e.g. the tool's class
+     * @param parser     parses the data source
+     * @param <T>        type of the parse result
+     * @return parse result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(DataSource dataSource, Object parserKey, Function<DataSource, T> parser) {
+        requireNonNull(dataSource, "dataSource is null");
+        requireNonNull(parserKey, "parserKey is null");
+        requireNonNull(parser, "parser is null");
+
+        final CachingSupplier<Object> supplier = supplier(dataSource, parserKey, parser);
+        return supplier != null ? (T) supplier.get() : parser.apply(dataSource);
+    }
+
+    public synchronized boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    public synchronized int getMaxSize() {
+        return maxSize;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the number of requests served from the cache since it was created.
+     *
+     * @return hit count
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Get the number of requests parsing their data source since the cache was
+     * created. Requests made while the cache is disabled are not counted.
+     *
+     * @return miss count
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Drop all parse results.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "DataSourceParseCache{" +
+                "maxSize=" + maxSize +
+                ", size=" + entries.size() +
+                ", hits=" + hits.get() +
+                ", misses=" + misses.get() +
+                '}';
+    }
+
+    private synchronized CachingSupplier<Object> supplier(DataSource dataSource, Object parserKey, Function<DataSource, ?> parser) {
+        if (!isEnabled()) {
+            return null;
+        }
+
+        final List<Object> key = Arrays.asList(dataSource.contentCacheKey(), parserKey);
+        final SoftReference<CachingSupplier<Object>> reference = entries.get(key);
+        final CachingSupplier<Object> cachedSupplier = reference != null ? reference.get() : null;
+
+        if (cachedSupplier != null) {
+            hits.incrementAndGet();
+            return cachedSupplier;
+        }
+
+        misses.incrementAndGet();
+        final CachingSupplier<Object> supplier = new CachingSupplier<>(() -> readOnly(parser.apply(dataSource)));
+        entries.put(key, new SoftReference<>(supplier));
+        return supplier;
+    }
+
+    /**
+     * Copy the maps, lists and sets of a cached parse result recursively into
+     * mutable collections, e.g. for a parser whose results are modified by the caller.
+     *
+     * @param value parse result
+     * @return mutable copy of the parse result
+     */
+    public static Object mutableCopy(Object value) {
+        if (value instanceof Map) {
+            final Map<Object, Object> result = new LinkedHashMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> result.put(k, mutableCopy(v)));
+            return result;
+        } else if (value instanceof List) {
+            final List<Object> result = new ArrayList<>(((List<?>) value).size());
+            ((List<?>) value).forEach(v -> result.add(mutableCopy(v)));
+            return result;
+        } else if (value instanceof Set) {
+            final Set<Object> result = new LinkedHashSet<>();
+            ((Set<?>) value).forEach(v -> result.add(mutableCopy(v)));
+            return result;
+        } else {
+            return value;
+        }
+    }
+
+    /**
+     * Copy maps, lists and sets recursively into read-only collections.
+     *
+     * @param value parse result
+     * @return read-only parse result
+     */
+    static Object readOnly(Object value) {
+        if (value instanceof Map) {
+            final Map<Object, Object> result = new LinkedHashMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> result.put(k, readOnly(v)));
+            return Collections.unmodifiableMap(result);
+        } else if (value instanceof List) {
+            final List<Object> result = new ArrayList<>(((List<?>) value).size());
+            ((List<?>) value).forEach(v -> result.add(readOnly(v)));
+            return Collections.unmodifiableList(result);
+        } else if (value instanceof Set) {
+            final Set<Object> result = new LinkedHashSet<>();
+            ((Set<?>) value).forEach(v -> result.add(readOnly(v)));
+            return Collections.unmodifiableSet(result);
+        } else {
+            return value;
+        }
+    }
+}
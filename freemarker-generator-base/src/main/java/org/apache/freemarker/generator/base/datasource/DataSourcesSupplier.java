@@ -30,6 +30,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Supplier;
 
 import static java.util.Collections.singletonList;
@@ -42,6 +46,9 @@ import static org.apache.freemarker.generator.base.FreeMarkerConstants.DEFAULT_G
  */
 public class DataSourcesSupplier implements Supplier<List<DataSource>> {
 
+    /** Maximum number of HTTP data sources being downloaded concurrently */
+    private static final int MAX_PREFETCH_THREADS = 8;
+
     private final DataSourceLoader dataSourceLoader;
 
     /** List of source files and/or directories */
@@ -74,10 +81,12 @@ public class DataSourcesSupplier implements Supplier<List<DataSource>> {
 
     @Override
     public List<DataSource> get() {
-        return sources.stream()
+        final List<DataSource> dataSources = sources.stream()
                 .map(this::get)
                 .flatMap(Collection::stream)
                 .collect(toList());
+        prefetch(dataSources);
+        return dataSources;
     }
 
     /**
@@ -102,6 +111,41 @@ public class DataSourcesSupplier implements Supplier<List<DataSource>> {
         }
     }
 
+    /**
+     * Download multiple HTTP data sources concurrently instead of one after another
+     * when they are used. A failed download is ignored here and reported when the
+     * data source is actually used.
+     *
+     * @param dataSources data sources
+     */
+    public static void prefetch(List<DataSource> dataSources) {
+        final List<DataSource> httpDataSources = dataSources.stream()
+                .filter(dataSource -> isHttpUri(dataSource.getUri().toString()))
+                .collect(toList());
+
+        if (httpDataSources.size() < 2) {
+            return;
+        }
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(Math.min(httpDataSources.size(), MAX_PREFETCH_THREADS));
+        try {
+            final List<Future<?>> futures = httpDataSources.stream()
+                    .map(dataSource -> executorService.submit(dataSource::prefetch))
+                    .collect(toList());
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // fetched again when the data source is used
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
     private DataSource resolveHttpUrl(String source) {
         return dataSourceLoader.load(source);
     }
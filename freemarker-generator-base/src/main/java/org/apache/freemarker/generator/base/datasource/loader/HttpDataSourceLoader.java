@@ -50,7 +50,7 @@ public class HttpDataSourceLoader implements DataSourceLoader {
         final URL url = toUrl(uri);
         final String name = namedUri.getNameOrDefault(UriUtils.toStringWithoutFragment(uri));
         final Map<String, String> parameters = namedUri.getParameters();
-        return DataSourceFactory.fromUrl(name, group, url, mimeType, charset, parameters);
+        return DataSourceFactory.fromHttpUrl(name, group, url, mimeType, charset, parameters);
     }
 
     private static URL toUrl(URI uri) {
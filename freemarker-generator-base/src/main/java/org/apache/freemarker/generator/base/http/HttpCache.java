@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.base.http;
+
+import org.apache.freemarker.generator.base.util.HashUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Persistent cache of HTTP content having an <code>ETag</code> or <code>Last-Modified</code>
+ * header. Every URL is stored as a content file and a properties file named after the
+ * SHA-256 of the URL. Files are written to a temporary file and moved into place so
+ * concurrent processes never see a partially written entry.
+ */
+public class HttpCache {
+
+    private static final String URL = "url";
+    private static final String CONTENT_TYPE = "contentType";
+    private static final String ETAG = "etag";
+    private static final String LAST_MODIFIED = "lastModified";
+
+    private final File directory;
+
+    public HttpCache(File directory) {
+        this.directory = requireNonNull(directory);
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Get the cached content of the URL.
+     *
+     * @param url URL
+     * @return cached content or null
+     */
+    public HttpContent get(URL url) {
+        final String key = key(url);
+        final File propertiesFile = new File(directory, key + ".properties");
+        final File contentFile = new File(directory, key + ".content");
+        if (!propertiesFile.exists() || !contentFile.exists()) {
+            return null;
+        }
+
+        try {
+            final Properties properties = new Properties();
+            try (InputStream is = Files.newInputStream(propertiesFile.toPath())) {
+                properties.load(is);
+            }
+            if (!url.toExternalForm().equals(properties.getProperty(URL))) {
+                return null;
+            }
+            return new HttpContent(
+                    url,
+                    contentFile,
+                    false,
+                    properties.getProperty(CONTENT_TYPE),
+                    properties.getProperty(ETAG),
+                    properties.getProperty(LAST_MODIFIED));
+        } catch (IOException e) {
+            // a broken cache entry is simply fetched again
+            return null;
+        }
+    }
+
+    /**
+     * Store the content by streaming it into the cache directory.
+     *
+     * @param url          URL
+     * @param is           decoded content to be copied
+     * @param contentType  optional content type
+     * @param etag         optional <code>ETag</code> header
+     * @param lastModified optional <code>Last-Modified</code> header
+     * @return cached content
+     */
+    public HttpContent put(URL url, InputStream is, String contentType, String etag, String lastModified) {
+        final String key = key(url);
+        final File contentFile = new File(directory, key + ".content");
+        final Properties properties = new Properties();
+        properties.setProperty(URL, url.toExternalForm());
+        setProperty(properties, CONTENT_TYPE, contentType);
+        setProperty(properties, ETAG, etag);
+        setProperty(properties, LAST_MODIFIED, lastModified);
+
+        try {
+            Files.createDirectories(directory.toPath());
+            // the content is written first so that a properties file always refers to complete content
+            write(contentFile, is);
+            final Path temp = tempFile(key);
+            try (OutputStream os = Files.newOutputStream(temp)) {
+                properties.store(os, null);
+            }
+            move(temp, new File(directory, key + ".properties"));
+            return new HttpContent(url, contentFile, false, contentType, etag, lastModified);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to cache HTTP content: " + url, e);
+        }
+    }
+
+    private void write(File file, InputStream is) throws IOException {
+        final Path temp = tempFile(file.getName());
+        try {
+            Files.copy(is, temp, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        move(temp, file);
+    }
+
+    private Path tempFile(String name) throws IOException {
+        return Files.createTempFile(directory.toPath(), name, ".tmp");
+    }
+
+    private static void move(Path source, File target) throws IOException {
+        try {
+            Files.move(source, target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(source, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void setProperty(Properties properties, String key, String value) {
+        if (value != null) {
+            properties.setProperty(key, value);
+        }
+    }
+
+    private static String key(URL url) {
+        return HashUtils.sha256(url.toExternalForm());
+    }
+}
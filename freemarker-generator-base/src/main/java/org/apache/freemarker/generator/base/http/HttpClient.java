@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.base.http;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.freemarker.generator.base.util.Validate;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Global HTTP client used to load remote data sources.
+ * <p>
+ * Connections are pooled by the JDK's keep-alive cache which re-uses a connection
+ * once its response was read completely - the size of the pool is controlled by the
+ * <code>http.maxConnections</code> system property. Responses are requested with
+ * gzip/deflate compression. When a cache directory is configured, content having an
+ * <code>ETag</code> or <code>Last-Modified</code> header is stored on disk and
+ * re-validated using a conditional GET on subsequent runs. Any other content is
+ * spooled to a temporary file, so response bodies are streamed and never held in
+ * memory as a whole.
+ */
+public class HttpClient {
+
+    /** Default connect timeout in milliseconds */
+    public static final int DEFAULT_CONNECT_TIMEOUT = 10_000;
+
+    /** Default read timeout in milliseconds */
+    public static final int DEFAULT_READ_TIMEOUT = 60_000;
+
+    private static final HttpClient INSTANCE = new HttpClient(DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT, null);
+
+    private volatile int connectTimeout;
+    private volatile int readTimeout;
+
+    /** Optional persistent cache */
+    private volatile HttpCache cache;
+
+    public HttpClient(int connectTimeout, int readTimeout, File cacheDirectory) {
+        configure(connectTimeout, readTimeout, cacheDirectory);
+    }
+
+    public static HttpClient getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Configure the client.
+     *
+     * @param connectTimeout connect timeout in milliseconds, zero waits forever
+     * @param readTimeout    read timeout in milliseconds, zero waits forever
+     * @param cacheDirectory optional directory to cache content across runs
+     */
+    public synchronized void configure(int connectTimeout, int readTimeout, File cacheDirectory) {
+        Validate.isTrue(connectTimeout >= 0, "connectTimeout must not be negative: " + connectTimeout);
+        Validate.isTrue(readTimeout >= 0, "readTimeout must not be negative: " + readTimeout);
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.cache = cacheDirectory != null ? cache(cacheDirectory) : null;
+    }
+
+    /**
+     * Keep the current cache when the same cache directory is configured again.
+     */
+    private HttpCache cache(File cacheDirectory) {
+        final HttpCache currentCache = this.cache;
+        return currentCache != null && currentCache.getDirectory().equals(cacheDirectory) ? currentCache : new HttpCache(cacheDirectory);
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public HttpCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Fetch the content of the URL. Cached content is re-validated with the server
+     * and only transferred again when it has changed.
+     *
+     * @param url URL
+     * @return content
+     */
+    public HttpContent get(URL url) {
+        requireNonNull(url);
+        final HttpCache currentCache = cache;
+        final HttpContent cached = currentCache != null ? currentCache.get(url) : null;
+
+        try {
+            final URLConnection urlConnection = url.openConnection();
+            urlConnection.setConnectTimeout(connectTimeout);
+            urlConnection.setReadTimeout(readTimeout);
+            if (!(urlConnection instanceof HttpURLConnection)) {
+                try (InputStream is = urlConnection.getInputStream()) {
+                    return spool(url, is, urlConnection.getContentType(), null, null);
+                }
+            }
+
+            final HttpURLConnection connection = (HttpURLConnection) urlConnection;
+            connection.setRequestProperty("Accept-Encoding", "gzip, deflate");
+            if (cached != null) {
+                if (cached.getEtag() != null) {
+                    connection.setRequestProperty("If-None-Match", cached.getEtag());
+                }
+                if (cached.getLastModified() != null) {
+                    connection.setRequestProperty("If-Modified-Since", cached.getLastModified());
+                }
+            }
+
+            final int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+                drain(connection.getInputStream());
+                return cached;
+            } else if (status >= HttpURLConnection.HTTP_BAD_REQUEST) {
+                drain(connection.getErrorStream());
+                throw new IOException("HTTP status " + status);
+            }
+
+            final String contentType = connection.getContentType();
+            final String etag = connection.getHeaderField("ETag");
+            final String lastModified = connection.getHeaderField("Last-Modified");
+            try (InputStream is = decode(connection.getInputStream(), connection.getContentEncoding())) {
+                if (currentCache != null && (etag != null || lastModified != null)) {
+                    return currentCache.put(url, is, contentType, etag, lastModified);
+                } else {
+                    return spool(url, is, contentType, etag, lastModified);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to fetch URL: " + url, e);
+        }
+    }
+
+    /**
+     * Copy content which can't be cached into a temporary file - the file is
+     * deleted when the owning data source is closed.
+     */
+    private static HttpContent spool(URL url, InputStream is, String contentType, String etag, String lastModified) throws IOException {
+        final Path file = Files.createTempFile("freemarker-generator-http-", ".tmp");
+        try {
+            Files.copy(is, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new HttpContent(url, file.toFile(), true, contentType, etag, lastModified);
+    }
+
+    private static InputStream decode(InputStream is, String contentEncoding) throws IOException {
+        if ("gzip".equalsIgnoreCase(contentEncoding) || "x-gzip".equalsIgnoreCase(contentEncoding)) {
+            return new GZIPInputStream(is);
+        } else if ("deflate".equalsIgnoreCase(contentEncoding)) {
+            return new InflaterInputStream(is);
+        } else {
+            return is;
+        }
+    }
+
+    /**
+     * Read the remaining response so the connection is returned to the keep-alive cache.
+     */
+    private static void drain(InputStream is) throws IOException {
+        if (is != null) {
+            try (InputStream in = is) {
+                IOUtils.skip(in, Long.MAX_VALUE);
+            }
+        }
+    }
+}
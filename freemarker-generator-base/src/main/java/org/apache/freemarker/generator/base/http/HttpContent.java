@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.base.http;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Content fetched from an HTTP URL together with the validators used
+ * for conditional requests. The body is kept on disk, either as an entry
+ * of the <code>HttpCache</code> or as a temporary file, and streamed from
+ * there so that large responses are never held in memory.
+ */
+public class HttpContent {
+
+    private final URL url;
+    private final File file;
+    private final boolean temporary;
+    private final String contentType;
+    private final String etag;
+    private final String lastModified;
+
+    public HttpContent(URL url, File file, boolean temporary, String contentType, String etag, String lastModified) {
+        this.url = requireNonNull(url);
+        this.file = requireNonNull(file);
+        this.temporary = temporary;
+        this.contentType = contentType;
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    public URL getUrl() {
+        return url;
+    }
+
+    /**
+     * Get the file containing the decoded content.
+     *
+     * @return file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Is the content stored in a temporary file instead of the <code>HttpCache</code>?
+     *
+     * @return true if the file should be deleted when no longer needed
+     */
+    public boolean isTemporary() {
+        return temporary;
+    }
+
+    public long getLength() {
+        return file.length();
+    }
+
+    /**
+     * Open a new input stream for the decoded content which needs to be closed by the caller.
+     *
+     * @return input stream
+     * @throws IOException the file could not be opened
+     */
+    public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(file.toPath());
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public boolean hasValidator() {
+        return etag != null || lastModified != null;
+    }
+
+    /**
+     * Delete a temporary file, content stored in the <code>HttpCache</code> is kept.
+     */
+    public void delete() {
+        if (temporary) {
+            file.delete();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "HttpContent{" +
+                "url=" + url +
+                ", file=" + file +
+                ", contentType='" + contentType + '\'' +
+                ", etag='" + etag + '\'' +
+                ", lastModified='" + lastModified + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,387 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.base.table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column vector of a <code>Table</code> storing the values of a single column.
+ * <p>
+ * Integer, long, double and boolean values are stored as primitives and strings
+ * are dictionary-encoded. A typed column is converted into a column of plain
+ * objects when a value of a different type is appended so that every value
+ * is returned exactly as it was appended.
+ */
+abstract class Column {
+
+    /** Maximum number of distinct values of a dictionary-encoded string column */
+    static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Type of the first non-null value or null if there is none */
+    protected final Class<?> type;
+
+    /** Number of rows */
+    protected int size;
+
+    protected Column(Class<?> type) {
+        this.type = type;
+    }
+
+    /**
+     * Create an empty column.
+     *
+     * @return empty column
+     */
+    static Column create() {
+        return new NullColumn();
+    }
+
+    /**
+     * Append a value.
+     *
+     * @param value value to append or null
+     * @return this column or a new column if the value can't be stored by this column
+     */
+    abstract Column add(Object value);
+
+    abstract Object get(int row);
+
+    int size() {
+        return size;
+    }
+
+    Class<?> getType() {
+        return type != null ? type : Object.class;
+    }
+
+    /**
+     * Append nulls until the column has the given number of rows.
+     *
+     * @param rows number of rows
+     * @return this column or a new column
+     */
+    Column fill(int rows) {
+        Column result = this;
+        while (result.size() < rows) {
+            result = result.add(null);
+        }
+        return result;
+    }
+
+    /**
+     * Copy the existing values into a column of plain objects before appending
+     * a value the current column can't store.
+     *
+     * @param value value to append
+     * @return column of plain objects
+     */
+    protected Column toObjectColumn(Object value) {
+        final ObjectColumn result = new ObjectColumn(type, size + INITIAL_CAPACITY);
+        for (int i = 0; i < size; i++) {
+            result.add(get(i));
+        }
+        return result.add(value);
+    }
+
+    protected static int grow(int capacity) {
+        return Math.max(INITIAL_CAPACITY, capacity + (capacity >> 1));
+    }
+
+    /**
+     * Column containing only null values so far.
+     */
+    private static final class NullColumn extends Column {
+
+        NullColumn() {
+            super(null);
+        }
+
+        @Override
+        Column add(Object value) {
+            if (value == null) {
+                size++;
+                return this;
+            }
+
+            return typedColumn(value.getClass()).fill(size).add(value);
+        }
+
+        @Override
+        Object get(int row) {
+            checkIndex(row, size);
+            return null;
+        }
+
+        private static Column typedColumn(Class<?> type) {
+            if (type == Integer.class) {
+                return new IntColumn();
+            } else if (type == Long.class) {
+                return new LongColumn();
+            } else if (type == Double.class) {
+                return new DoubleColumn();
+            } else if (type == Boolean.class) {
+                return new BooleanColumn();
+            } else if (type == String.class) {
+                return new StringColumn();
+            } else {
+                return new ObjectColumn(type, INITIAL_CAPACITY);
+            }
+        }
+    }
+
+    /**
+     * Base class of columns storing primitive values with a bit set marking null values.
+     */
+    private abstract static class PrimitiveColumn extends Column {
+
+        /** Rows containing a null value */
+        protected final BitSet nulls;
+
+        PrimitiveColumn(Class<?> type) {
+            super(type);
+            this.nulls = new BitSet();
+        }
+
+        @Override
+        Column add(Object value) {
+            if (value == null) {
+                ensureCapacity(size + 1);
+                nulls.set(size++);
+                return this;
+            } else if (value.getClass() == type) {
+                ensureCapacity(size + 1);
+                set(size++, value);
+                return this;
+            } else {
+                return toObjectColumn(value);
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            checkIndex(row, size);
+            return nulls.get(row) ? null : getValue(row);
+        }
+
+        protected abstract void ensureCapacity(int capacity);
+
+        protected abstract void set(int row, Object value);
+
+        protected abstract Object getValue(int row);
+    }
+
+    private static final class IntColumn extends PrimitiveColumn {
+
+        private int[] values = new int[INITIAL_CAPACITY];
+
+        IntColumn() {
+            super(Integer.class);
+        }
+
+        @Override
+        protected void ensureCapacity(int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, Math.max(capacity, grow(values.length)));
+            }
+        }
+
+        @Override
+        protected void set(int row, Object value) {
+            values[row] = (Integer) value;
+        }
+
+        @Override
+        protected Object getValue(int row) {
+            return values[row];
+        }
+    }
+
+    private static final class LongColumn extends PrimitiveColumn {
+
+        private long[] values = new long[INITIAL_CAPACITY];
+
+        LongColumn() {
+            super(Long.class);
+        }
+
+        @Override
+        protected void ensureCapacity(int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, Math.max(capacity, grow(values.length)));
+            }
+        }
+
+        @Override
+        protected void set(int row, Object value) {
+            values[row] = (Long) value;
+        }
+
+        @Override
+        protected Object getValue(int row) {
+            return values[row];
+        }
+    }
+
+    private static final class DoubleColumn extends PrimitiveColumn {
+
+        private double[] values = new double[INITIAL_CAPACITY];
+
+        DoubleColumn() {
+            super(Double.class);
+        }
+
+        @Override
+        protected void ensureCapacity(int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, Math.max(capacity, grow(values.length)));
+            }
+        }
+
+        @Override
+        protected void set(int row, Object value) {
+            values[row] = (Double) value;
+        }
+
+        @Override
+        protected Object getValue(int row) {
+            return values[row];
+        }
+    }
+
+    private static final class BooleanColumn extends PrimitiveColumn {
+
+        private final BitSet values = new BitSet();
+
+        BooleanColumn() {
+            super(Boolean.class);
+        }
+
+        @Override
+        protected void ensureCapacity(int capacity) {
+            // bit set grows on demand
+        }
+
+        @Override
+        protected void set(int row, Object value) {
+            values.set(row, (Boolean) value);
+        }
+
+        @Override
+        protected Object getValue(int row) {
+            return values.get(row);
+        }
+    }
+
+    /**
+     * Dictionary-encoded string column - falls back to a column of plain
+     * objects if there are too many distinct values.
+     */
+    private static final class StringColumn extends Column {
+
+        /** Code used for null values */
+        private static final int NULL_CODE = -1;
+
+        private final List<String> dictionary = new ArrayList<>();
+        private final Map<String, Integer> codes = new HashMap<>();
+        private int[] values = new int[INITIAL_CAPACITY];
+
+        StringColumn() {
+            super(String.class);
+        }
+
+        @Override
+        Column add(Object value) {
+            if (value != null && value.getClass() != String.class) {
+                return toObjectColumn(value);
+            }
+
+            final int code = value == null ? NULL_CODE : code((String) value);
+            if (code == NULL_CODE && value != null) {
+                return toObjectColumn(value);
+            }
+
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+            values[size++] = code;
+            return this;
+        }
+
+        @Override
+        Object get(int row) {
+            checkIndex(row, size);
+            final int code = values[row];
+            return code == NULL_CODE ? null : dictionary.get(code);
+        }
+
+        /**
+         * Get the code of the given value.
+         *
+         * @return code or <code>NULL_CODE</code> if the dictionary is full
+         */
+        private int code(String value) {
+            final Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            } else if (dictionary.size() >= MAX_DICTIONARY_SIZE) {
+                return NULL_CODE;
+            }
+
+            dictionary.add(value);
+            codes.put(value, dictionary.size() - 1);
+            return dictionary.size() - 1;
+        }
+    }
+
+    /**
+     * Column storing plain objects.
+     */
+    private static final class ObjectColumn extends Column {
+
+        private final ArrayList<Object> values;
+
+        ObjectColumn(Class<?> type, int capacity) {
+            super(type);
+            this.values = new ArrayList<>(capacity);
+        }
+
+        @Override
+        Column add(Object value) {
+            values.add(value);
+            size++;
+            return this;
+        }
+
+        @Override
+        Object get(int row) {
+            return values.get(row);
+        }
+    }
+
+    private static void checkIndex(int row, int size) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Index: " + row + ", Size: " + size);
+        }
+    }
+}
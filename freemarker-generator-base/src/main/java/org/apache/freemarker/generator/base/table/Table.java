@@ -18,6 +18,7 @@ package org.apache.freemarker.generator.base.table;
 
 import org.apache.freemarker.generator.base.util.ListUtils;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -26,10 +27,13 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
 import static java.util.Objects.requireNonNull;
 
 /**
  * Simple table model filled from maps or rows representing tabular data.
+ * The values are stored column by column using primitive arrays for integer,
+ * long, double and boolean columns and dictionary-encoded string columns.
  */
 public class Table {
 
@@ -39,8 +43,11 @@ public class Table {
     /** Column types derived from tabular data */
     private final List<Class<?>> columnTypes;
 
-    /** Table data as rows */
-    private final List<List<Object>> values;
+    /** Table data as columns */
+    private final List<Column> columns;
+
+    /** Number of rows */
+    private final int size;
 
     /** Map column names to column index */
     private final Map<String, Integer> columnMap;
@@ -48,14 +55,16 @@ public class Table {
     private Table() {
         this.columnNames = emptyList();
         this.columnTypes = emptyList();
-        this.values = emptyList();
+        this.columns = emptyList();
+        this.size = 0;
         this.columnMap = new HashMap<>();
     }
 
-    private Table(Collection<String> columnNames, Collection<Class<?>> columnTypes, List<List<Object>> columnValuesList) {
+    private Table(List<String> columnNames, List<Column> columns, int size) {
         this.columnNames = new ArrayList<>(requireNonNull(columnNames));
-        this.columnTypes = new ArrayList<>(requireNonNull(columnTypes));
-        this.values = ListUtils.transpose(requireNonNull(columnValuesList));
+        this.columnTypes = columns.stream().map(Column::getType).collect(Collectors.toList());
+        this.columns = new ArrayList<>(requireNonNull(columns));
+        this.size = size;
         this.columnMap = columnMap(this.columnNames);
     }
 
@@ -67,38 +76,63 @@ public class Table {
         return columnTypes;
     }
 
+    /**
+     * Get the table data as rows - the rows are created on demand.
+     *
+     * @return list of rows
+     */
     public List<List<Object>> getValues() {
-        return values;
+        return new AbstractList<List<Object>>() {
+            @Override
+            public List<Object> get(int row) {
+                return getRow(row);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
     }
 
     public int getNrOfColumns() {
-        return columnNames.isEmpty() ? values.isEmpty() ? 0 : values.get(0).size() : columnNames.size();
+        return columnNames.isEmpty() ? columns.size() : columnNames.size();
     }
 
     public int size() {
-        return values.size();
+        return size;
     }
 
     public boolean isEmpty() {
-        return values.isEmpty();
+        return size == 0;
     }
 
     public List<Object> getRow(int row) {
-        return values.get(row);
+        checkRow(row);
+        final List<Object> result = new ArrayList<>(columns.size());
+        for (Column column : columns) {
+            result.add(column.get(row));
+        }
+        return unmodifiableList(result);
     }
 
     public Object get(int row, int column) {
-        return values.get(row).get(column);
+        checkRow(row);
+        return columns.get(column).get(row);
     }
 
     public Object get(int row, String column) {
-        return values.get(row).get(columnMap.get(column));
+        return get(row, columnMap.get(column));
     }
 
     public boolean hasColumnHeaderRow() {
         return !columnNames.isEmpty();
     }
 
+    public static TableBuilder builder() {
+        return new TableBuilder();
+    }
+
     /**
      * Create a table from a list of maps. Non-tabular data is supported,
      * i.e. not all maps contains all possible keys.
@@ -111,14 +145,9 @@ public class Table {
             return new Table();
         }
 
-        final List<String> columnNames = columnNames(maps);
-        final List<List<Object>> columnValuesList = columnValuesList(maps, columnNames);
-        final List<Class<?>> columnTypes = columnTypes(columnValuesList);
-
-        return new Table(
-                columnNames,
-                columnTypes,
-                columnValuesList);
+        final TableBuilder builder = builder();
+        maps.forEach(builder::addRow);
+        return builder.build();
     }
 
     /**
@@ -130,13 +159,9 @@ public class Table {
     public static Table fromRows(List<List<Object>> rows) {
         requireNonNull(rows, "rows is null");
 
-        final List<List<Object>> columnValuesList = ListUtils.transpose(rows);
-        final List<Class<?>> columnTypes = columnTypes(columnValuesList);
-
-        return new Table(
-                new ArrayList<>(),
-                columnTypes,
-                columnValuesList);
+        final TableBuilder builder = builder();
+        rows.forEach(builder::addRow);
+        return builder.build();
     }
 
     /**
@@ -172,27 +197,9 @@ public class Table {
         requireNonNull(columnNames, "columnNames is null");
         requireNonNull(rows, "rows is null");
 
-        final List<List<Object>> columnValuesList = ListUtils.transpose(rows);
-        final List<Class<?>> columnTypes = columnTypes(columnValuesList);
-
-        return new Table(
-                new ArrayList<>(columnNames),
-                columnTypes,
-                columnValuesList);
-    }
-
-    /**
-     * Determine column names based on all available keys of the maps.
-     *
-     * @param maps list of maps
-     * @return column names
-     */
-    private static List<String> columnNames(Collection<Map<String, Object>> maps) {
-        return maps.stream()
-                .map(Map::keySet)
-                .flatMap(Collection::stream)
-                .distinct()
-                .collect(Collectors.toList());
+        final TableBuilder builder = builder().columnNames(columnNames);
+        rows.forEach(builder::addRow);
+        return builder.build();
     }
 
     /**
@@ -207,59 +214,110 @@ public class Table {
                 .collect(Collectors.toList());
     }
 
-    /**
-     * Determine all column values.
-     *
-     * @param maps        list of maps
-     * @param columnNames column names
-     * @return list of column values
-     */
-    private static List<List<Object>> columnValuesList(Collection<Map<String, Object>> maps, List<String> columnNames) {
-        return columnNames.stream()
-                .map(columnName -> columnValues(maps, columnName))
-                .collect(Collectors.toList());
+    private static Map<String, Integer> columnMap(List<String> columnNames) {
+        final Map<String, Integer> result = new HashMap<>();
+        for (int i = 0; i < columnNames.size(); i++) {
+            result.put(columnNames.get(i), i);
+        }
+        return result;
     }
 
-    /**
-     * Determine the values of a single column.
-     *
-     * @param maps       list of maps
-     * @param columnName column name
-     * @return values of the given column
-     */
-    private static List<Object> columnValues(Collection<Map<String, Object>> maps, String columnName) {
-        return maps.stream()
-                .map(map -> map.getOrDefault(columnName, null))
-                .collect(Collectors.toList());
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Index: " + row + ", Size: " + size);
+        }
     }
 
     /**
-     * Determine the column types based on the first non-null values.
-     *
-     * @param columnValuesList list of column values
-     * @return classes of the first non-null value
+     * Builds a table by appending one row after another without keeping
+     * the rows around. Rows can be appended as lists or maps - a map
+     * containing an unknown key adds a new column. The builder must not
+     * be used after building the table.
      */
-    private static List<Class<?>> columnTypes(List<List<Object>> columnValuesList) {
-        return columnValuesList.stream()
-                .map(Table::columnType)
-                .collect(Collectors.toList());
-    }
+    public static final class TableBuilder {
+
+        private final List<String> columnNames;
+        private final List<Column> columns;
+        private final Map<String, Integer> columnMap;
+        private int size;
+
+        private TableBuilder() {
+            this.columnNames = new ArrayList<>();
+            this.columns = new ArrayList<>();
+            this.columnMap = new HashMap<>();
+            this.size = 0;
+        }
 
-    /**
-     * Determine the column type based on the first non-null value.
-     *
-     * @param columnValues column values
-     * @return class of the first non-null value
-     */
-    private static Class<?> columnType(List<Object> columnValues) {
-        return ListUtils.coalesce(columnValues).getClass();
-    }
+        public TableBuilder columnNames(Collection<String> columnNames) {
+            requireNonNull(columnNames, "columnNames is null");
+            if (size > 0) {
+                throw new IllegalStateException("Column names must be set before adding rows");
+            }
+            for (String columnName : columnNames) {
+                columnMap.put(columnName, columns.size());
+                this.columnNames.add(columnName);
+                columns.add(Column.create());
+            }
+            return this;
+        }
 
-    private static Map<String, Integer> columnMap(List<String> columnNames) {
-        final Map<String, Integer> result = new HashMap<>();
-        for (int i = 0; i < columnNames.size(); i++) {
-            result.put(columnNames.get(i), i);
+        /**
+         * Append a row - missing values are treated as null.
+         *
+         * @param row row values
+         * @return this builder
+         */
+        public TableBuilder addRow(List<?> row) {
+            requireNonNull(row, "row is null");
+
+            for (int i = columns.size(); i < row.size(); i++) {
+                columns.add(Column.create().fill(size));
+            }
+
+            for (int i = 0; i < columns.size(); i++) {
+                columns.set(i, columns.get(i).add(i < row.size() ? row.get(i) : null));
+            }
+
+            size++;
+            return this;
+        }
+
+        /**
+         * Append a row - unknown keys add a new column and missing keys are treated as null.
+         *
+         * @param row row values by column name
+         * @return this builder
+         */
+        public TableBuilder addRow(Map<String, ?> row) {
+            requireNonNull(row, "row is null");
+            if (columnNames.size() != columns.size()) {
+                throw new IllegalStateException("Column names are required to add a row as map");
+            }
+
+            row.keySet().forEach(this::column);
+
+            for (int i = 0; i < columns.size(); i++) {
+                columns.set(i, columns.get(i).add(row.get(columnNames.get(i))));
+            }
+
+            size++;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public Table build() {
+            return new Table(columnNames, columns, size);
+        }
+
+        private void column(String columnName) {
+            if (!columnMap.containsKey(columnName)) {
+                columnMap.put(columnName, columns.size());
+                columnNames.add(columnName);
+                columns.add(Column.create().fill(size));
+            }
         }
-        return result;
     }
 }
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.datasource;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.freemarker.generator.base.datasource.DataSource;
+import org.apache.freemarker.generator.base.datasource.DataSourceContentCache;
+import org.apache.freemarker.generator.base.datasource.DataSourceFactory;
+import org.apache.freemarker.generator.base.util.UriUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.freemarker.generator.base.datasource.DataSourceContentCache.DEFAULT_MAX_ENTRY_SIZE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DataSourceContentCacheTest {
+
+    private static final String ANY_TEXT = "Hello World";
+    private static final String ANY_LARGE_TEXT = "0123456789012345678901234567890123456789";
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final DataSourceContentCache cache = DataSourceContentCache.getInstance();
+
+    @Before
+    public void setUp() {
+        cache.configure(64, 32);
+    }
+
+    @After
+    public void tearDown() {
+        cache.configure(0, DEFAULT_MAX_ENTRY_SIZE);
+    }
+
+    @Test
+    public void shouldBeDisabledByDefault() {
+        cache.configure(0, DEFAULT_MAX_ENTRY_SIZE);
+
+        assertFalse(cache.isEnabled());
+    }
+
+    @Test
+    public void shouldReadFileDataSourceMultipleTimes() throws IOException {
+        final DataSource dataSource = fileDataSource("test.txt", ANY_TEXT);
+
+        assertEquals(ANY_TEXT, dataSource.getText());
+        assertEquals(ANY_TEXT, dataSource.getText());
+        assertEquals(ANY_TEXT, new String(dataSource.getBytes(), UTF_8));
+        assertEquals(ANY_TEXT.length(), dataSource.getLength());
+        assertEquals(1, cache.size());
+        assertEquals(ANY_TEXT.length(), cache.getCurrentSize());
+    }
+
+    @Test
+    public void shouldNotCacheUrlDataSource() throws IOException {
+        final DataSource dataSource = urlDataSource("test.txt", ANY_TEXT);
+
+        assertEquals(ANY_TEXT, dataSource.getText());
+        assertEquals(ANY_TEXT, dataSource.getText());
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getCurrentSize());
+    }
+
+    @Test
+    public void shouldNotCacheInputStreamDataSource() {
+        final DataSource dataSource = inputStreamDataSource("test.txt", ANY_TEXT);
+
+        assertEquals(ANY_TEXT, dataSource.getText());
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getCurrentSize());
+    }
+
+    @Test
+    public void shouldNotCacheContentExceedingMaxEntrySize() throws IOException {
+        final DataSource fileDataSource = fileDataSource("large.txt", ANY_LARGE_TEXT);
+
+        assertEquals(ANY_LARGE_TEXT, fileDataSource.getText());
+        assertEquals(ANY_LARGE_TEXT, fileDataSource.getText());
+        assertEquals(0, cache.getCurrentSize());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedContent() throws IOException {
+        final DataSource first = fileDataSource("first.txt", "0123456789012345678901234");
+        final DataSource second = fileDataSource("second.txt", "0123456789012345678901234");
+        final DataSource third = fileDataSource("third.txt", "0123456789012345678901234");
+
+        first.getText();
+        second.getText();
+        third.getText();
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.getCurrentSize() <= cache.getMaxSize());
+    }
+
+    @Test
+    public void shouldClearCacheWhenReconfigured() throws IOException {
+        fileDataSource("test.txt", ANY_TEXT).getText();
+
+        cache.configure(128, 32);
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getCurrentSize());
+    }
+
+    private DataSource fileDataSource(String name, String content) throws IOException {
+        return DataSourceFactory.fromFile(file(name, content), UTF_8);
+    }
+
+    private DataSource urlDataSource(String name, String content) throws IOException {
+        return DataSourceFactory.fromUrl(name, "default", file(name, content).toURI().toURL());
+    }
+
+    private File file(String name, String content) throws IOException {
+        final File file = temporaryFolder.newFile(name);
+        FileUtils.writeStringToFile(file, content, UTF_8);
+        return file;
+    }
+
+    private static DataSource inputStreamDataSource(String name, String content) {
+        final URI uri = UriUtils.toUri("inputstream:///" + name);
+        final ByteArrayInputStream is = new ByteArrayInputStream(content.getBytes(UTF_8));
+        return DataSourceFactory.fromInputStream(name, "default", uri, is, "text/plain", UTF_8, new HashMap<>());
+    }
+}
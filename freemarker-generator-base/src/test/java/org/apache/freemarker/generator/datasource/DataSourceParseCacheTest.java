@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.datasource;
+
+import org.apache.freemarker.generator.base.datasource.DataSource;
+import org.apache.freemarker.generator.base.datasource.DataSourceFactory;
+import org.apache.freemarker.generator.base.datasource.DataSourceParseCache;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
+import static org.apache.freemarker.generator.base.FreeMarkerConstants.DEFAULT_GROUP;
+import static org.apache.freemarker.generator.base.mime.Mimetypes.MIME_TEXT_PLAIN;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class DataSourceParseCacheTest {
+
+    private static final String ANY_TEXT = "Hello World";
+    private static final File ANY_FILE = new File("./pom.xml");
+
+    @Test
+    public void shouldParseDataSourceOnlyOnce() {
+        final DataSourceParseCache cache = new DataSourceParseCache(10);
+        final DataSource dataSource = DataSourceFactory.fromString("test", DEFAULT_GROUP, ANY_TEXT, MIME_TEXT_PLAIN);
+
+        final Object result = cache.get(dataSource, "parser", DataSourceParseCacheTest::parse);
+
+        assertSame(result, cache.get(dataSource, "parser", DataSourceParseCacheTest::parse));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void shouldCountHitsAndMisses() {
+        final DataSourceParseCache cache = new DataSourceParseCache(10);
+        final DataSource dataSource = DataSourceFactory.fromString("test", DEFAULT_GROUP, ANY_TEXT, MIME_TEXT_PLAIN);
+
+        cache.get(dataSource, "parser", DataSourceParseCacheTest::parse);
+
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        cache.get(dataSource, "parser", DataSourceParseCacheTest::parse);
+
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void shouldShareParseResultOfSameFile() {
+        final DataSourceParseCache cache = new DataSourceParseCache(10);
+        final DataSource dataSource = DataSourceFactory.fromFile(ANY_FILE, UTF_8);
+        final DataSource otherDataSource = DataSourceFactory.fromFile(ANY_FILE, UTF_8);
+
+        final Object result = cache.get(dataSource, "parser", DataSourceParseCacheTest::parse);
+
+        assertSame(result, cache.get(otherDataSource, "parser", DataSourceParseCacheTest::parse));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void shouldParseDataSourcePerParser() {
+        final DataSourceParseCache cache = new DataSourceParseCache(10);
+        final DataSource dataSource = DataSourceFactory.fromString("test", DEFAULT_GROUP, ANY_TEXT, MIME_TEXT_PLAIN);
+
+        final Object result = cache.get(dataSource, "parser", DataSourceParseCacheTest::parse);
+
+        assertNotSame(result, cache.get(dataSource, "otherParser", DataSourceParseCacheTest::parse));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedParseResult() {
+        final DataSourceParseCache cache = new DataSourceParseCache(2);
+        final DataSource dataSource = DataSourceFactory.fromString("test", DEFAULT_GROUP, ANY_TEXT, MIME_TEXT_PLAIN);
+
+        final Object result = cache.get(dataSource, "a", DataSourceParseCacheTest::parse);
+        final Object otherResult = cache.get(dataSource, "b", DataSourceParseCacheTest::parse);
+        cache.get(dataSource, "a", DataSourceParseCacheTest::parse);
+        cache.get(dataSource, "c", DataSourceParseCacheTest::parse);
+
+        assertEquals(2, cache.size());
+        assertSame(result, cache.get(dataSource, "a", DataSourceParseCacheTest::parse));
+        assertNotSame(otherResult, cache.get(dataSource, "b", DataSourceParseCacheTest::parse));
+    }
+
+    @Test
+    public void shouldParseDataSourceWhenCacheIsDisabled() {
+        final DataSourceParseCache cache = new DataSourceParseCache(0);
+        final DataSource dataSource = DataSourceFactory.fromString("test", DEFAULT_GROUP, ANY_TEXT, MIME_TEXT_PLAIN);
+
+        final Object result = cache.get(dataSource, "parser", DataSourceParseCacheTest::parse);
+
+        assertNotSame(result, cache.get(dataSource, "parser", DataSourceParseCacheTest::parse));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldBeDisabledByDefault() {
+        assertFalse(DataSourceParseCache.getInstance().isEnabled());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    @SuppressWarnings("unchecked")
+    public void shouldReturnReadOnlyParseResult() {
+        final DataSourceParseCache cache = new DataSourceParseCache(10);
+        final DataSource dataSource = DataSourceFactory.fromString("test", DEFAULT_GROUP, ANY_TEXT, MIME_TEXT_PLAIN);
+
+        final Map<String, Object> result = cache.get(dataSource, "parser", DataSourceParseCacheTest::parseMap);
+        final List<Object> values = (List<Object>) result.get("values");
+
+        assertEquals(ANY_TEXT, values.get(0));
+        values.add("modified");
+    }
+
+    private static Object parse(DataSource dataSource) {
+        return new StringBuilder(dataSource.getText());
+    }
+
+    private static Map<String, Object> parseMap(DataSource dataSource) {
+        final Map<String, Object> result = new HashMap<>();
+        result.put("values", new ArrayList<>(singletonList(dataSource.getText())));
+        return result;
+    }
+}
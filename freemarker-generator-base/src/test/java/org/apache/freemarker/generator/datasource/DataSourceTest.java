@@ -26,14 +26,20 @@ import org.junit.Test;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.regex.Pattern;
 
+import static java.nio.charset.StandardCharsets.UTF_16;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.freemarker.generator.base.FreeMarkerConstants.DEFAULT_GROUP;
 import static org.apache.freemarker.generator.base.datasource.DataSourceFactory.toUrl;
 import static org.apache.freemarker.generator.base.mime.Mimetypes.MIME_TEXT_HTML;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -45,6 +51,7 @@ public class DataSourceTest {
     private static final String ANY_FILE_NAME = "pom.xml";
     private static final Charset ANY_CHAR_SET = UTF_8;
     private static final File ANY_FILE = new File(ANY_FILE_NAME);
+    private static final File UTF16_FILE = new File("./src/test/data/txt/utf16.txt");
 
     @Test
     public void shouldSupportTextDataSource() {
@@ -126,6 +133,61 @@ public class DataSourceTest {
         }
     }
 
+    @Test
+    public void shouldGetBytesOfFile() throws IOException {
+        try (DataSource dataSource = DataSourceFactory.fromFile(ANY_FILE, ANY_CHAR_SET)) {
+            assertArrayEquals(Files.readAllBytes(ANY_FILE.toPath()), dataSource.getBytes());
+        }
+    }
+
+    @Test
+    public void shouldGetTextOfFile() throws IOException {
+        try (DataSource dataSource = DataSourceFactory.fromFile(UTF16_FILE, UTF_16)) {
+            assertEquals(new String(Files.readAllBytes(UTF16_FILE.toPath()), UTF_16), dataSource.getText());
+        }
+    }
+
+    @Test
+    public void shouldGetMemoryMappedByteBuffer() {
+        try (DataSource dataSource = DataSourceFactory.fromFile(ANY_FILE, ANY_CHAR_SET)) {
+            final ByteBuffer byteBuffer = dataSource.getByteBuffer();
+
+            assertTrue(byteBuffer instanceof MappedByteBuffer);
+            assertTrue(byteBuffer.isReadOnly());
+            assertEquals(dataSource.getLength(), byteBuffer.remaining());
+        }
+    }
+
+    @Test
+    public void shouldGetByteBufferRegion() {
+        try (DataSource dataSource = stringDataSource()) {
+            final ByteBuffer byteBuffer = dataSource.getByteBuffer(6, 100);
+
+            assertEquals(5, byteBuffer.remaining());
+            assertEquals('W', byteBuffer.get(0));
+        }
+    }
+
+    @Test
+    public void shouldGetCharSequenceOfFile() {
+        try (DataSource dataSource = DataSourceFactory.fromFile(ANY_FILE, ANY_CHAR_SET)) {
+            final CharSequence charSequence = dataSource.getCharSequence();
+
+            assertEquals(dataSource.getText(), charSequence.toString());
+            assertTrue(Pattern.compile("<artifactId>(.*)</artifactId>").matcher(charSequence).find());
+        }
+    }
+
+    @Test
+    public void shouldGetCharSequenceOfNonAsciiFile() {
+        try (DataSource dataSource = DataSourceFactory.fromFile(UTF16_FILE, UTF_16)) {
+            final CharSequence charSequence = dataSource.getCharSequence();
+
+            assertEquals(dataSource.getText(), charSequence.toString());
+            assertEquals("UTF-16", charSequence.subSequence(0, 6).toString());
+        }
+    }
+
     @Test
     public void shouldGetMetadata() {
         try (DataSource dataSource = stringDataSource()) {
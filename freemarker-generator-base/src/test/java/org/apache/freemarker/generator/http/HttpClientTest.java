@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.freemarker.generator.base.activation.HttpUrlDataSource;
+import org.apache.freemarker.generator.base.http.HttpCache;
+import org.apache.freemarker.generator.base.http.HttpClient;
+import org.apache.freemarker.generator.base.http.HttpContent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class HttpClientTest {
+
+    private static final String ANY_CONTENT = "Hello World";
+    private static final String ANY_ETAG = "\"v1\"";
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+
+    private HttpServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/plain", this::plain);
+        server.createContext("/gzip", this::gzip);
+        server.createContext("/missing", exchange -> send(exchange, 404, new byte[0]));
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void shouldFetchContent() {
+        final HttpContent content = client(null).get(url("/plain"));
+
+        assertEquals(ANY_CONTENT, text(content));
+        assertEquals("text/plain", content.getContentType());
+        assertEquals(ANY_ETAG, content.getEtag());
+        assertTrue(content.isTemporary());
+    }
+
+    @Test
+    public void shouldDecodeGzipContent() {
+        final HttpContent content = client(null).get(url("/gzip"));
+
+        assertEquals(ANY_CONTENT, text(content));
+    }
+
+    @Test
+    public void shouldStreamContentToCacheDirectory() throws IOException {
+        final File cacheDirectory = temporaryFolder.newFolder();
+
+        final HttpContent content = client(cacheDirectory).get(url("/plain"));
+
+        assertFalse(content.isTemporary());
+        assertEquals(cacheDirectory, content.getFile().getParentFile());
+        assertEquals(ANY_CONTENT.length(), content.getLength());
+    }
+
+    @Test
+    public void shouldDeleteTemporaryContent() {
+        final HttpContent content = client(null).get(url("/plain"));
+        assertTrue(content.getFile().exists());
+
+        content.delete();
+
+        assertFalse(content.getFile().exists());
+    }
+
+    @Test
+    public void shouldFetchContentAgainAfterDataSourceWasClosed() throws IOException {
+        final HttpUrlDataSource dataSource = new HttpUrlDataSource(url("/plain"), client(null));
+        dataSource.prefetch();
+
+        dataSource.close();
+
+        try (InputStream is = dataSource.getInputStream()) {
+            assertEquals(ANY_CONTENT, IOUtils.toString(is, UTF_8));
+        }
+        assertEquals(2, requests.get());
+        dataSource.close();
+    }
+
+    @Test
+    public void shouldRevalidateCachedContent() throws IOException {
+        final HttpClient client = client(temporaryFolder.newFolder());
+
+        client.get(url("/plain"));
+        final HttpContent content = client.get(url("/plain"));
+
+        assertEquals(ANY_CONTENT, text(content));
+        assertEquals(2, requests.get());
+        assertEquals(1, notModified.get());
+    }
+
+    @Test
+    public void shouldKeepCacheWhenConfiguredWithSameDirectory() throws IOException {
+        final File cacheDirectory = temporaryFolder.newFolder();
+        final HttpClient client = client(cacheDirectory);
+        final HttpCache cache = client.getCache();
+
+        client.configure(1_000, 5_000, cacheDirectory);
+        assertSame(cache, client.getCache());
+
+        client.configure(1_000, 5_000, temporaryFolder.newFolder());
+        assertNotSame(cache, client.getCache());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void shouldFailOnHttpError() {
+        client(null).get(url("/missing"));
+    }
+
+    private void plain(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        exchange.getResponseHeaders().set("ETag", ANY_ETAG);
+        if (ANY_ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            notModified.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+        } else {
+            exchange.getResponseHeaders().set("Content-Type", "text/plain");
+            send(exchange, 200, ANY_CONTENT.getBytes(UTF_8));
+        }
+    }
+
+    private void gzip(HttpExchange exchange) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (GZIPOutputStream os = new GZIPOutputStream(bos)) {
+            os.write(ANY_CONTENT.getBytes(UTF_8));
+        }
+        exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        send(exchange, 200, bos.toByteArray());
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    private static String text(HttpContent content) {
+        try (InputStream is = content.getInputStream()) {
+            return IOUtils.toString(is, UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private URL url(String path) {
+        try {
+            return new URL("http://127.0.0.1:" + server.getAddress().getPort() + path);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static HttpClient client(File cacheDirectory) {
+        return new HttpClient(1_000, 5_000, cacheDirectory);
+    }
+}
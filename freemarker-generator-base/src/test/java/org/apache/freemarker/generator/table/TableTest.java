@@ -118,6 +118,60 @@ public class TableTest {
         validateBooks(table);
     }
 
+    @Test
+    public void shouldBuildTableRowByRow() {
+        final Table.TableBuilder builder = Table.builder().columnNames(booksHeader);
+        booksList.forEach(builder::addRow);
+
+        final Table table = builder.build();
+
+        validateBooks(table);
+        assertEquals(booksHeader, table.getColumnNames());
+        assertEquals(Arrays.asList(String.class, String.class, String.class, Boolean.class, Double.class), table.getColumnTypes());
+    }
+
+    @Test
+    public void shouldAddColumnsForNewKeys() {
+        final Table table = Table.builder()
+                .addRow(MapBuilder.toLinkedMap("a", 1))
+                .addRow(MapBuilder.toLinkedMap("b", 2L))
+                .build();
+
+        assertEquals(Arrays.asList("a", "b"), table.getColumnNames());
+        assertEquals(Arrays.asList(Integer.class, Long.class), table.getColumnTypes());
+        assertEquals(Arrays.asList(1, null), table.getRow(0));
+        assertEquals(Arrays.asList(null, 2L), table.getRow(1));
+    }
+
+    @Test
+    public void shouldPreserveValuesOfMixedColumnTypes() {
+        final List<List<Object>> rows = Arrays.asList(
+                Arrays.asList(null, 1, 1.5),
+                Arrays.asList(true, 2L, 2),
+                Arrays.asList(false, 3, "3"));
+
+        final Table table = Table.fromRows(rows);
+
+        assertEquals(Arrays.asList(Boolean.class, Integer.class, Double.class), table.getColumnTypes());
+        assertEquals(rows, table.getValues());
+    }
+
+    @Test
+    public void shouldStoreManyDistinctStrings() {
+        final Table.TableBuilder builder = Table.builder();
+        for (int i = 0; i < 70000; i++) {
+            builder.addRow(Arrays.asList("value-" + i % 66000, i));
+        }
+
+        final Table table = builder.build();
+
+        assertEquals(70000, table.size());
+        assertEquals("value-0", table.get(0, 0));
+        assertEquals("value-65999", table.get(65999, 0));
+        assertEquals("value-3999", table.get(69999, 0));
+        assertEquals(69999, table.get(69999, 1));
+    }
+
     public void validateBooks(Table table) {
         assertEquals(5, table.getNrOfColumns());
         assertEquals(3, table.size());
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.benchmarks;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.io.FileUtils;
+import org.apache.freemarker.generator.base.datasource.DataSource;
+import org.apache.freemarker.generator.base.datasource.DataSourceFactory;
+import org.apache.freemarker.generator.tools.commonscsv.CommonsCSVTool;
+import org.apache.freemarker.generator.tools.commonscsv.impl.CommonsCSVPrinterFacade;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Parse a CSV file and print CSV records using the <code>CommonsCSVTool</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CommonsCSVBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int rows;
+
+    private final CommonsCSVTool csvTool = new CommonsCSVTool();
+
+    private File directory;
+    private File csvFile;
+    private List<List<Object>> records;
+
+    @Setup
+    public void setup() {
+        directory = SyntheticData.createDirectory();
+        csvFile = SyntheticData.csvFile(new File(directory, "data.csv"), rows);
+        records = SyntheticData.rows(rows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        FileUtils.deleteQuietly(directory);
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) throws IOException {
+        try (DataSource dataSource = DataSourceFactory.fromFile(csvFile, UTF_8);
+             CSVParser parser = csvTool.parse(dataSource, CSVFormat.DEFAULT)) {
+            for (CSVRecord record : parser) {
+                blackhole.consume(record);
+            }
+        }
+    }
+
+    @Benchmark
+    public void print(Blackhole blackhole) throws IOException {
+        try (CommonsCSVPrinterFacade printer = csvTool.printer(CSVFormat.DEFAULT)) {
+            for (List<Object> record : records) {
+                blackhole.consume(printer.printRecord(record));
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.benchmarks;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.freemarker.generator.base.datasource.DataSource;
+import org.apache.freemarker.generator.base.datasource.DataSourceFactory;
+import org.apache.freemarker.generator.base.datasource.DataSourcesSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
+
+/**
+ * Resolve a directory of data sources and read the content of a data source.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DataSourceBenchmark {
+
+    /** Number of files in the data source directory */
+    @Param({ "100", "1000" })
+    public int files;
+
+    /** Number of rows of the CSV file being read */
+    @Param({ "1000", "100000" })
+    public int rows;
+
+    private File directory;
+    private File csvDirectory;
+    private File csvFile;
+
+    @Setup
+    public void setup() {
+        directory = SyntheticData.createDirectory();
+        csvDirectory = new File(directory, "csv");
+        csvDirectory.mkdirs();
+        SyntheticData.csvDirectory(csvDirectory, files, 10);
+        csvFile = SyntheticData.csvFile(new File(directory, "data.csv"), rows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        FileUtils.deleteQuietly(directory);
+    }
+
+    @Benchmark
+    public List<DataSource> resolveDirectory() {
+        return new DataSourcesSupplier(singletonList(csvDirectory.getAbsolutePath()), "*.csv", null, UTF_8).get();
+    }
+
+    @Benchmark
+    public String getText() {
+        try (DataSource dataSource = DataSourceFactory.fromFile(csvFile, UTF_8)) {
+            return dataSource.getText();
+        }
+    }
+
+    @Benchmark
+    public List<String> getLines() {
+        try (DataSource dataSource = DataSourceFactory.fromFile(csvFile, UTF_8)) {
+            return dataSource.getLines();
+        }
+    }
+}
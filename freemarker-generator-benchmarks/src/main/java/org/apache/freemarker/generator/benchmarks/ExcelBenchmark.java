@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.benchmarks;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.freemarker.generator.base.datasource.DataSource;
+import org.apache.freemarker.generator.base.datasource.DataSourceFactory;
+import org.apache.freemarker.generator.tools.excel.ExcelTool;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Convert an Excel sheet into a table using the <code>ExcelTool</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ExcelBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int rows;
+
+    private final ExcelTool excelTool = new ExcelTool();
+
+    private File directory;
+    private DataSource dataSource;
+    private Sheet sheet;
+
+    @Setup
+    public void setup() {
+        directory = SyntheticData.createDirectory();
+        final File xlsxFile = SyntheticData.xlsxFile(new File(directory, "data.xlsx"), rows);
+        dataSource = DataSourceFactory.fromFile(xlsxFile, UTF_8);
+        sheet = excelTool.getSheets(excelTool.parse(dataSource)).get(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+        FileUtils.deleteQuietly(directory);
+    }
+
+    @Benchmark
+    public List<List<Object>> toTable() {
+        return excelTool.toTable(sheet);
+    }
+
+    @Benchmark
+    public List<List<Object>> toRawTable() {
+        return excelTool.toRawTable(sheet);
+    }
+}
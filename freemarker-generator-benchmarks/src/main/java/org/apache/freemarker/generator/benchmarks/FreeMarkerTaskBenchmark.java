@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.benchmarks;
+
+import freemarker.template.Configuration;
+import org.apache.commons.io.output.NullWriter;
+import org.apache.freemarker.generator.base.util.CachingSupplier;
+import org.apache.freemarker.generator.cli.config.DataSourcesRegistry;
+import org.apache.freemarker.generator.cli.config.Settings;
+import org.apache.freemarker.generator.cli.config.Suppliers;
+import org.apache.freemarker.generator.cli.picocli.DataSourceDefinition;
+import org.apache.freemarker.generator.cli.picocli.OutputGeneratorDefinition;
+import org.apache.freemarker.generator.cli.picocli.TemplateSourceDefinition;
+import org.apache.freemarker.generator.cli.task.FreeMarkerTask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Render the bundled examples of the CLI end-to-end using a <code>FreeMarkerTask</code>.
+ * The FreeMarker configuration is re-used across invocations as done by
+ * <code>--times</code> or the daemon. The CLI module is located using the
+ * "freemarker.generator.cli.home" system property or relative to the current
+ * working directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FreeMarkerTaskBenchmark {
+
+    private static final String CLI_HOME_KEY = "freemarker.generator.cli.home";
+
+    @Param({ "csv-md", "csv-html", "json-md", "excel-html" })
+    public String example;
+
+    private Settings settings;
+    private Supplier<Configuration> configurationSupplier;
+
+    @Setup
+    public void setup() {
+        final File cliHome = cliHome();
+        final String[] templateAndDataSource = example(example);
+        final File appHome = new File(cliHome, "src/app");
+
+        settings = Settings.builder()
+                .setConfiguration(configuration(new File(appHome, "config/freemarker-generator.properties")))
+                .setTemplateDirectories(singletonList(new File(appHome, "templates")))
+                .setOutputGeneratorDefinitions(singletonList(outputGeneratorDefinition(
+                        templateName(appHome, templateAndDataSource[0]),
+                        new File(appHome, templateAndDataSource[1]).getAbsolutePath())))
+                .setCallerSuppliedWriter(NullWriter.NULL_WRITER)
+                .build();
+
+        configurationSupplier = new CachingSupplier<>(Suppliers.configurationSupplier(settings));
+    }
+
+    @Benchmark
+    public Integer call() {
+        final DataSourcesRegistry dataSourcesRegistry = Suppliers.dataSourcesRegistry(settings);
+        final FreeMarkerTask freeMarkerTask = new FreeMarkerTask(
+                configurationSupplier,
+                Suppliers.outputGeneratorsSupplier(settings, dataSourcesRegistry),
+                Suppliers.sharedDataModelSupplier(settings),
+                dataSourcesRegistry::getSharedDataSources,
+                settings::getUserParameters,
+                settings.getParallelism()
+        );
+        return freeMarkerTask.call();
+    }
+
+    private static String[] example(String name) {
+        switch (name) {
+            case "csv-md":
+                return new String[] { "freemarker-generator/csv/md/transform.ftl", "examples/data/csv/contract.csv" };
+            case "csv-html":
+                return new String[] { "freemarker-generator/csv/html/transform.ftl", "examples/data/csv/contract.csv" };
+            case "json-md":
+                return new String[] { "examples/templates/json/md/github-users.ftl", "examples/data/json/github-users.json" };
+            case "excel-html":
+                return new String[] { "freemarker-generator/excel/html/transform.ftl", "examples/data/excel/test.xls" };
+            default:
+                throw new IllegalArgumentException("Unknown example: " + name);
+        }
+    }
+
+    /**
+     * Packaged templates are resolved using the template directory while
+     * example templates are loaded from the file system.
+     */
+    private static String templateName(File appHome, String template) {
+        return template.startsWith("examples/") ? new File(appHome, template).getAbsolutePath() : template;
+    }
+
+    private static OutputGeneratorDefinition outputGeneratorDefinition(String template, String dataSource) {
+        final TemplateSourceDefinition templateSourceDefinition = new TemplateSourceDefinition();
+        templateSourceDefinition.template = template;
+
+        final DataSourceDefinition dataSourceDefinition = new DataSourceDefinition();
+        dataSourceDefinition.dataSources = singletonList(dataSource);
+
+        final OutputGeneratorDefinition outputGeneratorDefinition = new OutputGeneratorDefinition();
+        outputGeneratorDefinition.templateSourceDefinition = templateSourceDefinition;
+        outputGeneratorDefinition.dataSourceDefinition = dataSourceDefinition;
+        return outputGeneratorDefinition;
+    }
+
+    private static Properties configuration(File file) {
+        try (InputStream is = new FileInputStream(file)) {
+            final Properties properties = new Properties();
+            properties.load(is);
+            return properties;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load configuration: " + file, e);
+        }
+    }
+
+    private static File cliHome() {
+        final String cliHome = System.getProperty(CLI_HOME_KEY);
+        if (cliHome != null) {
+            return new File(cliHome);
+        }
+
+        for (String candidate : new String[] { "freemarker-generator-cli", "../freemarker-generator-cli" }) {
+            final File file = new File(candidate);
+            if (file.isDirectory()) {
+                return file.getAbsoluteFile();
+            }
+        }
+
+        throw new IllegalStateException("Unable to locate the CLI module - please set the system property " + CLI_HOME_KEY);
+    }
+}
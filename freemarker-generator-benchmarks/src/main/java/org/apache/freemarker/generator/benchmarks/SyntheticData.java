@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.benchmarks;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Generates synthetic data sets of a given size. The data is created using
+ * a fixed seed so benchmark results are comparable across releases.
+ */
+public final class SyntheticData {
+
+    private static final long SEED = 4711L;
+
+    private static final List<String> COLUMN_NAMES = Arrays.asList("id", "name", "city", "amount", "date", "active");
+
+    private static final String[] NAMES = { "Alice", "Bob", "Charlie", "Dora", "Emil", "Frieda", "Gustav", "Hanna" };
+
+    private static final String[] CITIES = { "Berlin", "Graz", "London", "Paris", "Vienna", "Zurich" };
+
+    private static final LocalDate START_DATE = LocalDate.of(2020, 1, 1);
+
+    private SyntheticData() {
+    }
+
+    public static List<String> columnNames() {
+        return COLUMN_NAMES;
+    }
+
+    /**
+     * Create rows with mixed column types.
+     *
+     * @param rows number of rows
+     * @return rows without header
+     */
+    public static List<List<Object>> rows(int rows) {
+        final Random random = new Random(SEED);
+        final List<List<Object>> result = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            result.add(row(i, random));
+        }
+        return result;
+    }
+
+    /**
+     * Create rows with the column names as first row.
+     *
+     * @param rows number of rows
+     * @return rows with header
+     */
+    public static List<List<Object>> rowsWithHeader(int rows) {
+        final List<List<Object>> result = new ArrayList<>(rows + 1);
+        result.add(new ArrayList<>(COLUMN_NAMES));
+        result.addAll(rows(rows));
+        return result;
+    }
+
+    public static File createDirectory() {
+        try {
+            return Files.createTempDirectory("freemarker-generator-benchmarks").toFile();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create temporary directory", e);
+        }
+    }
+
+    /**
+     * Write a comma-separated CSV file with header.
+     *
+     * @param file target file
+     * @param rows number of rows
+     * @return CSV file
+     */
+    public static File csvFile(File file, int rows) {
+        final Random random = new Random(SEED);
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), UTF_8)) {
+            writer.write(String.join(",", COLUMN_NAMES));
+            writer.write("\n");
+            for (int i = 0; i < rows; i++) {
+                final List<Object> row = row(i, random);
+                for (int column = 0; column < row.size(); column++) {
+                    if (column > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(String.valueOf(row.get(column)));
+                }
+                writer.write("\n");
+            }
+            return file;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write CSV file: " + file, e);
+        }
+    }
+
+    /**
+     * Write a number of CSV files into a directory.
+     *
+     * @param directory target directory
+     * @param files     number of files
+     * @param rows      number of rows per file
+     * @return directory
+     */
+    public static File csvDirectory(File directory, int files, int rows) {
+        for (int i = 0; i < files; i++) {
+            csvFile(new File(directory, String.format("data-%05d.csv", i)), rows);
+        }
+        return directory;
+    }
+
+    /**
+     * Write an XLSX file with a single sheet and header row. The workbook is
+     * streamed to disk so large sheets don't require much memory.
+     *
+     * @param file target file
+     * @param rows number of rows
+     * @return XLSX file
+     */
+    public static File xlsxFile(File file, int rows) {
+        final Random random = new Random(SEED);
+        final SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+        try (OutputStream os = new FileOutputStream(file)) {
+            final Sheet sheet = workbook.createSheet("data");
+            final Row header = sheet.createRow(0);
+            for (int column = 0; column < COLUMN_NAMES.size(); column++) {
+                header.createCell(column).setCellValue(COLUMN_NAMES.get(column));
+            }
+            for (int i = 0; i < rows; i++) {
+                final List<Object> values = row(i, random);
+                final Row row = sheet.createRow(i + 1);
+                row.createCell(0).setCellValue((Integer) values.get(0));
+                row.createCell(1).setCellValue((String) values.get(1));
+                row.createCell(2).setCellValue((String) values.get(2));
+                row.createCell(3).setCellValue((Double) values.get(3));
+                row.createCell(4).setCellValue(values.get(4).toString());
+                row.createCell(5).setCellValue((Boolean) values.get(5));
+            }
+            workbook.write(os);
+            return file;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write XLSX file: " + file, e);
+        } finally {
+            workbook.dispose();
+        }
+    }
+
+    private static List<Object> row(int id, Random random) {
+        final List<Object> row = new ArrayList<>(COLUMN_NAMES.size());
+        row.add(id);
+        row.add(NAMES[random.nextInt(NAMES.length)]);
+        row.add(CITIES[random.nextInt(CITIES.length)]);
+        row.add(Math.round(random.nextDouble() * 100_000) / 100.0);
+        row.add(START_DATE.plusDays(random.nextInt(1000)));
+        row.add(random.nextBoolean());
+        return row;
+    }
+}
@@ -16,14 +16,5 @@
   under the License.
 -->
 <#import "/freemarker-generator/lib/commons-csv.ftl" as csv />
-<#assign dataSource = dataSources[0]>
-<#assign csvParser = tools.csv.parse(dataSource, csv.sourceFormat())>
-<#assign csvTargetFormat = csv.targetFormat()>
-<#assign csvPrinter = tools.csv.printer(csvTargetFormat)>
-<#assign csvHeaders = (csvParser.getHeaderMap()!{})?keys>
-<#if csvHeaders?has_content && csvTargetFormat.getSkipHeaderRecord()>
-    ${csvPrinter.printRecord(csvHeaders)}<#t>
-</#if>
-<#list csvParser.iterator() as record>
-    ${csvPrinter.printRecord(record)}<#t>
-</#list>
\ No newline at end of file
+<#-- Copy the CSV records to the output without evaluating the template for each record -->
+${tools.csv.transform(dataSources[0], csv.sourceFormat(), csv.targetFormat())}<#t>
\ No newline at end of file
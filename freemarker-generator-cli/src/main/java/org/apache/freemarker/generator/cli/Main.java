@@ -18,10 +18,16 @@ package org.apache.freemarker.generator.cli;
 
 import org.apache.freemarker.generator.base.FreeMarkerConstants.Configuration;
 import org.apache.freemarker.generator.base.FreeMarkerConstants.SystemProperties;
+import org.apache.freemarker.generator.base.datasource.DataSourceContentCache;
+import org.apache.freemarker.generator.base.datasource.DataSourceParseCache;
+import org.apache.freemarker.generator.base.http.HttpClient;
 import org.apache.freemarker.generator.base.parameter.ParameterModelSupplier;
+import org.apache.freemarker.generator.base.util.CachingSupplier;
 import org.apache.freemarker.generator.base.util.ClosableUtils;
+import org.apache.freemarker.generator.cli.config.DataSourcesRegistry;
 import org.apache.freemarker.generator.cli.config.Settings;
 import org.apache.freemarker.generator.cli.config.Suppliers;
+import org.apache.freemarker.generator.cli.daemon.ConfigurationCache;
 import org.apache.freemarker.generator.cli.picocli.GitVersionProvider;
 import org.apache.freemarker.generator.cli.picocli.OutputGeneratorDefinition;
 import org.apache.freemarker.generator.cli.task.FreeMarkerTask;
@@ -30,6 +36,7 @@ import picocli.CommandLine.ArgGroup;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
 import picocli.CommandLine.Parameters;
 import picocli.CommandLine.Spec;
 
@@ -40,6 +47,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Callable;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
 import static java.util.Collections.emptyList;
@@ -92,6 +100,12 @@ public class Main implements Callable<Integer> {
     @Option(names = { "--times" }, defaultValue = "1", description = "re-run X times for profiling")
     int times;
 
+    @Option(names = { "--verbose" }, description = "print cache statistics to stderr")
+    boolean verbose;
+
+    @Option(names = { "--parallelism" }, description = "number of templates rendered concurrently (defaults to available processors if all outputs are files)")
+    Integer parallelism;
+
     @Parameters(description = "shared data source files and/or directories")
     List<String> sharedDataSources;
 
@@ -101,17 +115,28 @@ public class Main implements Callable<Integer> {
     /** User-supplied writer (used mainly for unit testing) */
     final Writer callerSuppliedWriter;
 
+    /** Optional cache keeping FreeMarker configurations resident (used by the daemon) */
+    final ConfigurationCache configurationCache;
+
     /** Injected by Picocli */
     @Spec private CommandSpec spec;
 
     Main(String[] args) {
         this.args = requireNonNull(args);
         this.callerSuppliedWriter = null;
+        this.configurationCache = null;
     }
 
     private Main(String[] args, Writer callerSuppliedWriter) {
         this.args = requireNonNull(args);
         this.callerSuppliedWriter = requireNonNull(callerSuppliedWriter);
+        this.configurationCache = null;
+    }
+
+    private Main(String[] args, ConfigurationCache configurationCache) {
+        this.args = requireNonNull(args);
+        this.callerSuppliedWriter = null;
+        this.configurationCache = requireNonNull(configurationCache);
     }
 
     public static void main(String[] args) {
@@ -138,26 +163,56 @@ public class Main implements Callable<Integer> {
         return new CommandLine(new Main(args, writer)).execute(args);
     }
 
+    /**
+     * Used by the daemon to re-use FreeMarker configurations across invocations.
+     *
+     * @param args               command line parameters
+     * @param configurationCache cache of resident FreeMarker configurations
+     * @return exit code
+     */
+    public static int execute(String[] args, ConfigurationCache configurationCache) {
+        return new CommandLine(new Main(args, configurationCache)).execute(args);
+    }
+
     @Override
     public Integer call() {
         validateCommandLineParameters();
         updateGlobalSystemProperties();
-        return IntStream.range(0, times).map(i -> onCall()).max().orElse(0);
-    }
 
-    private Integer onCall() {
         final String currentConfigFile = isNotEmpty(configFile) ? configFile : getDefaultConfigFileName();
         final Properties configuration = loadFreeMarkerGeneratorConfiguration(currentConfigFile);
         final List<File> templateDirectories = getTemplateDirectories(templateDir);
         final Settings settings = settings(configuration, templateDirectories, outputGeneratorDefinitions);
 
+        // the global caches are only reset when their configuration changes, e.g. between daemon requests
+        configureDataSourceContentCache(configuration);
+        configureDataSourceParseCache(configuration);
+        configureHttpClient(configuration);
+
+        // re-use the FreeMarker configuration and its compiled templates across multiple runs
+        final Supplier<freemarker.template.Configuration> configurationSupplier = configurationSupplier(settings);
+
+        final int result = IntStream.range(0, times).map(i -> onCall(settings, configurationSupplier)).max().orElse(0);
+
+        if (verbose) {
+            System.err.println(DataSourceParseCache.getInstance());
+        }
+
+        return result;
+    }
+
+    private Integer onCall(Settings settings, Supplier<freemarker.template.Configuration> configurationSupplier) {
         try {
+            // resolve each data source only once and share it between all output generators
+            final DataSourcesRegistry dataSourcesRegistry = Suppliers.dataSourcesRegistry(settings);
+            dataSourcesRegistry.prefetch();
             final FreeMarkerTask freeMarkerTask = new FreeMarkerTask(
-                    Suppliers.configurationSupplier(settings),
-                    Suppliers.outputGeneratorsSupplier(settings),
+                    configurationSupplier,
+                    Suppliers.outputGeneratorsSupplier(settings, dataSourcesRegistry),
                     Suppliers.sharedDataModelSupplier(settings),
-                    Suppliers.sharedDataSourcesSupplier(settings),
-                    settings::getUserParameters
+                    dataSourcesRegistry::getSharedDataSources,
+                    settings::getUserParameters,
+                    settings.getParallelism()
             );
             return freeMarkerTask.call();
         } finally {
@@ -165,12 +220,24 @@ public class Main implements Callable<Integer> {
         }
     }
 
+    private Supplier<freemarker.template.Configuration> configurationSupplier(Settings settings) {
+        if (configurationCache != null) {
+            return new CachingSupplier<>(() -> configurationCache.get(settings));
+        } else {
+            return new CachingSupplier<>(Suppliers.configurationSupplier(settings));
+        }
+    }
+
     /**
      * Invoke a custom validation of the command line parameters supplementing
      * the checks already done by Picocli.
      */
     void validateCommandLineParameters() {
         outputGeneratorDefinitions.forEach(t -> t.validate(spec.commandLine()));
+
+        if (parallelism != null && parallelism < 1) {
+            throw new ParameterException(spec.commandLine(), "Parallelism must be greater than zero: " + parallelism);
+        }
     }
 
     private Settings settings(Properties configuration, List<File> templateDirectories, List<OutputGeneratorDefinition> outputGeneratorDefinitions) {
@@ -194,7 +261,8 @@ public class Main implements Callable<Integer> {
                 .setSystemProperties(systemProperties != null ? systemProperties : new Properties())
                 .setTemplateDirectories(templateDirectories)
                 .setCallerSuppliedWriter(callerSuppliedWriter)
-                .setVerbose(false)
+                .setParallelism(getParallelism())
+                .setVerbose(verbose)
                 .build();
     }
 
@@ -214,6 +282,37 @@ public class Main implements Callable<Integer> {
         return sharedDataSources != null ? new ArrayList<>(sharedDataSources) : emptyList();
     }
 
+    /**
+     * A data source read from stdin can only be consumed once so we don't
+     * process multiple templates concurrently.
+     *
+     * @return parallelism or null to use the default
+     */
+    private Integer getParallelism() {
+        return readFromStdin ? Integer.valueOf(1) : parallelism;
+    }
+
+    private static void configureDataSourceContentCache(Properties configuration) {
+        final long maxSize = Long.parseLong(configuration.getProperty(Configuration.DATASOURCE_CACHE_MAX_SIZE_KEY, "0"));
+        final long maxEntrySize = Long.parseLong(configuration.getProperty(Configuration.DATASOURCE_CACHE_MAX_ENTRY_SIZE_KEY,
+                Long.toString(DataSourceContentCache.DEFAULT_MAX_ENTRY_SIZE)));
+        DataSourceContentCache.getInstance().configure(maxSize, maxEntrySize);
+    }
+
+    private static void configureDataSourceParseCache(Properties configuration) {
+        final int maxSize = Integer.parseInt(configuration.getProperty(Configuration.DATASOURCE_PARSE_CACHE_MAX_SIZE_KEY, "0"));
+        DataSourceParseCache.getInstance().configure(maxSize);
+    }
+
+    private static void configureHttpClient(Properties configuration) {
+        final int connectTimeout = Integer.parseInt(configuration.getProperty(Configuration.HTTP_CONNECT_TIMEOUT_KEY,
+                Integer.toString(HttpClient.DEFAULT_CONNECT_TIMEOUT)));
+        final int readTimeout = Integer.parseInt(configuration.getProperty(Configuration.HTTP_READ_TIMEOUT_KEY,
+                Integer.toString(HttpClient.DEFAULT_READ_TIMEOUT)));
+        final String cacheDirectory = configuration.getProperty(Configuration.HTTP_CACHE_DIRECTORY_KEY);
+        HttpClient.getInstance().configure(connectTimeout, readTimeout, isNotEmpty(cacheDirectory) ? new File(cacheDirectory) : null);
+    }
+
     private static List<File> getTemplateDirectories(String additionalTemplateDir) {
         return Suppliers.templateDirectorySupplier(additionalTemplateDir).get();
     }
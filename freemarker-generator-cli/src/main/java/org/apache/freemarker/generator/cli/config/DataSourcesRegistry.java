@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.cli.config;
+
+import org.apache.freemarker.generator.base.datasource.DataSource;
+import org.apache.freemarker.generator.base.datasource.DataSourcesSupplier;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.singletonList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Resolves data sources once per run and shares the resulting <code>DataSource</code>
+ * instances between all output generators, e.g. a data source directory is only walked
+ * once even if a template directory produces hundreds of output generators. Resolving
+ * a data source does not load its content - this still happens lazily when the content
+ * is accessed.
+ */
+public class DataSourcesRegistry {
+
+    private final Settings settings;
+
+    /** Resolved data sources keyed by the source (file, directory, URI or <code>NamedUri</code>) */
+    private final Map<String, List<DataSource>> dataSources;
+
+    public DataSourcesRegistry(Settings settings) {
+        this.settings = requireNonNull(settings);
+        this.dataSources = new HashMap<>();
+    }
+
+    /**
+     * Get the data sources for the given sources resolving each source only once.
+     *
+     * @param sources list of source files, directories and/or URIs
+     * @return list of <code>DataSource</code>
+     */
+    public List<DataSource> get(Collection<String> sources) {
+        final List<DataSource> result = new ArrayList<>();
+        for (String source : requireNonNull(sources)) {
+            result.addAll(get(source));
+        }
+        return result;
+    }
+
+    /**
+     * Get the data sources shared between all output generators.
+     *
+     * @return list of shared <code>DataSource</code>
+     */
+    public List<DataSource> getSharedDataSources() {
+        return get(settings.getSharedDataSources());
+    }
+
+    /**
+     * Resolve all data sources of the settings, i.e. the shared data sources and
+     * the data sources of every output generator, and download the HTTP data
+     * sources concurrently before rendering.
+     */
+    public void prefetch() {
+        final List<String> sources = new ArrayList<>(settings.getSharedDataSources());
+        settings.getOutputGeneratorDefinitions().forEach(definition -> sources.addAll(definition.getDataSources()));
+        DataSourcesSupplier.prefetch(get(sources));
+    }
+
+    public synchronized int size() {
+        return dataSources.size();
+    }
+
+    private synchronized List<DataSource> get(String source) {
+        return dataSources.computeIfAbsent(source, this::resolve);
+    }
+
+    private List<DataSource> resolve(String source) {
+        final DataSourcesSupplier dataSourcesSupplier = new DataSourcesSupplier(
+                singletonList(source),
+                settings.getDataSourceIncludePattern(),
+                settings.getDataSourceExcludePattern(),
+                settings.getInputEncoding()
+        );
+        return unmodifiableList(dataSourcesSupplier.get());
+    }
+}
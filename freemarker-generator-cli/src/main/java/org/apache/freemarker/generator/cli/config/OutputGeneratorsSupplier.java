@@ -36,8 +36,16 @@ public class OutputGeneratorsSupplier implements Supplier<List<OutputGenerator>>
 
     private final Settings settings;
 
+    /** Resolves each data source only once across all output generators */
+    private final DataSourcesRegistry dataSourcesRegistry;
+
     public OutputGeneratorsSupplier(Settings settings) {
+        this(settings, new DataSourcesRegistry(settings));
+    }
+
+    public OutputGeneratorsSupplier(Settings settings, DataSourcesRegistry dataSourcesRegistry) {
         this.settings = requireNonNull(settings);
+        this.dataSourcesRegistry = requireNonNull(dataSourcesRegistry);
     }
 
     @Override
@@ -51,9 +59,9 @@ public class OutputGeneratorsSupplier implements Supplier<List<OutputGenerator>>
     private List<OutputGenerator> outputGenerator(Settings settings, OutputGeneratorDefinition definition) {
         final String seedType = definition.getOutputSeedType();
         if (SeedType.TEMPLATE.equalsIgnoreCase(seedType)) {
-            return new TemplateSeedingOutputGenerator(settings).apply(definition);
+            return new TemplateSeedingOutputGenerator(settings, dataSourcesRegistry).apply(definition);
         } else if (SeedType.DATASOURCE.equalsIgnoreCase(seedType)) {
-            return new DataSourceSeedingOutputGenerator(settings).apply(definition);
+            return new DataSourceSeedingOutputGenerator(settings, dataSourcesRegistry).apply(definition);
         } else {
             throw new RuntimeException("Unknown seed type:" + seedType);
         }
@@ -76,7 +76,7 @@ public class Settings {
     /** Encoding of output files */
     private final Charset outputEncoding;
 
-    /** Enable verbose mode (currently not used) **/
+    /** Enable verbose mode, e.g. to print cache statistics **/
     private final boolean verbose;
 
     /** The locale used for rendering the template */
@@ -94,6 +94,9 @@ public class Settings {
     /** Caller-supplied writer */
     private final Writer callerSuppliedWriter;
 
+    /** Maximum number of output generators rendered concurrently */
+    private final int parallelism;
+
     private Settings(
             Properties configuration,
             List<String> commandLineArgs,
@@ -111,7 +114,8 @@ public class Settings {
             boolean isReadFromStdin,
             Map<String, Object> userParameters,
             Properties userSystemProperties,
-            Writer callerSuppliedWriter) {
+            Writer callerSuppliedWriter,
+            int parallelism) {
 
         this.commandLineArgs = requireNonNull(commandLineArgs);
         this.templateDirectories = requireNonNull(templateDirectories);
@@ -130,6 +134,7 @@ public class Settings {
         this.userSystemProperties = requireNonNull(userSystemProperties);
         this.configuration = requireNonNull(configuration);
         this.callerSuppliedWriter = callerSuppliedWriter != null ? new NonClosableWriterWrapper(callerSuppliedWriter) : null;
+        this.parallelism = parallelism;
     }
 
     public static SettingsBuilder builder() {
@@ -204,6 +209,10 @@ public class Settings {
         return callerSuppliedWriter;
     }
 
+    public int getParallelism() {
+        return parallelism;
+    }
+
     /**
      * Create a settings map only exposing the most important information
      * to avoid coupling between "Settings" and the various tools.
@@ -241,6 +250,7 @@ public class Settings {
                 ", userSystemProperties=" + userSystemProperties +
                 ", callerSuppliedWriter=" + callerSuppliedWriter +
                 ", templateEncoding=" + templateEncoding +
+                ", parallelism=" + parallelism +
                 ", readFromStdin=" + isReadFromStdin() +
                 '}';
     }
@@ -263,6 +273,7 @@ public class Settings {
         private Properties systemProperties;
         private Properties configuration;
         private Writer callerSuppliedWriter;
+        private Integer parallelism;
 
         private SettingsBuilder() {
             this.commandLineArgs = emptyList();
@@ -378,6 +389,11 @@ public class Settings {
             return this;
         }
 
+        public SettingsBuilder setParallelism(Integer parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
         public Settings build() {
             final String currLocale = locale != null ? locale : getDefaultLocale();
 
@@ -398,10 +414,22 @@ public class Settings {
                     isReadFromStdin,
                     parameters,
                     systemProperties,
-                    callerSuppliedWriter
+                    callerSuppliedWriter,
+                    parallelism != null ? parallelism : getDefaultParallelism()
             );
         }
 
+        /**
+         * Render concurrently by default only if all output generators write to
+         * files - output of a shared writer would be buffered to keep its order.
+         */
+        private int getDefaultParallelism() {
+            final boolean hasFileOutputsOnly = !outputGeneratorDefinitions.isEmpty() && outputGeneratorDefinitions.stream()
+                    .map(OutputGeneratorDefinition::getTemplateOutputDefinition)
+                    .allMatch(definition -> definition != null && definition.hasOutput());
+            return hasFileOutputsOnly ? Runtime.getRuntime().availableProcessors() : 1;
+        }
+
         private String getDefaultLocale() {
             return configuration.getProperty(
                     LOCALE_KEY,
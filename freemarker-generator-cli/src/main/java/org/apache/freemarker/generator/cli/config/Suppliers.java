@@ -46,6 +46,14 @@ public class Suppliers {
         return new OutputGeneratorsSupplier(settings);
     }
 
+    public static OutputGeneratorsSupplier outputGeneratorsSupplier(Settings settings, DataSourcesRegistry dataSourcesRegistry) {
+        return new OutputGeneratorsSupplier(settings, dataSourcesRegistry);
+    }
+
+    public static DataSourcesRegistry dataSourcesRegistry(Settings settings) {
+        return new DataSourcesRegistry(settings);
+    }
+
     public static DataSourcesSupplier sharedDataSourcesSupplier(Settings settings) {
         return new DataSourcesSupplier(settings.getSharedDataSources(),
                 settings.getDataSourceIncludePattern(),
@@ -19,10 +19,10 @@ package org.apache.freemarker.generator.cli.config.output;
 import org.apache.freemarker.generator.base.FreeMarkerConstants.Location;
 import org.apache.freemarker.generator.base.datasource.DataSource;
 import org.apache.freemarker.generator.base.datasource.DataSourceFactory;
-import org.apache.freemarker.generator.base.datasource.DataSourcesSupplier;
 import org.apache.freemarker.generator.base.util.NonClosableWriterWrapper;
 import org.apache.freemarker.generator.base.util.UriUtils;
 import org.apache.freemarker.generator.cli.config.DataModelSupplier;
+import org.apache.freemarker.generator.cli.config.DataSourcesRegistry;
 import org.apache.freemarker.generator.cli.config.Settings;
 import org.apache.freemarker.generator.cli.picocli.OutputGeneratorDefinition;
 
@@ -43,7 +43,10 @@ import static org.apache.freemarker.generator.base.mime.Mimetypes.MIME_TEXT_PLAI
 
 public abstract class AbstractOutputGenerator {
 
-    protected List<DataSource> dataSources(Settings settings, OutputGeneratorDefinition outputGeneratorDefinition) {
+    protected List<DataSource> dataSources(
+            Settings settings,
+            DataSourcesRegistry dataSourcesRegistry,
+            OutputGeneratorDefinition outputGeneratorDefinition) {
         final ArrayList<DataSource> result = new ArrayList<>();
 
         // Add optional data source from STDIN at the start of the list since
@@ -52,14 +55,7 @@ public abstract class AbstractOutputGenerator {
             result.add(0, stdinDataSource());
         }
 
-        final DataSourcesSupplier outputGeneratorDataSourcesSupplier = new DataSourcesSupplier(
-                outputGeneratorDefinition.getDataSources(),
-                settings.getDataSourceIncludePattern(),
-                settings.getDataSourceExcludePattern(),
-                settings.getInputEncoding()
-        );
-
-        result.addAll(outputGeneratorDataSourcesSupplier.get());
+        result.addAll(dataSourcesRegistry.get(outputGeneratorDefinition.getDataSources()));
 
         return result;
     }
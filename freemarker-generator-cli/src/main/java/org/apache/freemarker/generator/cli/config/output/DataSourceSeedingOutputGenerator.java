@@ -23,8 +23,8 @@ import org.apache.freemarker.generator.base.template.TemplateOutput;
 import org.apache.freemarker.generator.base.template.TemplateSource;
 import org.apache.freemarker.generator.base.util.ListUtils;
 import org.apache.freemarker.generator.base.util.Validate;
+import org.apache.freemarker.generator.cli.config.DataSourcesRegistry;
 import org.apache.freemarker.generator.cli.config.Settings;
-import org.apache.freemarker.generator.cli.config.Suppliers;
 import org.apache.freemarker.generator.cli.picocli.OutputGeneratorDefinition;
 import org.apache.freemarker.generator.cli.picocli.TemplateOutputDefinition;
 import org.apache.freemarker.generator.cli.picocli.TemplateSourceDefinition;
@@ -47,9 +47,15 @@ public class DataSourceSeedingOutputGenerator
         implements Function<OutputGeneratorDefinition, List<OutputGenerator>> {
 
     private final Settings settings;
+    private final DataSourcesRegistry dataSourcesRegistry;
 
     public DataSourceSeedingOutputGenerator(Settings settings) {
+        this(settings, new DataSourcesRegistry(settings));
+    }
+
+    public DataSourceSeedingOutputGenerator(Settings settings, DataSourcesRegistry dataSourcesRegistry) {
         this.settings = settings;
+        this.dataSourcesRegistry = dataSourcesRegistry;
     }
 
     @Override
@@ -60,8 +66,8 @@ public class DataSourceSeedingOutputGenerator
         final TemplateSourceDefinition templateSourceDefinition = outputGeneratorDefinition.getTemplateSourceDefinition();
         final TemplateOutputDefinition templateOutputDefinition = outputGeneratorDefinition.getTemplateOutputDefinition();
         final Map<String, Object> dataModels = super.dataModels(outputGeneratorDefinition);
-        final List<DataSource> dataSources = super.dataSources(settings, outputGeneratorDefinition);
-        final List<DataSource> sharedDataSources = Suppliers.sharedDataSourcesSupplier(settings).get();
+        final List<DataSource> dataSources = super.dataSources(settings, dataSourcesRegistry, outputGeneratorDefinition);
+        final List<DataSource> sharedDataSources = dataSourcesRegistry.getSharedDataSources();
         final List<DataSource> combinedDataSources = ListUtils.concatenate(dataSources, sharedDataSources);
         final TemplateSource templateSource = TemplateSourceFactory.create(templateSourceDefinition, settings.getTemplateEncoding());
         final DataSourceSeedingOutputMapper outputMapper = outputMapper(outputGeneratorDefinition.getOutputMapper());
@@ -16,8 +16,10 @@
  */
 package org.apache.freemarker.generator.cli.config.output;
 
+import org.apache.freemarker.generator.base.datasource.DataSource;
 import org.apache.freemarker.generator.base.output.OutputGenerator;
 import org.apache.freemarker.generator.base.output.OutputGenerator.SeedType;
+import org.apache.freemarker.generator.cli.config.DataSourcesRegistry;
 import org.apache.freemarker.generator.cli.config.Settings;
 import org.apache.freemarker.generator.cli.picocli.OutputGeneratorDefinition;
 import org.apache.freemarker.generator.cli.picocli.TemplateOutputDefinition;
@@ -25,6 +27,7 @@ import org.apache.freemarker.generator.cli.picocli.TemplateSourceDefinition;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
 import static java.util.Objects.requireNonNull;
@@ -37,9 +40,15 @@ public class TemplateSeedingOutputGenerator
         implements Function<OutputGeneratorDefinition, List<OutputGenerator>> {
 
     private final Settings settings;
+    private final DataSourcesRegistry dataSourcesRegistry;
 
     public TemplateSeedingOutputGenerator(Settings settings) {
+        this(settings, new DataSourcesRegistry(settings));
+    }
+
+    public TemplateSeedingOutputGenerator(Settings settings, DataSourcesRegistry dataSourcesRegistry) {
         this.settings = requireNonNull(settings);
+        this.dataSourcesRegistry = requireNonNull(dataSourcesRegistry);
     }
 
     @Override
@@ -81,12 +90,16 @@ public class TemplateSeedingOutputGenerator
 
         final List<TemplateTransformation> templateTransformations = builder.build();
 
+        // resolve the data sources and data models once for all templates
+        final List<DataSource> dataSources = dataSources(settings, dataSourcesRegistry, definition);
+        final Map<String, Object> dataModels = dataModels(definition);
+
         for (TemplateTransformation templateTransformation : templateTransformations) {
             final OutputGenerator outputGenerator = new OutputGenerator(
                     templateTransformation.getTemplateSource(),
                     templateTransformation.getTemplateOutput(),
-                    dataSources(settings, definition),
-                    dataModels(definition),
+                    dataSources,
+                    dataModels,
                     SeedType.TEMPLATE
             );
             result.add(outputGenerator);
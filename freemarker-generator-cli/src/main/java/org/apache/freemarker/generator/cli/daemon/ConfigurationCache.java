@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.cli.daemon;
+
+import freemarker.template.Configuration;
+import org.apache.freemarker.generator.base.util.Validate;
+import org.apache.freemarker.generator.cli.config.Settings;
+import org.apache.freemarker.generator.cli.config.Suppliers;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static java.util.Objects.requireNonNull;
+import static org.apache.freemarker.generator.base.FreeMarkerConstants.Configuration.SETTING_PREFIX;
+
+/**
+ * Keeps FreeMarker configurations (including their template cache) resident between
+ * multiple invocations of the CLI. A configuration is re-used for all invocations
+ * having the same configuration file, template directories, encodings and locale.
+ * The tools are only re-created when the settings passed to them, e.g. the command
+ * line arguments or user parameters, differ from the previous invocation.
+ */
+public class ConfigurationCache {
+
+    /** Default maximum number of cached configurations */
+    public static final int DEFAULT_MAX_SIZE = 16;
+
+    private static final String TEMPLATE_UPDATE_DELAY_KEY = SETTING_PREFIX + Configuration.TEMPLATE_UPDATE_DELAY_KEY_SNAKE_CASE;
+
+    /** Configurations in access order */
+    private final Map<List<Object>, Entry> entries;
+
+    public ConfigurationCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public ConfigurationCache(int maxSize) {
+        Validate.isTrue(maxSize > 0, "maxSize must be greater than zero: " + maxSize);
+        this.entries = new LinkedHashMap<List<Object>, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Get a FreeMarker configuration for the given settings.
+     *
+     * @param settings settings of the current invocation
+     * @return FreeMarker configuration with the tools of the current invocation
+     */
+    public synchronized Configuration get(Settings settings) {
+        final List<Object> key = key(requireNonNull(settings));
+        final Map<String, Object> toolSettings = settings.toMap();
+        final Entry entry = entries.get(key);
+
+        if (entry == null) {
+            final Configuration result = create(settings);
+            entries.put(key, new Entry(result, toolSettings));
+            return result;
+        }
+
+        if (!entry.toolSettings.equals(toolSettings)) {
+            try {
+                entry.configuration.setSharedVariables(Suppliers.toolsSupplier(settings).get());
+                entry.toolSettings = toolSettings;
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to update FreeMarker configuration", e);
+            }
+        }
+
+        return entry.configuration;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private static Configuration create(Settings settings) {
+        final Configuration configuration = Suppliers.configurationSupplier(settings).get();
+
+        // templates are edited while the configuration is resident so check for changes on every access
+        if (!settings.getConfiguration().containsKey(TEMPLATE_UPDATE_DELAY_KEY)) {
+            configuration.setTemplateUpdateDelayMilliseconds(0);
+        }
+
+        return configuration;
+    }
+
+    private static List<Object> key(Settings settings) {
+        final Properties properties = new Properties();
+        properties.putAll(settings.getConfiguration());
+
+        return Arrays.asList(
+                properties,
+                settings.getTemplateDirectories(),
+                settings.getTemplateEncoding(),
+                settings.getOutputEncoding(),
+                settings.getLocale());
+    }
+
+    private static final class Entry {
+
+        private final Configuration configuration;
+
+        /** Settings the current tools of the configuration were created with */
+        private Map<String, Object> toolSettings;
+
+        private Entry(Configuration configuration, Map<String, Object> toolSettings) {
+            this.configuration = configuration;
+            this.toolSettings = toolSettings;
+        }
+    }
+}
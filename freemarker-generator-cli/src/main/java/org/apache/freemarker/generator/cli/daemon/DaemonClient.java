@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.cli.daemon;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Thin client forwarding the command line arguments (and STDIN when using "--stdin")
+ * to a running <code>DaemonServer</code> and streaming back STDOUT, STDERR and the exit code.
+ */
+public class DaemonClient {
+
+    private static final String STDIN_OPTION = "--stdin";
+
+    private DaemonClient() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(execute(DaemonProtocol.stateFile(), args, System.in, System.out, System.err));
+    }
+
+    /**
+     * Execute the command line arguments on the daemon.
+     *
+     * @param stateFile state file written by the daemon
+     * @param args      command line arguments
+     * @param stdin     STDIN forwarded when using "--stdin"
+     * @param stdout    receives the daemon's STDOUT
+     * @param stderr    receives the daemon's STDERR
+     * @return exit code
+     */
+    public static int execute(File stateFile, String[] args, InputStream stdin, OutputStream stdout, PrintStream stderr) {
+        if (!stateFile.exists()) {
+            stderr.println("FreeMarker Generator daemon is not running - state file not found: " + stateFile.getAbsolutePath());
+            return 1;
+        }
+
+        try {
+            final Properties state = state(stateFile);
+            final int port = Integer.parseInt(state.getProperty(DaemonProtocol.PORT_KEY));
+            final String token = state.getProperty(DaemonProtocol.TOKEN_KEY);
+
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                socket.setTcpNoDelay(true);
+                final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                DaemonProtocol.writeRequest(out, token, System.getProperty("user.dir"), args);
+                if (Arrays.asList(args).contains(STDIN_OPTION)) {
+                    IOUtils.copy(stdin, out);
+                }
+                out.flush();
+                socket.shutdownOutput();
+
+                return readResponse(new DataInputStream(new BufferedInputStream(socket.getInputStream())), stdout, stderr);
+            }
+        } catch (IOException | RuntimeException e) {
+            stderr.println("Failed to execute on FreeMarker Generator daemon: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private static int readResponse(DataInputStream in, OutputStream stdout, PrintStream stderr) throws IOException {
+        final byte[] buffer = new byte[8192];
+
+        while (true) {
+            final int type = in.read();
+            if (type == DaemonProtocol.EXIT) {
+                final int exitCode = in.readInt();
+                stdout.flush();
+                stderr.flush();
+                return exitCode;
+            } else if (type == DaemonProtocol.STDOUT || type == DaemonProtocol.STDERR) {
+                final OutputStream target = type == DaemonProtocol.STDOUT ? stdout : stderr;
+                int remaining = in.readInt();
+                while (remaining > 0) {
+                    final int read = in.read(buffer, 0, Math.min(buffer.length, remaining));
+                    if (read < 0) {
+                        throw new EOFException("Daemon closed the connection");
+                    }
+                    target.write(buffer, 0, read);
+                    remaining -= read;
+                }
+            } else if (type < 0) {
+                throw new EOFException("Daemon closed the connection");
+            } else {
+                throw new IOException("Unknown frame type: " + type);
+            }
+        }
+    }
+
+    private static Properties state(File stateFile) throws IOException {
+        final Properties properties = new Properties();
+        try (InputStream is = new FileInputStream(stateFile)) {
+            properties.load(is);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.cli.daemon;
+
+import org.apache.freemarker.generator.base.FreeMarkerConstants.Configuration;
+import org.apache.freemarker.generator.base.FreeMarkerConstants.SystemProperties;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal protocol between the daemon and its client using a loopback socket.
+ * <p>
+ * The request consists of the protocol version, the access token, the client's
+ * working directory and the command line arguments followed by the raw bytes
+ * of STDIN. The response is a stream of frames carrying STDOUT and STDERR
+ * followed by a final frame carrying the exit code.
+ */
+final class DaemonProtocol {
+
+    private DaemonProtocol() {
+    }
+
+    static final int VERSION = 1;
+
+    /** Frame carrying STDOUT bytes */
+    static final int STDOUT = 1;
+
+    /** Frame carrying STDERR bytes */
+    static final int STDERR = 2;
+
+    /** Final frame carrying the exit code */
+    static final int EXIT = 3;
+
+    /** System property to override the location of the daemon's state file */
+    static final String STATE_FILE_PROPERTY = "freemarker.generator.daemon.file";
+
+    /** Name of the daemon's state file in the user's configuration directory */
+    static final String STATE_FILE_NAME = "daemon.properties";
+
+    static final String PORT_KEY = "port";
+    static final String TOKEN_KEY = "token";
+
+    static File stateFile() {
+        final String fileName = System.getProperty(STATE_FILE_PROPERTY);
+        if (fileName != null) {
+            return new File(fileName);
+        }
+
+        final File userConfigurationDir = new File(System.getProperty(SystemProperties.USER_HOME), Configuration.USER_CONFIGURATION_DIR_NAME);
+        return new File(userConfigurationDir, STATE_FILE_NAME);
+    }
+
+    static void writeRequest(DataOutputStream out, String token, String workingDirectory, String[] args) throws IOException {
+        out.writeInt(VERSION);
+        out.writeUTF(token);
+        out.writeUTF(workingDirectory);
+        out.writeInt(args.length);
+        for (String arg : args) {
+            out.writeUTF(arg);
+        }
+    }
+
+    static Request readRequest(DataInputStream in) throws IOException {
+        final int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported protocol version: " + version);
+        }
+
+        final String token = in.readUTF();
+        final String workingDirectory = in.readUTF();
+        final int nrOfArgs = in.readInt();
+        final List<String> args = new ArrayList<>(nrOfArgs);
+        for (int i = 0; i < nrOfArgs; i++) {
+            args.add(in.readUTF());
+        }
+
+        return new Request(token, workingDirectory, args.toArray(new String[0]));
+    }
+
+    static void writeExit(DataOutputStream out, int exitCode) throws IOException {
+        synchronized (out) {
+            out.writeByte(EXIT);
+            out.writeInt(exitCode);
+            out.flush();
+        }
+    }
+
+    static final class Request {
+
+        final String token;
+        final String workingDirectory;
+        final String[] args;
+
+        Request(String token, String workingDirectory, String[] args) {
+            this.token = token;
+            this.workingDirectory = workingDirectory;
+            this.args = args;
+        }
+    }
+
+    /**
+     * Writes STDOUT or STDERR bytes as frames.
+     */
+    static final class FrameOutputStream extends OutputStream {
+
+        private final DataOutputStream out;
+        private final int type;
+
+        FrameOutputStream(DataOutputStream out, int type) {
+            this.out = out;
+            this.type = type;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+
+            synchronized (out) {
+                out.writeByte(type);
+                out.writeInt(len);
+                out.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (out) {
+                out.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.cli.daemon;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.freemarker.generator.base.util.HashUtils;
+import org.apache.freemarker.generator.cli.Main;
+import org.apache.freemarker.generator.cli.daemon.DaemonProtocol.FrameOutputStream;
+import org.apache.freemarker.generator.cli.daemon.DaemonProtocol.Request;
+import org.apache.freemarker.generator.cli.picocli.GitVersionProvider;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Long-running daemon keeping the FreeMarker configurations, tools and templates warm.
+ * Render requests are accepted on a loopback socket and processed one after another
+ * using the same command line arguments as <code>Main</code>. The port and an access
+ * token are written to a state file only readable by the current user which is picked
+ * up by the <code>DaemonClient</code>.
+ * <p>
+ * Since a JVM can't change its working directory, the client must be invoked from the
+ * daemon's working directory. Environment variables and system properties are the ones
+ * of the daemon.
+ */
+@Command(description = "Apache FreeMarker Generator Daemon", name = "freemarker-generator-daemon", mixinStandardHelpOptions = true, versionProvider = GitVersionProvider.class)
+public class DaemonServer implements Callable<Integer>, Closeable {
+
+    private static final String WARM_UP_TEMPLATE = "${tools?size}";
+
+    /** Requests are processed one after another so a stalled client must not block the daemon */
+    private static final int SOCKET_READ_TIMEOUT = 30_000;
+
+    @Option(names = { "--port" }, defaultValue = "0", description = "loopback port to listen on (defaults to a random port)")
+    int port;
+
+    @Option(names = { "--state-file" }, description = "file to store the port and access token")
+    File stateFile;
+
+    @Option(names = { "--no-warm-up" }, description = "skip rendering a template on startup")
+    boolean noWarmUp;
+
+    /** Keeps the FreeMarker configurations resident between requests */
+    private final ConfigurationCache configurationCache;
+
+    /** Secret the client must send with every request */
+    private final String token;
+
+    private volatile ServerSocket serverSocket;
+
+    public DaemonServer() {
+        this(new ConfigurationCache(), newToken());
+    }
+
+    DaemonServer(ConfigurationCache configurationCache, String token) {
+        this.configurationCache = requireNonNull(configurationCache);
+        this.token = requireNonNull(token);
+    }
+
+    public static void main(String[] args) {
+        System.exit(new CommandLine(new DaemonServer()).execute(args));
+    }
+
+    @Override
+    public Integer call() throws IOException {
+        final File currentStateFile = stateFile != null ? stateFile : DaemonProtocol.stateFile();
+
+        start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            close();
+            FileUtils.deleteQuietly(currentStateFile);
+        }));
+
+        if (!noWarmUp) {
+            warmUp();
+        }
+
+        writeStateFile(currentStateFile);
+        System.out.println("FreeMarker Generator daemon listening on port " + getPort() + " (state file: " + currentStateFile.getAbsolutePath() + ")");
+        run();
+        return 0;
+    }
+
+    /**
+     * Bind the loopback socket.
+     *
+     * @param port port or zero for a random port
+     * @throws IOException binding the socket failed
+     */
+    void start(int port) throws IOException {
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * Process requests one after another until the daemon is closed. Processing
+     * requests sequentially allows to redirect STDIN, STDOUT and STDERR for the
+     * duration of a request.
+     */
+    void run() {
+        while (!serverSocket.isClosed()) {
+            try {
+                handle(serverSocket.accept());
+            } catch (SocketException e) {
+                // socket was closed
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Failed to process daemon request: " + e.getMessage());
+            }
+        }
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    String getToken() {
+        return token;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    private void handle(Socket socket) throws IOException {
+        try (Socket current = socket) {
+            current.setTcpNoDelay(true);
+            current.setSoTimeout(SOCKET_READ_TIMEOUT);
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(current.getInputStream()));
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(current.getOutputStream()));
+            final Request request = DaemonProtocol.readRequest(in);
+            final PrintStream stdout = printStream(out, DaemonProtocol.STDOUT);
+            final PrintStream stderr = printStream(out, DaemonProtocol.STDERR);
+            final int exitCode;
+
+            if (!isValidToken(request.token)) {
+                stderr.println("Invalid daemon access token");
+                exitCode = 1;
+            } else if (!isWorkingDirectory(request.workingDirectory)) {
+                stderr.println("Daemon was started in '" + workingDirectory() + "' but invoked from '" + request.workingDirectory + "'");
+                exitCode = 1;
+            } else {
+                exitCode = execute(request.args, in, stdout, stderr);
+            }
+
+            stdout.flush();
+            stderr.flush();
+            DaemonProtocol.writeExit(out, exitCode);
+        }
+    }
+
+    private int execute(String[] args, InputStream stdin, PrintStream stdout, PrintStream stderr) {
+        final InputStream systemIn = System.in;
+        final PrintStream systemOut = System.out;
+        final PrintStream systemErr = System.err;
+        // "-D" options of a request must not leak into subsequent requests
+        final Properties systemProperties = (Properties) System.getProperties().clone();
+
+        try {
+            System.setIn(stdin);
+            System.setOut(stdout);
+            System.setErr(stderr);
+            return Main.execute(args, configurationCache);
+        } catch (RuntimeException e) {
+            stderr.println(e.getMessage());
+            return 1;
+        } finally {
+            System.setIn(systemIn);
+            System.setOut(systemOut);
+            System.setErr(systemErr);
+            System.setProperties(systemProperties);
+        }
+    }
+
+    /**
+     * Render a template to load the classes and to create the default FreeMarker configuration.
+     */
+    private void warmUp() {
+        final PrintStream nullStream = new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        });
+
+        execute(new String[] { "-i", WARM_UP_TEMPLATE }, System.in, nullStream, nullStream);
+    }
+
+    private void writeStateFile(File file) throws IOException {
+        final Properties properties = new Properties();
+        properties.setProperty(DaemonProtocol.PORT_KEY, Integer.toString(getPort()));
+        properties.setProperty(DaemonProtocol.TOKEN_KEY, token);
+
+        FileUtils.forceMkdirParent(file);
+        FileUtils.deleteQuietly(file);
+        createOwnerOnlyFile(file);
+
+        try (OutputStream os = new FileOutputStream(file)) {
+            properties.store(os, "FreeMarker Generator daemon");
+        }
+    }
+
+    private static void createOwnerOnlyFile(File file) throws IOException {
+        try {
+            Files.createFile(file.toPath(), PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException e) {
+            // not a POSIX file system
+            Files.createFile(file.toPath());
+        }
+    }
+
+    private static PrintStream printStream(DataOutputStream out, int type) {
+        try {
+            return new PrintStream(new BufferedOutputStream(new FrameOutputStream(out, type)), false, UTF_8.name());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create print stream", e);
+        }
+    }
+
+    /**
+     * Compare the tokens in constant time to avoid leaking the token through timing.
+     */
+    private boolean isValidToken(String candidate) {
+        return MessageDigest.isEqual(token.getBytes(UTF_8), candidate.getBytes(UTF_8));
+    }
+
+    private static boolean isWorkingDirectory(String directory) throws IOException {
+        return new File(directory).getCanonicalFile().equals(new File(workingDirectory()).getCanonicalFile());
+    }
+
+    private static String workingDirectory() {
+        return System.getProperty("user.dir");
+    }
+
+    private static String newToken() {
+        final byte[] bytes = new byte[16];
+        new SecureRandom().nextBytes(bytes);
+        return HashUtils.toHex(bytes);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.cli.task;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import org.apache.freemarker.generator.base.util.CachingSupplier;
+import org.apache.freemarker.generator.base.util.HashUtils;
+import org.apache.freemarker.generator.base.util.Validate;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Caches templates compiled from template code (e.g. a template file read into
+ * memory or an interactive template). Templates are keyed by the template name
+ * and a hash of the template code so the same template is only parsed once
+ * regardless of how many outputs it generates. The least recently used templates
+ * are evicted when the cache is full.
+ * <p>
+ * The templates are stored as custom attribute of their FreeMarker configuration,
+ * so they don't keep a configuration alive which is no longer used, e.g. after
+ * the daemon evicted it.
+ */
+public class CompiledTemplateCache {
+
+    /** Default maximum number of cached templates per configuration */
+    public static final int DEFAULT_MAX_SIZE = 256;
+
+    private static final AtomicInteger INSTANCE_COUNTER = new AtomicInteger();
+
+    /** Name of the configuration's custom attribute holding the templates of this cache */
+    private final String attributeName;
+
+    private final int maxSize;
+
+    public CompiledTemplateCache(int maxSize) {
+        Validate.isTrue(maxSize > 0, "maxSize must be greater than zero: " + maxSize);
+        this.attributeName = CompiledTemplateCache.class.getName() + "." + INSTANCE_COUNTER.incrementAndGet();
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get the compiled template for the given template code. Concurrent callers
+     * requesting the same template wait for a single parse.
+     *
+     * @param configuration FreeMarker configuration the template is bound to
+     * @param name          name of the template
+     * @param code          template code
+     * @return compiled template
+     */
+    public Template get(Configuration configuration, String name, String code) {
+        final Key key = new Key(requireNonNull(name), HashUtils.sha256(requireNonNull(code)));
+        return supplier(requireNonNull(configuration), key, code).get();
+    }
+
+    /**
+     * Get the number of templates cached for the configuration.
+     *
+     * @param configuration FreeMarker configuration
+     * @return number of cached templates
+     */
+    public synchronized int size(Configuration configuration) {
+        return templates(configuration).size();
+    }
+
+    private synchronized CachingSupplier<Template> supplier(Configuration configuration, Key key, String code) {
+        return templates(configuration).computeIfAbsent(key, k -> new CachingSupplier<>(() -> template(configuration, k.name, code)));
+    }
+
+    /**
+     * Get the template suppliers of the configuration in access order - a supplier
+     * parses its template once.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Key, CachingSupplier<Template>> templates(Configuration configuration) {
+        final Object templates = configuration.getCustomAttribute(attributeName);
+        if (templates != null) {
+            return (Map<Key, CachingSupplier<Template>>) templates;
+        }
+
+        final Map<Key, CachingSupplier<Template>> result = new LinkedHashMap<Key, CachingSupplier<Template>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachingSupplier<Template>> eldest) {
+                return size() > maxSize;
+            }
+        };
+        configuration.setCustomAttribute(attributeName, result);
+        return result;
+    }
+
+    private static Template template(Configuration configuration, String name, String code) {
+        try {
+            return new Template(name, code, configuration);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load template code: " + name, e);
+        }
+    }
+
+    private static final class Key {
+
+        private final String name;
+        private final String hash;
+
+        Key(String name, String hash) {
+            this.name = name;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return name.equals(key.name) && hash.equals(key.hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, hash);
+        }
+    }
+}
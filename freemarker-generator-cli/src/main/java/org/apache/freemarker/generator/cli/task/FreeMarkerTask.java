@@ -26,6 +26,7 @@ import org.apache.freemarker.generator.base.output.OutputGenerator;
 import org.apache.freemarker.generator.base.output.OutputGenerator.SeedType;
 import org.apache.freemarker.generator.base.template.TemplateOutput;
 import org.apache.freemarker.generator.base.template.TemplateSource;
+import org.apache.freemarker.generator.base.util.ClosableUtils;
 import org.apache.freemarker.generator.base.util.ListUtils;
 import org.apache.freemarker.generator.base.util.Validate;
 
@@ -34,12 +35,21 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Supplier;
 
 import static java.util.Objects.requireNonNull;
@@ -47,27 +57,43 @@ import static org.apache.freemarker.generator.base.FreeMarkerConstants.Model;
 
 /**
  * Renders a FreeMarker template.
+ * <p>
+ * All output generators are rendered either sequentially or, if a parallelism greater than
+ * one is requested, concurrently on a bounded worker pool. When rendering concurrently
+ * the output of generators writing into a shared writer (e.g. stdout) is written in the
+ * order of the output generators to keep the output deterministic - only output rendered
+ * ahead of its turn is buffered.
  */
 public class FreeMarkerTask implements Callable<Integer> {
 
     private static final int SUCCESS_CODE = 0;
 
+    /** Templates created from code are compiled once per process and shared across tasks */
+    private static final CompiledTemplateCache TEMPLATE_CACHE = new CompiledTemplateCache(CompiledTemplateCache.DEFAULT_MAX_SIZE);
+
     private final Supplier<Configuration> configurationSupplier;
     private final Supplier<List<OutputGenerator>> outputGeneratorsSupplier;
     private final Supplier<Map<String, Object>> sharedDataModelSupplier;
     private final Supplier<List<DataSource>> sharedDataSourcesSupplier;
     private final Supplier<Map<String, Object>> sharedParametersSupplier;
 
+    /** Maximum number of output generators rendered concurrently */
+    private final int parallelism;
+
     public FreeMarkerTask(Supplier<Configuration> configurationSupplier,
                           Supplier<List<OutputGenerator>> outputGeneratorsSupplier,
                           Supplier<Map<String, Object>> sharedDataModelSupplier,
                           Supplier<List<DataSource>> sharedDataSourcesSupplier,
-                          Supplier<Map<String, Object>> sharedParametersSupplier) {
+                          Supplier<Map<String, Object>> sharedParametersSupplier,
+                          int parallelism) {
+        Validate.isTrue(parallelism > 0, "parallelism must be greater than zero: " + parallelism);
+
         this.configurationSupplier = requireNonNull(configurationSupplier, "configurationSupplier");
         this.outputGeneratorsSupplier = requireNonNull(outputGeneratorsSupplier, "outputGeneratorsSupplier");
         this.sharedDataModelSupplier = requireNonNull(sharedDataModelSupplier, "sharedDataModelSupplier");
         this.sharedDataSourcesSupplier = requireNonNull(sharedDataSourcesSupplier, "sharedDataSourcesSupplier");
         this.sharedParametersSupplier = requireNonNull(sharedParametersSupplier, "parametersSupplier");
+        this.parallelism = parallelism;
     }
 
     @Override
@@ -78,12 +104,25 @@ public class FreeMarkerTask implements Callable<Integer> {
         final List<DataSource> sharedDataSources = sharedDataSourcesSupplier.get();
         final Map<String, Object> sharedParameters = sharedParametersSupplier.get();
 
-        outputGenerators.forEach(outputGenerator -> process(
-                configuration,
-                outputGenerator,
-                sharedDataModel,
-                sharedDataSources,
-                sharedParameters));
+        try {
+            if (parallelism > 1 && outputGenerators.size() > 1) {
+                processConcurrently(
+                        configuration,
+                        outputGenerators,
+                        sharedDataModel,
+                        sharedDataSources,
+                        sharedParameters);
+            } else {
+                outputGenerators.forEach(outputGenerator -> process(
+                        configuration,
+                        outputGenerator,
+                        sharedDataModel,
+                        sharedDataSources,
+                        sharedParameters));
+            }
+        } finally {
+            close(outputGenerators, sharedDataSources);
+        }
 
         return SUCCESS_CODE;
     }
@@ -95,18 +134,141 @@ public class FreeMarkerTask implements Callable<Integer> {
                          Map<String, Object> sharedParameters) {
         final TemplateSource templateSource = outputGenerator.getTemplateSource();
         final TemplateOutput templateOutput = outputGenerator.getTemplateOutput();
+
+        try (Writer writer = writer(templateOutput)) {
+            render(configuration, outputGenerator, sharedDataModelMap, sharedDataSources, sharedParameters, writer);
+        } catch (TemplateException | IOException | RuntimeException e) {
+            throw new RuntimeException("Failed to process template: " + templateSource.getName(), e);
+        }
+    }
+
+    /**
+     * Render the output generators on a bounded worker pool. Output generators writing
+     * to a file are rendered directly while the remaining ones are rendered into a buffer
+     * which is copied to the shared writer in the order of the output generators. The
+     * calling thread streams the next output generator in order if no worker picked it up
+     * yet, e.g. the first one writing to the shared writer is never buffered. All output
+     * generators are processed and their failures are reported together.
+     */
+    private void processConcurrently(Configuration configuration,
+                                     List<OutputGenerator> outputGenerators,
+                                     Map<String, Object> sharedDataModelMap,
+                                     List<DataSource> sharedDataSources,
+                                     Map<String, Object> sharedParameters) {
+        final ExecutorService executorService = Executors.newFixedThreadPool(Math.min(parallelism, outputGenerators.size()));
+
+        try {
+            final List<Future<String>> futures = new ArrayList<>();
+            boolean isHead = true;
+            for (OutputGenerator outputGenerator : outputGenerators) {
+                if (isHead && outputGenerator.getTemplateOutput().hasWriter()) {
+                    futures.add(null);
+                    isHead = false;
+                } else {
+                    futures.add(executorService.submit(() -> processBuffered(
+                            configuration,
+                            outputGenerator,
+                            sharedDataModelMap,
+                            sharedDataSources,
+                            sharedParameters)));
+                }
+            }
+
+            final List<Throwable> failures = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                final OutputGenerator outputGenerator = outputGenerators.get(i);
+                final Future<String> future = futures.get(i);
+                try {
+                    if (future == null || future.cancel(false)) {
+                        process(configuration, outputGenerator, sharedDataModelMap, sharedDataSources, sharedParameters);
+                    } else {
+                        final String output = future.get();
+                        if (output != null) {
+                            write(outputGenerator.getTemplateOutput(), output);
+                        }
+                    }
+                } catch (ExecutionException e) {
+                    failures.add(e.getCause());
+                } catch (RuntimeException e) {
+                    failures.add(e);
+                } catch (IOException e) {
+                    failures.add(new RuntimeException("Failed to write output of template: " + outputGenerator.getTemplateSource().getName(), e));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while processing templates", e);
+                }
+            }
+
+            if (!failures.isEmpty()) {
+                throw failure(failures, outputGenerators.size());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Process an output generator on a worker thread.
+     *
+     * @return the buffered output for a shared writer or null if the output was written to a file
+     */
+    private String processBuffered(Configuration configuration,
+                                   OutputGenerator outputGenerator,
+                                   Map<String, Object> sharedDataModelMap,
+                                   List<DataSource> sharedDataSources,
+                                   Map<String, Object> sharedParameters) {
+        if (!outputGenerator.getTemplateOutput().hasWriter()) {
+            process(configuration, outputGenerator, sharedDataModelMap, sharedDataSources, sharedParameters);
+            return null;
+        }
+
+        final StringWriter writer = new StringWriter();
+        try {
+            render(configuration, outputGenerator, sharedDataModelMap, sharedDataSources, sharedParameters, writer);
+            return writer.toString();
+        } catch (TemplateException | IOException | RuntimeException e) {
+            throw new RuntimeException("Failed to process template: " + outputGenerator.getTemplateSource().getName(), e);
+        }
+    }
+
+    private static void render(Configuration configuration,
+                               OutputGenerator outputGenerator,
+                               Map<String, Object> sharedDataModelMap,
+                               List<DataSource> sharedDataSources,
+                               Map<String, Object> sharedParameters,
+                               Writer writer) throws TemplateException, IOException {
         final DataSources dataSources = toDataSources(outputGenerator, sharedDataSources);
         final Map<String, Object> variables = outputGenerator.getVariables();
         final Map<String, Object> templateDataModel = toTemplateDataModel(dataSources, variables, sharedDataModelMap, sharedParameters);
+        final Template template = template(configuration, outputGenerator.getTemplateSource());
+        template.process(templateDataModel, writer);
+    }
 
+    private static void write(TemplateOutput templateOutput, String output) throws IOException {
         try (Writer writer = writer(templateOutput)) {
-            final Template template = template(configuration, templateSource);
-            template.process(templateDataModel, writer);
-        } catch (TemplateException | IOException | RuntimeException e) {
-            throw new RuntimeException("Failed to process template: " + templateSource.getName(), e);
+            writer.write(output);
         }
     }
 
+    /**
+     * Close the data sources used for rendering, e.g. to delete temporary
+     * files of HTTP data sources - a shared data source is closed once.
+     */
+    private static void close(List<OutputGenerator> outputGenerators, List<DataSource> sharedDataSources) {
+        final Set<DataSource> dataSources = Collections.newSetFromMap(new IdentityHashMap<>());
+        outputGenerators.forEach(outputGenerator -> dataSources.addAll(outputGenerator.getDataSources()));
+        dataSources.addAll(sharedDataSources);
+        dataSources.forEach(ClosableUtils::closeQuietly);
+    }
+
+    private static RuntimeException failure(List<Throwable> failures, int nrOfOutputGenerators) {
+        final RuntimeException result = new RuntimeException(
+                String.format("Failed to process %d of %d templates: %s", failures.size(), nrOfOutputGenerators, failures.get(0).getMessage()),
+                failures.get(0));
+        failures.stream().skip(1).forEach(result::addSuppressed);
+        return result;
+    }
+
     /**
      * Merge the <code>DataSourced</code>.
      * The data sources to be used are determined by the seed type
@@ -184,11 +346,6 @@ public class FreeMarkerTask implements Callable<Integer> {
     }
 
     private static Template fromTemplateCode(Configuration configuration, TemplateSource templateSource) {
-        final String name = templateSource.getName();
-        try {
-            return new Template(name, templateSource.getCode(), configuration);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to load template code: " + name, e);
-        }
+        return TEMPLATE_CACHE.get(configuration, templateSource.getName(), templateSource.getCode());
     }
 }
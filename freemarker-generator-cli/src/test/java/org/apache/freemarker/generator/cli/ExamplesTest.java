@@ -173,6 +173,13 @@ public class ExamplesTest extends AbstractMainTest {
         assertValid(execute("-t freemarker-generator/csv/md/transform.ftl -o target/contract.md -t freemarker-generator/csv/html/transform.ftl -o target/contract.html src/app/examples/data/csv/contract.csv"));
     }
 
+    @Test
+    public void shouldTransformMultipleTemplatesConcurrently() throws IOException {
+        assertEquals("abcdef", execute("--parallelism=4 -i a -i b -i c -i d -i e -i f"));
+        assertEquals("abcdef", execute("--parallelism=1 -i a -i b -i c -i d -i e -i f"));
+        assertValid(execute("--parallelism=2 -t freemarker-generator/csv/md/transform.ftl -o target/contract.md -t freemarker-generator/csv/html/transform.ftl -o target/contract.html src/app/examples/data/csv/contract.csv"));
+    }
+
     @Test
     public void shouldTransformMultipleTemplatesAndDataSources() throws IOException {
         final String output = execute(
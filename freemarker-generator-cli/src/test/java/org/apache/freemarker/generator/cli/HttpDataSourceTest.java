@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.cli;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HttpDataSourceTest extends AbstractMainTest {
+
+    private static final String TEMPLATE = "${dataSources[0].getText()},${dataSources[1].getText()}";
+
+    /** Released once both data sources are requested at the same time */
+    private final CountDownLatch requests = new CountDownLatch(2);
+
+    private ExecutorService executorService;
+    private HttpServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        executorService = Executors.newFixedThreadPool(2);
+        server.setExecutor(executorService);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void shouldPrefetchHttpDataSourcesConcurrently() throws IOException {
+        final String output = execute("-i " + TEMPLATE + " " + url("/a") + " " + url("/b"));
+
+        assertEquals("concurrent,concurrent", output);
+    }
+
+    @Test
+    public void shouldDeleteTemporaryFilesAfterRendering() throws IOException {
+        final Set<String> temporaryFiles = temporaryFiles();
+
+        execute("-i " + TEMPLATE + " " + url("/a") + " " + url("/b"));
+
+        assertTrue(temporaryFiles.containsAll(temporaryFiles()));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.countDown();
+        final byte[] body = (await() ? "concurrent" : "sequential").getBytes(UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    private boolean await() {
+        try {
+            return requests.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Set<String> temporaryFiles() {
+        final File[] files = new File(System.getProperty("java.io.tmpdir"))
+                .listFiles((dir, name) -> name.startsWith("freemarker-generator-http-"));
+        return files == null ? new HashSet<>() : Arrays.stream(files).map(File::getName).collect(toSet());
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+}
@@ -140,6 +140,12 @@ public class PicocliTest {
         assertTrue(main.readFromStdin);
     }
 
+    @Test
+    public void shouldParseParallelism() {
+        assertNull(parse("-t", ANY_TEMPLATE).parallelism);
+        assertEquals(Integer.valueOf(4), parse("-t", ANY_TEMPLATE, "--parallelism", "4").parallelism);
+    }
+
     @Test
     public void shouldParseComplexCommandLine01() {
         final Main main = parse(
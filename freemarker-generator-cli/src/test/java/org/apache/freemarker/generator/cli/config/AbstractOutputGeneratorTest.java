@@ -31,6 +31,7 @@ public abstract class AbstractOutputGeneratorTest {
 
     protected static final String ANY_TEMPLATE_NAME = "cat.ftl";
     protected static final String ANY_TEMPLATE = "src/app/templates/freemarker-generator/" + ANY_TEMPLATE_NAME;
+    protected static final String ANY_TEMPLATE_DIRECTORY = "src/app/templates/freemarker-generator/csv";
     protected static final String ANY_DATASOURCE_DIRECTORY = "src/test/data/json";
     protected static final String ANY_DATASOURCE_FILE_01 = ANY_DATASOURCE_DIRECTORY + "/environments.json";
     protected static final String ANY_DATASOURCE_FILE_02 = ANY_DATASOURCE_DIRECTORY + "/list.json";
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.cli.config;
+
+import org.apache.freemarker.generator.base.datasource.DataSource;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class DataSourcesRegistryTest {
+
+    private static final String ANY_DATASOURCE_DIRECTORY = "src/test/data/json";
+    private static final String ANY_DATASOURCE_FILE = ANY_DATASOURCE_DIRECTORY + "/environments.json";
+
+    @Test
+    public void shouldResolveDataSourceOnlyOnce() {
+        final DataSourcesRegistry registry = new DataSourcesRegistry(Settings.builder().build());
+
+        final List<DataSource> dataSources = registry.get(singletonList(ANY_DATASOURCE_DIRECTORY));
+        final List<DataSource> otherDataSources = registry.get(singletonList(ANY_DATASOURCE_DIRECTORY));
+
+        assertEquals(2, dataSources.size());
+        assertSame(dataSources.get(0), otherDataSources.get(0));
+        assertSame(dataSources.get(1), otherDataSources.get(1));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void shouldResolveMultipleSourcesInOrder() {
+        final DataSourcesRegistry registry = new DataSourcesRegistry(Settings.builder().build());
+
+        final List<DataSource> dataSources = registry.get(Arrays.asList(ANY_DATASOURCE_FILE, ANY_DATASOURCE_DIRECTORY));
+
+        assertEquals(3, dataSources.size());
+        assertEquals("environments.json", dataSources.get(0).getFileName());
+        assertEquals("environments.json", dataSources.get(1).getFileName());
+        assertEquals("list.json", dataSources.get(2).getFileName());
+        assertEquals(2, registry.size());
+    }
+
+    @Test
+    public void shouldShareSharedDataSources() {
+        final Settings settings = Settings.builder().setSharedDataSources(singletonList(ANY_DATASOURCE_FILE)).build();
+        final DataSourcesRegistry registry = new DataSourcesRegistry(settings);
+
+        final List<DataSource> sharedDataSources = registry.getSharedDataSources();
+
+        assertEquals(1, sharedDataSources.size());
+        assertSame(sharedDataSources.get(0), registry.get(singletonList(ANY_DATASOURCE_FILE)).get(0));
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.cli.config;
+
+import org.apache.freemarker.generator.cli.picocli.OutputGeneratorDefinition;
+import org.apache.freemarker.generator.cli.picocli.TemplateOutputDefinition;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+
+public class SettingsTest {
+
+    @Test
+    public void shouldRenderSequentiallyToSharedWriterByDefault() {
+        final Settings settings = Settings.builder()
+                .setOutputGeneratorDefinitions(asList(outputGeneratorDefinition(null), outputGeneratorDefinition("target/b.txt")))
+                .build();
+
+        assertEquals(1, settings.getParallelism());
+    }
+
+    @Test
+    public void shouldRenderConcurrentlyToFilesByDefault() {
+        final Settings settings = Settings.builder()
+                .setOutputGeneratorDefinitions(asList(outputGeneratorDefinition("target/a.txt"), outputGeneratorDefinition("target/b.txt")))
+                .build();
+
+        assertEquals(Runtime.getRuntime().availableProcessors(), settings.getParallelism());
+    }
+
+    @Test
+    public void shouldUseRequestedParallelism() {
+        final Settings settings = Settings.builder()
+                .setOutputGeneratorDefinitions(singletonList(outputGeneratorDefinition(null)))
+                .setParallelism(4)
+                .build();
+
+        assertEquals(4, settings.getParallelism());
+    }
+
+    private static OutputGeneratorDefinition outputGeneratorDefinition(String output) {
+        final OutputGeneratorDefinition result = new OutputGeneratorDefinition();
+        if (output != null) {
+            result.templateOutputDefinition = new TemplateOutputDefinition();
+            result.templateOutputDefinition.outputs = singletonList(output);
+        }
+        return result;
+    }
+}
@@ -25,6 +25,7 @@ import java.io.File;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 public class TemplateSeedingOutputGeneratorTest extends AbstractOutputGeneratorTest {
 
@@ -118,4 +119,28 @@ public class TemplateSeedingOutputGeneratorTest extends AbstractOutputGeneratorT
         assertEquals(new File(ANY_OUTPUT_FILE), outputGenerator_02.getTemplateOutput().getFile());
         assertEquals("list.json", outputGenerator_02.getDataSources().get(0).getFileName());
     }
+
+    /**
+     * N templates in a directory -> N output generators sharing the same data sources
+     */
+    @Test
+    public void shouldShareDataSourcesBetweenTemplatesInDirectory() {
+        final OutputGeneratorDefinition outputGeneratorDefinition = outputGeneratorDefinition();
+        outputGeneratorDefinition.templateSourceDefinition = templateSourceDefinition(ANY_TEMPLATE_DIRECTORY);
+        outputGeneratorDefinition.templateOutputDefinition = templateOutputDirectoryDefinition(ANY_OUTPUT_DIRECTORY);
+        outputGeneratorDefinition.dataSourceDefinition = dataSourceDefinition(ANY_DATASOURCE_DIRECTORY);
+        outputGeneratorDefinition.outputSeedDefinition = outputSeedDefinition(SeedType.TEMPLATE);
+        final Settings settings = settings(outputGeneratorDefinition);
+        final OutputGeneratorsSupplier outputGeneratorsSupplier = new OutputGeneratorsSupplier(settings);
+
+        final List<OutputGenerator> outputGenerators = outputGeneratorsSupplier.get();
+
+        assertEquals(4, outputGenerators.size());
+
+        for (OutputGenerator outputGenerator : outputGenerators) {
+            assertEquals(2, outputGenerator.getDataSources().size());
+            assertSame(outputGenerators.get(0).getDataSources().get(0), outputGenerator.getDataSources().get(0));
+            assertSame(outputGenerators.get(0).getDataSources().get(1), outputGenerator.getDataSources().get(1));
+        }
+    }
 }
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.cli.daemon;
+
+import freemarker.template.Configuration;
+import org.apache.freemarker.generator.base.FreeMarkerConstants.Model;
+import org.apache.freemarker.generator.cli.config.Settings;
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class ConfigurationCacheTest {
+
+    private final ConfigurationCache configurationCache = new ConfigurationCache();
+
+    @Test
+    public void shouldReuseConfigurationAndTools() {
+        final Configuration configuration = configurationCache.get(settings("a"));
+        final Object tools = configuration.getSharedVariable(Model.TOOLS);
+
+        assertSame(configuration, configurationCache.get(settings("a")));
+        assertSame(tools, configuration.getSharedVariable(Model.TOOLS));
+        assertEquals(1, configurationCache.size());
+    }
+
+    @Test
+    public void shouldRecreateToolsWhenSettingsChange() {
+        final Configuration configuration = configurationCache.get(settings("a"));
+        final Object tools = configuration.getSharedVariable(Model.TOOLS);
+
+        assertSame(configuration, configurationCache.get(settings("b")));
+        assertNotSame(tools, configuration.getSharedVariable(Model.TOOLS));
+    }
+
+    private static Settings settings(String arg) {
+        final Properties configuration = new Properties();
+        configuration.setProperty("freemarker.tools.system", "org.apache.freemarker.generator.tools.system.SystemTool");
+        return Settings.builder()
+                .setConfiguration(configuration)
+                .setCommandLineArgs(new String[] { "-i", arg })
+                .build();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.cli.daemon;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Properties;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DaemonServerTest {
+
+    private static final String ANY_TOKEN = "0123456789abcdef";
+    private static final String ANY_SYSTEM_PROPERTY = "freemarker.generator.daemon.test";
+    private static final String TEST_CONFIG_FILE = "./src/app/config/freemarker-generator.properties";
+    private static final String TEST_TEMPLATES_DIRECTORY = "./src/app/templates";
+    private static final File STATE_FILE = new File("./target/daemon/daemon.properties");
+
+    private ConfigurationCache configurationCache;
+    private DaemonServer daemonServer;
+
+    @Before
+    public void setUp() throws IOException {
+        configurationCache = new ConfigurationCache();
+        daemonServer = new DaemonServer(configurationCache, ANY_TOKEN);
+        daemonServer.start(0);
+        new Thread(daemonServer::run).start();
+    }
+
+    @After
+    public void tearDown() {
+        daemonServer.close();
+        STATE_FILE.delete();
+    }
+
+    @Test
+    public void shouldRenderInteractiveTemplate() throws IOException {
+        writeStateFile(ANY_TOKEN);
+
+        final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        final int exitCode = execute(stdout, "-i", "Hello ${1 + 1}");
+
+        assertEquals(0, exitCode);
+        assertEquals("Hello 2", new String(stdout.toByteArray(), UTF_8));
+    }
+
+    @Test
+    public void shouldReuseConfiguration() throws IOException {
+        writeStateFile(ANY_TOKEN);
+
+        assertEquals(0, execute(new ByteArrayOutputStream(), "-i", "a"));
+        assertEquals(0, execute(new ByteArrayOutputStream(), "-i", "b"));
+
+        assertEquals(1, configurationCache.size());
+    }
+
+    @Test
+    public void shouldRestoreSystemPropertiesAfterRequest() throws IOException {
+        writeStateFile(ANY_TOKEN);
+
+        final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        assertEquals(0, execute(stdout, "-D", ANY_SYSTEM_PROPERTY + "=a", "-i", "${tools.system.getSystemProperty(\"" + ANY_SYSTEM_PROPERTY + "\")}"));
+
+        assertEquals("a", new String(stdout.toByteArray(), UTF_8));
+        assertNull(System.getProperty(ANY_SYSTEM_PROPERTY));
+    }
+
+    @Test
+    public void shouldReturnExitCodeOfFailedRendering() throws IOException {
+        writeStateFile(ANY_TOKEN);
+
+        assertEquals(1, execute(new ByteArrayOutputStream(), "-t", "does-not-exist.ftl"));
+    }
+
+    @Test
+    public void shouldRejectInvalidToken() throws IOException {
+        writeStateFile("invalid");
+
+        final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+        final int exitCode = DaemonClient.execute(STATE_FILE, new String[] { "-i", "a" }, System.in, new ByteArrayOutputStream(), new PrintStream(stderr));
+
+        assertEquals(1, exitCode);
+        assertTrue(new String(stderr.toByteArray(), UTF_8).contains("Invalid daemon access token"));
+    }
+
+    private static int execute(OutputStream stdout, String... args) {
+        final String[] commandLine = new String[args.length + 4];
+        commandLine[0] = "--config";
+        commandLine[1] = TEST_CONFIG_FILE;
+        commandLine[2] = "--template-dir";
+        commandLine[3] = TEST_TEMPLATES_DIRECTORY;
+        System.arraycopy(args, 0, commandLine, 4, args.length);
+        return DaemonClient.execute(STATE_FILE, commandLine, new ByteArrayInputStream(new byte[0]), stdout, System.err);
+    }
+
+    private void writeStateFile(String token) throws IOException {
+        final Properties properties = new Properties();
+        properties.setProperty(DaemonProtocol.PORT_KEY, Integer.toString(daemonServer.getPort()));
+        properties.setProperty(DaemonProtocol.TOKEN_KEY, token);
+        STATE_FILE.getParentFile().mkdirs();
+        try (OutputStream os = new FileOutputStream(STATE_FILE)) {
+            properties.store(os, null);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.cli.task;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class CompiledTemplateCacheTest {
+
+    private static final String ANY_TEMPLATE_NAME = "interactive";
+    private static final String ANY_TEMPLATE_CODE = "Hello ${name}";
+    private static final String OTHER_TEMPLATE_CODE = "Bye ${name}";
+
+    private final Configuration configuration = new Configuration(Configuration.VERSION_2_3_31);
+
+    @Test
+    public void shouldCompileTemplateOnlyOnce() {
+        final CompiledTemplateCache cache = new CompiledTemplateCache(10);
+
+        final Template template = cache.get(configuration, ANY_TEMPLATE_NAME, ANY_TEMPLATE_CODE);
+
+        assertSame(template, cache.get(configuration, ANY_TEMPLATE_NAME, ANY_TEMPLATE_CODE));
+        assertEquals(1, cache.size(configuration));
+    }
+
+    @Test
+    public void shouldCompileChangedTemplateCode() {
+        final CompiledTemplateCache cache = new CompiledTemplateCache(10);
+
+        final Template template = cache.get(configuration, ANY_TEMPLATE_NAME, ANY_TEMPLATE_CODE);
+
+        assertNotSame(template, cache.get(configuration, ANY_TEMPLATE_NAME, OTHER_TEMPLATE_CODE));
+        assertEquals(2, cache.size(configuration));
+    }
+
+    @Test
+    public void shouldCompileTemplatePerConfiguration() {
+        final CompiledTemplateCache cache = new CompiledTemplateCache(10);
+        final Configuration otherConfiguration = new Configuration(Configuration.VERSION_2_3_31);
+
+        final Template template = cache.get(configuration, ANY_TEMPLATE_NAME, ANY_TEMPLATE_CODE);
+        final Template otherTemplate = cache.get(otherConfiguration, ANY_TEMPLATE_NAME, ANY_TEMPLATE_CODE);
+
+        assertNotSame(template, otherTemplate);
+        assertSame(otherConfiguration, otherTemplate.getConfiguration());
+    }
+
+    @Test
+    public void shouldNotKeepConfigurationAlive() throws InterruptedException {
+        final CompiledTemplateCache cache = new CompiledTemplateCache(10);
+        Configuration otherConfiguration = new Configuration(Configuration.VERSION_2_3_31);
+        final WeakReference<Configuration> reference = new WeakReference<>(otherConfiguration);
+
+        cache.get(otherConfiguration, ANY_TEMPLATE_NAME, ANY_TEMPLATE_CODE);
+        otherConfiguration = null;
+
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+
+        assertNull(reference.get());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedTemplate() {
+        final CompiledTemplateCache cache = new CompiledTemplateCache(2);
+
+        final Template template = cache.get(configuration, "a", ANY_TEMPLATE_CODE);
+        final Template otherTemplate = cache.get(configuration, "b", ANY_TEMPLATE_CODE);
+        cache.get(configuration, "a", ANY_TEMPLATE_CODE);
+        cache.get(configuration, "c", ANY_TEMPLATE_CODE);
+
+        assertEquals(2, cache.size(configuration));
+        assertSame(template, cache.get(configuration, "a", ANY_TEMPLATE_CODE));
+        assertNotSame(otherTemplate, cache.get(configuration, "b", ANY_TEMPLATE_CODE));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.cli.task;
+
+import freemarker.template.Configuration;
+import org.apache.freemarker.generator.base.output.OutputGenerator;
+import org.apache.freemarker.generator.base.output.OutputGenerator.SeedType;
+import org.apache.freemarker.generator.base.template.TemplateOutput;
+import org.apache.freemarker.generator.base.template.TemplateSource;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FreeMarkerTaskTest {
+
+    private final Configuration configuration = new Configuration(Configuration.VERSION_2_3_31);
+    private final StringWriter writer = new StringWriter();
+
+    @Test
+    public void shouldWriteSharedOutputInOrder() {
+        final List<OutputGenerator> outputGenerators = Stream.of("a", "b", "c", "d", "e", "f")
+                .map(this::outputGenerator)
+                .collect(toList());
+
+        execute(outputGenerators, 4);
+
+        assertEquals("abcdef", writer.toString());
+    }
+
+    @Test
+    public void shouldStreamFirstSharedOutputOnCallingThread() {
+        execute(asList(outputGenerator("${thread.name}|"), outputGenerator("${thread.name}")), 2);
+
+        assertTrue(writer.toString().startsWith(Thread.currentThread().getName() + "|"));
+    }
+
+    private void execute(List<OutputGenerator> outputGenerators, int parallelism) {
+        final Map<String, Object> dataModel = new HashMap<>();
+        dataModel.put("thread", new CurrentThread());
+
+        final FreeMarkerTask task = new FreeMarkerTask(
+                () -> configuration,
+                () -> outputGenerators,
+                () -> dataModel,
+                Collections::emptyList,
+                HashMap::new,
+                parallelism);
+
+        assertEquals(0, task.call().intValue());
+    }
+
+    private OutputGenerator outputGenerator(String code) {
+        return new OutputGenerator(
+                TemplateSource.fromCode("interactive", code),
+                TemplateOutput.fromWriter(writer),
+                Collections.emptyList(),
+                new HashMap<>(),
+                SeedType.TEMPLATE);
+    }
+
+    public static final class CurrentThread {
+
+        public String getName() {
+            return Thread.currentThread().getName();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.freemarker.generator.maven;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Base class for generator files parsed into a map providing a <code>templateName</code>
+ * and an optional <code>dataModel</code>.
+ */
+abstract class AbstractPropertiesProvider implements OutputGeneratorPropertiesProvider {
+
+    protected static final String TEMPLATE_NAME = "templateName";
+    protected static final String DATA_MODEL = "dataModel";
+
+    protected final File dataDir;
+    protected final File templateDir;
+    protected final File outputDir;
+
+    /** Name of the file format used in error messages */
+    private final String format;
+
+    protected AbstractPropertiesProvider(File dataDir, File templateDir, File outputDir, String format) {
+        this.dataDir = dataDir;
+        this.templateDir = templateDir;
+        this.outputDir = outputDir;
+        this.format = format;
+    }
+
+    /**
+     * Parse the generator file.
+     *
+     * @param file generator file
+     * @return content of the generator file
+     */
+    protected abstract Map<String, Object> parse(File file);
+
+    protected Path templateLocation(Object templateName) {
+        if (templateName == null) {
+            throw new RuntimeException("Require " + format + " data property not found: " + TEMPLATE_NAME);
+        }
+        return templateDir.toPath().resolve(templateName.toString());
+    }
+
+    /**
+     * Get the path of a generator file relative to the data directory.
+     *
+     * @param dataFile generator file
+     * @return relative path
+     */
+    protected String relativePath(File dataFile) {
+        final String dataDirName = dataDir.getAbsolutePath();
+        final String dataFileName = dataFile.getAbsolutePath();
+        if (!dataFileName.startsWith(dataDirName)) {
+            throw new IllegalStateException("visitFile() given file not in sourceDirectory: " + dataFile);
+        }
+        return dataFileName.substring(dataDirName.length() + 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected static Map<String, Object> dataModel(Object dataModel) {
+        return dataModel != null ? (Map<String, Object>) dataModel : new HashMap<>();
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.freemarker.generator.maven;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import freemarker.cache.TemplateLoader;
+import freemarker.template.Configuration;
+import org.apache.commons.io.IOUtils;
+import org.apache.freemarker.generator.base.util.HashUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Persisted state of the previous build used to skip outputs whose inputs did not change.
+ * <p>
+ * For every output the state records a hash of its inputs (template name, output location
+ * and data model), the size and modification time of the generated file and the content
+ * hashes of all templates loaded while rendering it. A different plugin configuration
+ * invalidates all outputs. Template content is hashed only once per build.
+ */
+public class BuildState {
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private final File file;
+    private final String configurationHash;
+
+    /** Outputs of the previous build */
+    private final Map<String, Output> previousOutputs;
+
+    /** Outputs of the current build - outputs which are no longer generated are dropped */
+    private final Map<String, Output> currentOutputs = new ConcurrentHashMap<>();
+
+    /** Content hashes of the templates in the current build */
+    private final Map<String, String> templateHashes = new ConcurrentHashMap<>();
+
+    private BuildState(File file, String configurationHash, Map<String, Output> previousOutputs) {
+        this.file = file;
+        this.configurationHash = configurationHash;
+        this.previousOutputs = previousOutputs;
+    }
+
+    /**
+     * Load the state of the previous build.
+     *
+     * @param file              build state file
+     * @param configurationHash hash of the plugin configuration
+     * @return build state
+     */
+    public static BuildState load(File file, String configurationHash) {
+        requireNonNull(file);
+        requireNonNull(configurationHash);
+
+        if (file.isFile()) {
+            try (Reader reader = Files.newBufferedReader(file.toPath(), UTF_8)) {
+                final State state = GSON.fromJson(reader, State.class);
+                if (state != null && state.outputs != null && configurationHash.equals(state.configuration)) {
+                    return new BuildState(file, configurationHash, state.outputs);
+                }
+            } catch (Exception e) {
+                // a broken build state simply causes a full rebuild
+            }
+        }
+
+        return new BuildState(file, configurationHash, new HashMap<>());
+    }
+
+    /**
+     * Check whether an output was generated by the previous build from the same inputs and templates.
+     * Outputs being up-to-date are carried over into the state of the current build.
+     *
+     * @param outputLocation output file
+     * @param inputsHash     hash of the inputs
+     * @param config         configuration to load templates
+     * @return true if the output does not need to be generated
+     */
+    public boolean isUpToDate(Path outputLocation, String inputsHash, Configuration config) {
+        final String key = key(outputLocation);
+        final Output output = previousOutputs.get(key);
+        if (output == null || !inputsHash.equals(output.inputs) || output.templates == null) {
+            return false;
+        }
+
+        final File outputFile = outputLocation.toFile();
+        if (outputFile.lastModified() != output.lastModified || outputFile.length() != output.length) {
+            return false;
+        }
+
+        for (Map.Entry<String, String> entry : output.templates.entrySet()) {
+            if (!entry.getValue().equals(templateHash(config, entry.getKey()))) {
+                return false;
+            }
+        }
+
+        currentOutputs.put(key, output);
+        return true;
+    }
+
+    /**
+     * Record a generated output.
+     *
+     * @param outputLocation output file
+     * @param inputsHash     hash of the inputs
+     * @param templateNames  names of the templates loaded to generate the output
+     * @param config         configuration to load templates
+     */
+    public void update(Path outputLocation, String inputsHash, Set<String> templateNames, Configuration config) {
+        final File outputFile = outputLocation.toFile();
+        final Output output = new Output();
+        output.inputs = inputsHash;
+        output.lastModified = outputFile.lastModified();
+        output.length = outputFile.length();
+        output.templates = new TreeMap<>();
+        for (String templateName : templateNames) {
+            output.templates.put(templateName, templateHash(config, templateName));
+        }
+        currentOutputs.put(key(outputLocation), output);
+    }
+
+    /**
+     * Write the state of the current build.
+     */
+    public void save() {
+        final State state = new State();
+        state.configuration = configurationHash;
+        state.outputs = new TreeMap<>(currentOutputs);
+
+        try {
+            final Path path = file.toPath().toAbsolutePath();
+            Files.createDirectories(path.getParent());
+            final Path temp = Files.createTempFile(path.getParent(), file.getName(), ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, UTF_8)) {
+                GSON.toJson(state, writer);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write build state: " + file, e);
+        }
+    }
+
+    public int size() {
+        return currentOutputs.size();
+    }
+
+    /**
+     * Compute a hash of a data model consisting of maps, collections and scalar values.
+     * Other objects, e.g. the Maven session, only contribute their class name.
+     *
+     * @param values values to hash
+     * @return SHA-256 hash
+     */
+    public static String hash(Object... values) {
+        final StringBuilder sb = new StringBuilder();
+        fingerprint(Arrays.asList(values), sb);
+        return HashUtils.sha256(sb.toString());
+    }
+
+    private String templateHash(Configuration config, String templateName) {
+        return templateHashes.computeIfAbsent(templateName, name -> readTemplateHash(config, name));
+    }
+
+    private static String readTemplateHash(Configuration config, String templateName) {
+        TemplateLoader templateLoader = config.getTemplateLoader();
+        if (templateLoader instanceof TrackingTemplateLoader) {
+            templateLoader = ((TrackingTemplateLoader) templateLoader).getDelegate();
+        }
+
+        try {
+            final Object templateSource = templateLoader.findTemplateSource(templateName);
+            if (templateSource == null) {
+                return "";
+            }
+            try (Reader reader = templateLoader.getReader(templateSource, ISO_8859_1.name())) {
+                // ISO-8859-1 maps every byte to a char so we hash the raw content
+                return HashUtils.sha256(IOUtils.toString(reader).getBytes(ISO_8859_1));
+            } finally {
+                templateLoader.closeTemplateSource(templateSource);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read template: " + templateName, e);
+        }
+    }
+
+    private static void fingerprint(Object value, StringBuilder sb) {
+        if (value == null) {
+            sb.append('N');
+        } else if (value instanceof Map) {
+            final Map<String, Object> sorted = new TreeMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> sorted.put(String.valueOf(k), v));
+            sb.append('{');
+            sorted.forEach((k, v) -> {
+                fingerprint(k, sb);
+                fingerprint(v, sb);
+            });
+            sb.append('}');
+        } else if (value instanceof Collection) {
+            sb.append('[');
+            ((Collection<?>) value).forEach(v -> fingerprint(v, sb));
+            sb.append(']');
+        } else if (value instanceof Object[]) {
+            fingerprint(Arrays.asList((Object[]) value), sb);
+        } else if (value instanceof CharSequence || value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            final String text = value.toString();
+            sb.append(value.getClass().getSimpleName()).append(text.length()).append(':').append(text);
+        } else {
+            sb.append('<').append(value.getClass().getName()).append('>');
+        }
+    }
+
+    private static String key(Path outputLocation) {
+        return outputLocation.toAbsolutePath().normalize().toString();
+    }
+
+    private static final class State {
+        private String configuration;
+        private Map<String, Output> outputs;
+    }
+
+    private static final class Output {
+        private String inputs;
+        private long lastModified;
+        private long length;
+        private Map<String, String> templates;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.freemarker.generator.maven;
+
+import freemarker.template.Configuration;
+import org.apache.freemarker.generator.base.util.CachingSupplier;
+
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Shares FreeMarker configurations, and therefore their compiled templates, between the plugin
+ * executions of a Maven session, e.g. the modules of a reactor build. The plugin's class realm
+ * is shared within a session, so configurations are kept per session and are released together
+ * with the session. Concurrent executions (<code>-T</code>) wait for a single configuration
+ * being created.
+ */
+public class ConfigurationCache {
+
+    private static final ConfigurationCache INSTANCE = new ConfigurationCache();
+
+    /** Configurations by their cache key, weakly keyed by the session */
+    private final Map<Object, Map<List<Object>, CachingSupplier<Configuration>>> sessions = new WeakHashMap<>();
+
+    public static ConfigurationCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get a configuration created by the supplier within the same session.
+     *
+     * @param session  identifies the session, e.g. the <code>MavenExecutionRequest</code> shared by all projects
+     * @param supplier creates the configuration
+     * @return configuration
+     */
+    public Configuration get(Object session, ConfigurationSupplier supplier) {
+        requireNonNull(session);
+        requireNonNull(supplier);
+        return configurations(session).computeIfAbsent(supplier.getCacheKey(), key -> new CachingSupplier<>(supplier)).get();
+    }
+
+    public synchronized int size(Object session) {
+        final Map<List<Object>, CachingSupplier<Configuration>> configurations = sessions.get(session);
+        return configurations != null ? configurations.size() : 0;
+    }
+
+    private synchronized Map<List<Object>, CachingSupplier<Configuration>> configurations(Object session) {
+        return sessions.computeIfAbsent(session, s -> new ConcurrentHashMap<>());
+    }
+}
@@ -25,6 +25,8 @@ import org.apache.freemarker.generator.base.util.PropertiesFactory;
 import org.apache.freemarker.generator.base.util.Validate;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
 import java.util.function.Supplier;
 
@@ -51,22 +53,42 @@ public class ConfigurationSupplier implements Supplier<Configuration> {
         configuration.setDefaultEncoding("UTF-8");
 
         try {
-            configuration.setTemplateLoader(new FileTemplateLoader(templateDirectory));
+            configuration.setTemplateLoader(new TrackingTemplateLoader(new FileTemplateLoader(templateDirectory)));
         } catch (Throwable t) {
             throw new RuntimeException("Could not establish file template loader for directory: " + templateDirectory, t);
         }
 
-        final File freeMarkerProps = new File(sourceDirectory, "freemarker.properties");
-
-        if (freeMarkerProps.isFile()) {
-            final Properties configProperties = PropertiesFactory.create(freeMarkerProps);
+        final Properties configProperties = freeMarkerProperties();
+        if (!configProperties.isEmpty()) {
             try {
                 configuration.setSettings(configProperties);
             } catch (Throwable t) {
-                throw new RuntimeException("Invalid setting(s) in " + freeMarkerProps, t);
+                throw new RuntimeException("Invalid setting(s) in " + freeMarkerPropertiesFile(), t);
             }
         }
 
+        // check templates on every access so that all templates used by an output are tracked
+        configuration.setTemplateUpdateDelayMilliseconds(0);
+
         return configuration;
     }
+
+    /**
+     * Configurations created from the same FreeMarker version, template directory and
+     * <code>freemarker.properties</code> are interchangeable and have the same key.
+     *
+     * @return key of the configuration
+     */
+    public List<Object> getCacheKey() {
+        return Arrays.asList(freeMarkerVersion, templateDirectory.getAbsoluteFile(), freeMarkerProperties());
+    }
+
+    private Properties freeMarkerProperties() {
+        final File freeMarkerProps = freeMarkerPropertiesFile();
+        return freeMarkerProps.isFile() ? PropertiesFactory.create(freeMarkerProps) : new Properties();
+    }
+
+    private File freeMarkerPropertiesFile() {
+        return new File(sourceDirectory, "freemarker.properties");
+    }
 }
@@ -19,6 +19,7 @@
 package org.apache.freemarker.generator.maven;
 
 import freemarker.template.Configuration;
+import org.apache.freemarker.generator.base.util.PropertiesFactory;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecution;
@@ -31,8 +32,11 @@ import java.io.File;
 import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
-@Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_SOURCES)
+@Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_SOURCES, threadSafe = true)
 public class FreeMarkerMojo extends AbstractMojo {
 
     /** FreeMarker version string used to build FreeMarker Configuration instance. */
@@ -51,6 +55,17 @@ public class FreeMarkerMojo extends AbstractMojo {
     @Parameter(defaultValue = "target/generated-sources/freemarker/generator")
     private File outputDirectory;
 
+    /** State of the previous build to regenerate only outputs whose data model or templates changed. */
+    @Parameter(defaultValue = "${project.build.directory}/freemarker-generator/${mojoExecution.executionId}-build-state.json")
+    private File buildStateFile;
+
+    /**
+     * Number of threads processing generator files, zero shares the available processors
+     * between the modules being built in parallel (Maven's <code>-T</code> option).
+     */
+    @Parameter(property = "freemarker.generator.threads", defaultValue = "0")
+    private int threads;
+
     @Parameter(defaultValue = "${session}", readonly = true)
     private MavenSession session;
 
@@ -80,19 +95,79 @@ public class FreeMarkerMojo extends AbstractMojo {
             session.getCurrentProject().addTestCompileSourceRoot(outputDirectory.toString());
         }
 
-        final Map<String, OutputGeneratorPropertiesProvider> extensionToBuilders = new HashMap<>(1);
-        extensionToBuilders.put(".json", JsonPropertiesProvider.create(generatorDirectory, templateDirectory, outputDirectory));
+        final Map<String, OutputGeneratorPropertiesProvider> extensionToBuilders = extensionToBuilders();
 
-        final GeneratingFileVisitor fileVisitor = GeneratingFileVisitor.create(configuration, session, extensionToBuilders);
+        final BuildState buildState = buildStateFile != null ? BuildState.load(buildStateFile, configurationHash()) : null;
+        final int threadCount = threadCount();
+        final ExecutorService executorService = threadCount > 1 ? Executors.newFixedThreadPool(threadCount) : null;
+        final GeneratingFileVisitor fileVisitor = GeneratingFileVisitor.create(configuration, session, extensionToBuilders, buildState, executorService);
         try {
             Files.walkFileTree(generatorDirectory.toPath(), fileVisitor);
+            fileVisitor.awaitCompletion();
         } catch (Throwable t) {
             getLog().error("Failed to process files in generator dir: " + generatorDirectory, t);
             throw new MojoExecutionException("Failed to process files in generator dir: " + generatorDirectory);
+        } finally {
+            if (executorService != null) {
+                executorService.shutdownNow();
+            }
+            if (buildState != null) {
+                buildState.save();
+            }
         }
     }
 
+    private Map<String, OutputGeneratorPropertiesProvider> extensionToBuilders() {
+        final OutputGeneratorPropertiesProvider yamlPropertiesProvider = YamlPropertiesProvider.create(generatorDirectory, templateDirectory, outputDirectory);
+        final OutputGeneratorPropertiesProvider manifestPropertiesProvider = ManifestPropertiesProvider.create(generatorDirectory, templateDirectory, outputDirectory);
+
+        final Map<String, OutputGeneratorPropertiesProvider> result = new HashMap<>();
+        result.put(".json", JsonPropertiesProvider.create(generatorDirectory, templateDirectory, outputDirectory));
+        result.put(".yaml", yamlPropertiesProvider);
+        result.put(".yml", yamlPropertiesProvider);
+        result.put(".properties", JavaPropertiesProvider.create(generatorDirectory, templateDirectory, outputDirectory));
+        result.put(".manifest.json", manifestPropertiesProvider);
+        result.put(".manifest.yaml", manifestPropertiesProvider);
+        result.put(".manifest.yml", manifestPropertiesProvider);
+        return result;
+    }
+
+    private int threadCount() {
+        if (threads > 0) {
+            return threads;
+        }
+        final int degreeOfConcurrency = session.getRequest() != null ? Math.max(1, session.getRequest().getDegreeOfConcurrency()) : 1;
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / degreeOfConcurrency);
+    }
+
+    /**
+     * Outputs of the previous build are only re-used for the same plugin configuration,
+     * the same user properties and the same project properties (<code>pomProperties</code>).
+     * System properties are not considered since they change with every invocation of Maven,
+     * e.g. <code>sun.java.command</code> or the environment variables.
+     */
+    String configurationHash() {
+        final File freeMarkerProps = new File(sourceDirectory, "freemarker.properties");
+        final Properties freeMarkerProperties = freeMarkerProps.isFile() ? PropertiesFactory.create(freeMarkerProps) : new Properties();
+        return BuildState.hash(
+                freeMarkerVersion,
+                templateDirectory.getAbsolutePath(),
+                generatorDirectory.getAbsolutePath(),
+                outputDirectory.getAbsolutePath(),
+                freeMarkerProperties,
+                session.getUserProperties(),
+                session.getCurrentProject().getProperties());
+    }
+
+    /**
+     * Re-use the configuration of previous executions within the same Maven session. Project
+     * sessions of a parallel build are copies sharing the same execution request.
+     */
     private Configuration configuration() {
-        return new ConfigurationSupplier(freeMarkerVersion, templateDirectory, sourceDirectory).get();
+        final ConfigurationSupplier configurationSupplier = new ConfigurationSupplier(freeMarkerVersion, templateDirectory, sourceDirectory);
+        final Object sessionKey = session != null ? session.getRequest() : null;
+        return sessionKey != null
+                ? ConfigurationCache.getInstance().get(sessionKey, configurationSupplier)
+                : configurationSupplier.get();
     }
 }
@@ -25,11 +25,20 @@ import java.nio.file.FileVisitResult;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 /**
  * FileVisitor designed to process json data files. The json file parsed into
- * a map and given to FreeMarker to.
+ * a map and given to FreeMarker to. When an executor is provided the files are
+ * processed concurrently and <code>awaitCompletion()</code> must be called.
  */
 public class GeneratingFileVisitor extends SimpleFileVisitor<Path> {
 
@@ -38,10 +47,26 @@ public class GeneratingFileVisitor extends SimpleFileVisitor<Path> {
     private final long pomLastModifiedTimestamp;
     private final Map<String, OutputGeneratorPropertiesProvider> extensionToBuilder;
 
-    private GeneratingFileVisitor(Configuration config, MavenSession session, Map<String, OutputGeneratorPropertiesProvider> extensionToBuilder) {
+    /** Optional state of the previous build, otherwise timestamps are used to skip outputs */
+    private final BuildState buildState;
+
+    /** Optional executor to process generator files concurrently */
+    private final ExecutorService executorService;
+
+    /** Generator files being parsed by the executor ordered by their path */
+    private final Map<Path, Future<List<OutputGenerator>>> pending = new TreeMap<>();
+
+    private GeneratingFileVisitor(
+            Configuration config,
+            MavenSession session,
+            Map<String, OutputGeneratorPropertiesProvider> extensionToBuilder,
+            BuildState buildState,
+            ExecutorService executorService) {
         this.config = config;
         this.session = session;
         this.extensionToBuilder = extensionToBuilder;
+        this.buildState = buildState;
+        this.executorService = executorService;
         this.pomLastModifiedTimestamp = session.getAllProjects().stream()
                 .map(project -> project.getFile().lastModified())
                 .reduce(Long::max)
@@ -57,26 +82,138 @@ public class GeneratingFileVisitor extends SimpleFileVisitor<Path> {
      * @return GeneratingFileVisitor instance
      */
     public static GeneratingFileVisitor create(Configuration config, MavenSession session, Map<String, OutputGeneratorPropertiesProvider> extensionToBuilder) {
-        return new GeneratingFileVisitor(config, session, extensionToBuilder);
+        return new GeneratingFileVisitor(config, session, extensionToBuilder, null, null);
+    }
+
+    /**
+     * Factory method for incremental and concurrent builds.
+     *
+     * @param config             FreeMarker configuration
+     * @param session            Maven session
+     * @param extensionToBuilder builder extension
+     * @param buildState         optional state of the previous build
+     * @param executorService    optional executor to process generator files concurrently
+     * @return GeneratingFileVisitor instance
+     */
+    public static GeneratingFileVisitor create(
+            Configuration config,
+            MavenSession session,
+            Map<String, OutputGeneratorPropertiesProvider> extensionToBuilder,
+            BuildState buildState,
+            ExecutorService executorService) {
+        return new GeneratingFileVisitor(config, session, extensionToBuilder, buildState, executorService);
     }
 
     @Override
     public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) {
         if (attrs.isRegularFile()) {
-            final OutputGenerator.OutputGeneratorBuilder builder = OutputGenerator.builder()
-                    .addGeneratorLocation(path)
-                    .addPomLastModifiedTimestamp(pomLastModifiedTimestamp);
-            final String fileName = path.getFileName().toString();
-            final String extension = fileName.substring(fileName.lastIndexOf('.'));
-            final OutputGeneratorPropertiesProvider pathProcessor = extensionToBuilder.get(extension);
-            if (pathProcessor == null) {
-                throw new RuntimeException("Unknown file extension: " + path);
+            if (executorService != null) {
+                pending.put(path, executorService.submit(() -> outputGenerators(path)));
+            } else {
+                outputGenerators(path).forEach(this::generate);
+            }
+        }
+        return FileVisitResult.CONTINUE;
+    }
+
+    /**
+     * Wait until all generator files submitted to the executor are processed. The outputs
+     * of a generator file are rendered concurrently once it was parsed. Failures are reported
+     * in the order of the generator file paths and their outputs - the first failure is
+     * thrown while the remaining failures are added as suppressed exceptions.
+     */
+    public void awaitCompletion() {
+        final List<Map.Entry<Path, Future<?>>> results = new ArrayList<>();
+        for (Map.Entry<Path, Future<List<OutputGenerator>>> entry : pending.entrySet()) {
+            final Path path = entry.getKey();
+            if (await(path, entry.getValue()) != null) {
+                results.add(new SimpleImmutableEntry<>(path, entry.getValue()));
+            } else {
+                for (OutputGenerator outputGenerator : getNow(entry.getValue())) {
+                    results.add(new SimpleImmutableEntry<>(path, executorService.submit(() -> generate(outputGenerator))));
+                }
+            }
+        }
+        pending.clear();
+
+        RuntimeException failure = null;
+        for (Map.Entry<Path, Future<?>> result : results) {
+            final RuntimeException cause = await(result.getKey(), result.getValue());
+            if (cause == null) {
+                continue;
+            }
+            if (failure == null) {
+                failure = cause;
+            } else {
+                failure.addSuppressed(cause);
             }
-            pathProcessor.providePropertiesFromFile(path, builder);
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private List<OutputGenerator> outputGenerators(Path path) {
+        final String fileName = path.getFileName().toString();
+        final OutputGeneratorPropertiesProvider pathProcessor = propertiesProvider(fileName);
+        if (pathProcessor == null) {
+            throw new RuntimeException("Unknown file extension: " + path);
+        }
+
+        final List<OutputGenerator> result = new ArrayList<>();
+        final Supplier<OutputGenerator.OutputGeneratorBuilder> builderFactory = () -> OutputGenerator.builder()
+                .addGeneratorLocation(path)
+                .addPomLastModifiedTimestamp(pomLastModifiedTimestamp);
+        for (OutputGenerator.OutputGeneratorBuilder builder : pathProcessor.provideOutputsFromFile(path, builderFactory)) {
             builder.addToDataModel("session", session);
             builder.addToDataModel("pomProperties", session.getCurrentProject().getProperties());
-            builder.create().generate(config);
+            result.add(builder.create());
+        }
+        return result;
+    }
+
+    /**
+     * Find the provider registered for the longest matching file extension, e.g.
+     * <code>.manifest.json</code> takes precedence over <code>.json</code>.
+     */
+    private OutputGeneratorPropertiesProvider propertiesProvider(String fileName) {
+        String extension = null;
+        for (String candidate : extensionToBuilder.keySet()) {
+            if (fileName.endsWith(candidate) && (extension == null || candidate.length() > extension.length())) {
+                extension = candidate;
+            }
+        }
+        return extension != null ? extensionToBuilder.get(extension) : null;
+    }
+
+    private void generate(OutputGenerator outputGenerator) {
+        if (buildState != null) {
+            outputGenerator.generate(config, buildState);
+        } else {
+            outputGenerator.generate(config);
+        }
+    }
+
+    private static RuntimeException await(Path path, Future<?> future) {
+        try {
+            future.get();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while processing generator file: " + path, e);
+        } catch (ExecutionException e) {
+            return e.getCause() instanceof RuntimeException
+                    ? (RuntimeException) e.getCause()
+                    : new RuntimeException("Failed to process generator file: " + path, e.getCause());
+        }
+    }
+
+    private static <T> T getNow(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException("Future is not completed successfully", e);
         }
-        return FileVisitResult.CONTINUE;
     }
 }
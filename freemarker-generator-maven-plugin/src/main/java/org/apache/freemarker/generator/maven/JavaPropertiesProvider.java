@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.freemarker.generator.maven;
+
+import org.apache.freemarker.generator.base.util.PropertiesFactory;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Provides the properties from a Java properties generator file - the <code>templateName</code>
+ * property selects the template while all other properties become the data model.
+ */
+public class JavaPropertiesProvider extends SingleOutputPropertiesProvider {
+
+    private JavaPropertiesProvider(File dataDir, File templateDir, File outputDir) {
+        super(dataDir, templateDir, outputDir, "properties");
+    }
+
+    public static JavaPropertiesProvider create(File dataDir, File templateDir, File outputDir) {
+        return new JavaPropertiesProvider(dataDir, templateDir, outputDir);
+    }
+
+    @Override
+    protected Map<String, Object> parse(File propertiesDataFile) {
+        final Properties properties = PropertiesFactory.create(propertiesDataFile);
+        final Map<String, Object> dataModel = new HashMap<>();
+        properties.stringPropertyNames().forEach(name -> dataModel.put(name, properties.getProperty(name)));
+
+        final Map<String, Object> result = new HashMap<>();
+        result.put(TEMPLATE_NAME, dataModel.remove(TEMPLATE_NAME));
+        result.put(DATA_MODEL, dataModel);
+        return result;
+    }
+}
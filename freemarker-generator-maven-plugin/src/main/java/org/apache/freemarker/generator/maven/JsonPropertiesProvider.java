@@ -27,23 +27,16 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStreamReader;
 import java.lang.reflect.Type;
-import java.nio.file.Path;
-import java.util.HashMap;
 import java.util.Map;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
-public class JsonPropertiesProvider implements OutputGeneratorPropertiesProvider {
+public class JsonPropertiesProvider extends SingleOutputPropertiesProvider {
     private final Gson gson;
     private final Type stringObjectMap;
-    private final File dataDir;
-    private final File templateDir;
-    private final File outputDir;
 
     private JsonPropertiesProvider(File dataDir, File templateDir, File outputDir) {
-        this.dataDir = dataDir;
-        this.templateDir = templateDir;
-        this.outputDir = outputDir;
+        super(dataDir, templateDir, outputDir, "json");
         this.gson = new GsonBuilder().setLenient().create();
         this.stringObjectMap = new TypeToken<Map<String, Object>>() {}.getType();
     }
@@ -53,38 +46,7 @@ public class JsonPropertiesProvider implements OutputGeneratorPropertiesProvider
     }
 
     @Override
-    @SuppressWarnings("unchecked")
-    public void providePropertiesFromFile(Path path, OutputGenerator.OutputGeneratorBuilder builder) {
-        final File jsonDataFile = path.toFile();
-        final Map<String, Object> data = parseJson(jsonDataFile);
-
-        Object obj = data.get("dataModel");
-        if (obj != null) {
-            builder.addDataModel((Map<String, Object>) obj);
-        } else {
-            builder.addDataModel(new HashMap<>());
-        }
-
-        obj = data.get("templateName");
-        if (obj == null) {
-            throw new RuntimeException("Require json data property not found: templateName");
-        }
-        builder.addTemplateLocation(templateDir.toPath().resolve(obj.toString()));
-
-        final String dataDirName = dataDir.getAbsolutePath();
-        final String jsonFileName = jsonDataFile.getAbsolutePath();
-        if (!jsonFileName.startsWith(dataDirName)) {
-            throw new IllegalStateException("visitFile() given file not in sourceDirectory: " + jsonDataFile);
-        }
-
-        String outputFileName = jsonFileName.substring(dataDirName.length() + 1);
-        outputFileName = outputFileName.substring(0, outputFileName.length() - 5);
-        final Path outputPath = outputDir.toPath();
-        final Path resolved = outputPath.resolve(outputFileName);
-        builder.addOutputLocation(resolved);
-    }
-
-    private Map<String, Object> parseJson(File jsonDataFile) {
+    protected Map<String, Object> parse(File jsonDataFile) {
         try (JsonReader reader = new JsonReader(new InputStreamReader(new FileInputStream(jsonDataFile), UTF_8))) {
             return gson.fromJson(reader, stringObjectMap);
         } catch (Throwable t) {
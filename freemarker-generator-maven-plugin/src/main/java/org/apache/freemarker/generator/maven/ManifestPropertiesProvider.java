@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.freemarker.generator.maven;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Provides the properties of multiple outputs declared by a single JSON or YAML manifest, e.g.
+ * <pre>
+ * {
+ *   "templateName": "dto.ftl",
+ *   "dataModel": { "package": "com.example" },
+ *   "outputs": [
+ *     { "outputName": "Customer.java", "dataModel": { "name": "Customer" } },
+ *     { "outputName": "Order.java", "dataModel": { "name": "Order" } }
+ *   ]
+ * }
+ * </pre>
+ * Every output uses the template of the manifest unless it defines its own <code>templateName</code>.
+ * The data model of an output is merged with the shared data model of the manifest. Output names are
+ * resolved relative to the manifest's directory and must not point outside of the output directory.
+ */
+public class ManifestPropertiesProvider extends AbstractPropertiesProvider {
+
+    private static final String OUTPUTS = "outputs";
+    private static final String OUTPUT_NAME = "outputName";
+
+    private final JsonPropertiesProvider jsonPropertiesProvider;
+    private final YamlPropertiesProvider yamlPropertiesProvider;
+
+    private ManifestPropertiesProvider(File dataDir, File templateDir, File outputDir) {
+        super(dataDir, templateDir, outputDir, "manifest");
+        this.jsonPropertiesProvider = JsonPropertiesProvider.create(dataDir, templateDir, outputDir);
+        this.yamlPropertiesProvider = YamlPropertiesProvider.create(dataDir, templateDir, outputDir);
+    }
+
+    public static ManifestPropertiesProvider create(File dataDir, File templateDir, File outputDir) {
+        return new ManifestPropertiesProvider(dataDir, templateDir, outputDir);
+    }
+
+    @Override
+    public List<OutputGenerator.OutputGeneratorBuilder> provideOutputsFromFile(Path path, Supplier<OutputGenerator.OutputGeneratorBuilder> builderFactory) {
+        final File manifestFile = path.toFile();
+        final Map<String, Object> manifest = parse(manifestFile);
+        final Object defaultTemplateName = manifest.get(TEMPLATE_NAME);
+        final Map<String, Object> sharedDataModel = dataModel(manifest.get(DATA_MODEL));
+        final Path outputPath = outputPath(manifestFile);
+
+        final List<OutputGenerator.OutputGeneratorBuilder> result = new ArrayList<>();
+        for (Map<String, Object> output : outputs(manifest.get(OUTPUTS))) {
+            final Object outputName = output.get(OUTPUT_NAME);
+            if (outputName == null) {
+                throw new RuntimeException("Require manifest data property not found: " + OUTPUT_NAME);
+            }
+
+            final Object templateName = output.containsKey(TEMPLATE_NAME) ? output.get(TEMPLATE_NAME) : defaultTemplateName;
+            final Map<String, Object> dataModel = new HashMap<>(sharedDataModel);
+            dataModel.putAll(dataModel(output.get(DATA_MODEL)));
+
+            final OutputGenerator.OutputGeneratorBuilder builder = builderFactory.get();
+            builder.addDataModel(dataModel);
+            builder.addTemplateLocation(templateLocation(templateName));
+            builder.addOutputLocation(outputLocation(outputPath, outputName.toString()));
+            result.add(builder);
+        }
+        return result;
+    }
+
+    @Override
+    protected Map<String, Object> parse(File manifestFile) {
+        return manifestFile.getName().endsWith(".json")
+                ? jsonPropertiesProvider.parse(manifestFile)
+                : yamlPropertiesProvider.parse(manifestFile);
+    }
+
+    private Path outputPath(File manifestFile) {
+        final Path parent = new File(relativePath(manifestFile)).toPath().getParent();
+        return parent != null ? outputDir.toPath().resolve(parent) : outputDir.toPath();
+    }
+
+    /**
+     * Resolve the output name while making sure that the output stays within the output directory.
+     */
+    private Path outputLocation(Path outputPath, String outputName) {
+        final Path result = outputPath.resolve(outputName).normalize();
+        if (!result.toAbsolutePath().startsWith(outputDir.toPath().toAbsolutePath().normalize())) {
+            throw new RuntimeException("Manifest output is not within the output directory: " + outputName);
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> outputs(Object outputs) {
+        if (!(outputs instanceof List)) {
+            throw new RuntimeException("Require manifest data property not found: " + OUTPUTS);
+        }
+        return (List<Map<String, Object>>) outputs;
+    }
+}
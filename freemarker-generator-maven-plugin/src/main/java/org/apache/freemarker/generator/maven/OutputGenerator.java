@@ -21,11 +21,21 @@ package org.apache.freemarker.generator.maven;
 import freemarker.template.Configuration;
 import freemarker.template.Template;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Knows how to generate an output file given five things:
@@ -38,6 +48,8 @@ import java.util.Map;
  * </ul>
  * <p>Given these five pieces of information, the generator will generate a new output file, but only if any existing
  * generated file is not newer than the inputs (pom, generator, and template).</p>
+ * <p>An existing output file is only replaced if the generated content differs. Without a build
+ * state the timestamp of an unchanged output file is updated instead.</p>
  */
 class OutputGenerator {
     public final long pomModifiedTimestamp;
@@ -151,16 +163,66 @@ class OutputGenerator {
                 return;
             }
         } else {
-            final File parentDir = outputFile.getParentFile();
-            if (parentDir.isFile()) {
-                throw new RuntimeException("Parent directory of output file is a file: " + parentDir.getAbsoluteFile());
-            }
-            parentDir.mkdirs();
-            if (!parentDir.isDirectory()) {
-                throw new RuntimeException("Could not create directory: " + parentDir.getAbsoluteFile());
+            createParentDirectory(outputFile);
+        }
+
+        if (!render(config, outputFile)) {
+            // the timestamp marks the output as up-to-date for the next build
+            touch(outputFile);
+        }
+    }
+
+    /**
+     * <p>Generates an output by applying the model to the template.</p>
+     * <p>Uses the state of the previous build to early exit if neither the POM files, the data model
+     * nor any of the templates loaded by the previous generation changed.</p>
+     *
+     * @param config     Used to load the template from the template name.
+     * @param buildState State of the previous build, updated with the generated output.
+     * @return true if the output was generated, false if it was up-to-date.
+     */
+    public boolean generate(Configuration config, BuildState buildState) {
+        final File outputFile = new File(outputLocation.toFile().getAbsolutePath());
+        final String inputsHash = BuildState.hash(templateLocation.toString(), outputLocation.toString(), pomModifiedTimestamp, dataModel);
+        if (buildState.isUpToDate(outputLocation, inputsHash, config)) {
+            return false;
+        }
+
+        if (!outputFile.exists()) {
+            createParentDirectory(outputFile);
+        }
+
+        final TrackingTemplateLoader trackingTemplateLoader = config.getTemplateLoader() instanceof TrackingTemplateLoader
+                ? (TrackingTemplateLoader) config.getTemplateLoader()
+                : null;
+        final Set<String> templateNames;
+        if (trackingTemplateLoader != null) {
+            trackingTemplateLoader.startTracking();
+            try {
+                render(config, outputFile);
+            } finally {
+                templateNames = trackingTemplateLoader.stopTracking();
             }
+        } else {
+            render(config, outputFile);
+            templateNames = new LinkedHashSet<>();
+        }
+
+        if (templateNames.isEmpty()) {
+            templateNames.add(templateLocation.toFile().getName());
         }
 
+        buildState.update(outputLocation, inputsHash, templateNames, config);
+        return true;
+    }
+
+    /**
+     * Process the template and write its content to the output file.
+     *
+     * @return true if the output file was written, false if it already had the generated content
+     */
+    private boolean render(Configuration config, File outputFile) {
+        final File templateFile = templateLocation.toFile();
         final Template template;
         try {
             template = config.getTemplate(templateFile.getName());
@@ -168,10 +230,67 @@ class OutputGenerator {
             throw new RuntimeException("Could not read template: " + templateFile.getName(), t);
         }
 
-        try (FileWriter writer = new FileWriter(outputFile)) {
+        final ByteArrayOutputStream content = new ByteArrayOutputStream(8192);
+        try (Writer writer = new OutputStreamWriter(content, outputEncoding(config))) {
             template.process(dataModel, writer);
         } catch (Throwable t) {
             throw new RuntimeException("Could not process template associated with data file: " + generatorLocation, t);
         }
+
+        return writeIfChanged(outputFile, content.toByteArray());
+    }
+
+    /**
+     * Replace the output file unless it already has the same content so that unchanged
+     * outputs keep their timestamp and downstream incremental builds are not triggered.
+     * The content is written to a temporary file which is moved into place.
+     */
+    private static boolean writeIfChanged(File outputFile, byte[] content) {
+        try {
+            final Path outputPath = outputFile.toPath();
+            if (outputFile.isFile() && outputFile.length() == content.length && Arrays.equals(Files.readAllBytes(outputPath), content)) {
+                return false;
+            }
+
+            final Path temp = Files.createTempFile(outputPath.getParent(), outputFile.getName(), ".tmp");
+            try {
+                Files.write(temp, content);
+                try {
+                    Files.move(temp, outputPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, outputPath, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write output file: " + outputFile, e);
+        }
+    }
+
+    private static void touch(File outputFile) {
+        if (!outputFile.setLastModified(System.currentTimeMillis())) {
+            throw new RuntimeException("Could not update timestamp of output file: " + outputFile);
+        }
+    }
+
+    /**
+     * The output encoding of the FreeMarker configuration, otherwise its default encoding.
+     */
+    private static Charset outputEncoding(Configuration config) {
+        final String outputEncoding = config.getOutputEncoding();
+        return Charset.forName(outputEncoding != null ? outputEncoding : config.getDefaultEncoding());
+    }
+
+    private static void createParentDirectory(File outputFile) {
+        final File parentDir = outputFile.getParentFile();
+        if (parentDir.isFile()) {
+            throw new RuntimeException("Parent directory of output file is a file: " + parentDir.getAbsoluteFile());
+        }
+        parentDir.mkdirs();
+        if (!parentDir.isDirectory()) {
+            throw new RuntimeException("Could not create directory: " + parentDir.getAbsoluteFile());
+        }
     }
 }
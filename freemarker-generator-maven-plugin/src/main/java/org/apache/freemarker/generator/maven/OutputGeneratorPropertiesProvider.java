@@ -19,14 +19,18 @@
 package org.apache.freemarker.generator.maven;
 
 import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
 
 public interface OutputGeneratorPropertiesProvider {
     /**
-     * Must add three properties to the builder: the <b>templateLocation</b>, <b>outputLocation</b>, and <b>dataModel</b>
-     * The <b>pom updated timestamp</b> and <b>generatorLocation</b> are added elsewhere.
+     * Provide the properties of all outputs declared by a generator file. Most generator files
+     * declare a single output while a manifest declares multiple outputs. Every builder must get
+     * three properties: the <b>templateLocation</b>, <b>outputLocation</b>, and <b>dataModel</b>.
      *
-     * @param path    The path to the generator file, to be used to decide on the three properties above.
-     * @param builder The builder to which to add the properties.
+     * @param path           The path to the generator file.
+     * @param builderFactory Creates a builder already having the <b>pom updated timestamp</b> and <b>generatorLocation</b>.
+     * @return The builders to which the properties were added, one per output.
      */
-    void providePropertiesFromFile(Path path, OutputGenerator.OutputGeneratorBuilder builder);
+    List<OutputGenerator.OutputGeneratorBuilder> provideOutputsFromFile(Path path, Supplier<OutputGenerator.OutputGeneratorBuilder> builderFactory);
 }
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.freemarker.generator.maven;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Base class for generator files declaring a single output. The output file is named
+ * after the generator file without its file extension.
+ */
+abstract class SingleOutputPropertiesProvider extends AbstractPropertiesProvider {
+
+    protected SingleOutputPropertiesProvider(File dataDir, File templateDir, File outputDir, String format) {
+        super(dataDir, templateDir, outputDir, format);
+    }
+
+    /**
+     * Must add three properties to the builder: the <b>templateLocation</b>, <b>outputLocation</b>, and <b>dataModel</b>
+     * The <b>pom updated timestamp</b> and <b>generatorLocation</b> are added elsewhere.
+     *
+     * @param path    The path to the generator file, to be used to decide on the three properties above.
+     * @param builder The builder to which to add the properties.
+     */
+    public void providePropertiesFromFile(Path path, OutputGenerator.OutputGeneratorBuilder builder) {
+        final File dataFile = path.toFile();
+        final Map<String, Object> data = parse(dataFile);
+
+        builder.addDataModel(dataModel(data.get(DATA_MODEL)));
+        builder.addTemplateLocation(templateLocation(data.get(TEMPLATE_NAME)));
+
+        final String outputFileName = relativePath(dataFile);
+        builder.addOutputLocation(outputDir.toPath().resolve(outputFileName.substring(0, outputFileName.lastIndexOf('.'))));
+    }
+
+    @Override
+    public List<OutputGenerator.OutputGeneratorBuilder> provideOutputsFromFile(Path path, Supplier<OutputGenerator.OutputGeneratorBuilder> builderFactory) {
+        final OutputGenerator.OutputGeneratorBuilder builder = builderFactory.get();
+        providePropertiesFromFile(path, builder);
+        return singletonList(builder);
+    }
+}
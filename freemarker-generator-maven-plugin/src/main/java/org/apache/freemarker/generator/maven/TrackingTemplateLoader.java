@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.freemarker.generator.maven;
+
+import freemarker.cache.TemplateLoader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Template loader recording the names of all templates found while a thread
+ * is tracking, e.g. the main template and its <code>#include</code>d or
+ * <code>#import</code>ed templates. FreeMarker only consults the template
+ * loader for cached templates when they are checked for changes, therefore
+ * the template update delay must be zero to track cached templates.
+ */
+public class TrackingTemplateLoader implements TemplateLoader {
+
+    private final TemplateLoader delegate;
+    private final ThreadLocal<Set<String>> templateNames = new ThreadLocal<>();
+
+    public TrackingTemplateLoader(TemplateLoader delegate) {
+        this.delegate = requireNonNull(delegate);
+    }
+
+    public TemplateLoader getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Start recording the templates found by the current thread.
+     */
+    public void startTracking() {
+        templateNames.set(new LinkedHashSet<>());
+    }
+
+    /**
+     * Stop recording the templates found by the current thread.
+     *
+     * @return names of the templates found since tracking was started
+     */
+    public Set<String> stopTracking() {
+        final Set<String> result = templateNames.get();
+        templateNames.remove();
+        return result != null ? result : new LinkedHashSet<>();
+    }
+
+    @Override
+    public Object findTemplateSource(String name) throws IOException {
+        final Object templateSource = delegate.findTemplateSource(name);
+        final Set<String> names = templateNames.get();
+        if (templateSource != null && names != null) {
+            names.add(name);
+        }
+        return templateSource;
+    }
+
+    @Override
+    public long getLastModified(Object templateSource) {
+        return delegate.getLastModified(templateSource);
+    }
+
+    @Override
+    public Reader getReader(Object templateSource, String encoding) throws IOException {
+        return delegate.getReader(templateSource, encoding);
+    }
+
+    @Override
+    public void closeTemplateSource(Object templateSource) throws IOException {
+        delegate.closeTemplateSource(templateSource);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.freemarker.generator.maven;
+
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Provides the properties from a YAML generator file having the same structure
+ * as a JSON generator file.
+ */
+public class YamlPropertiesProvider extends SingleOutputPropertiesProvider {
+
+    /** Yaml instances are not thread-safe */
+    private final ThreadLocal<Yaml> yaml = ThreadLocal.withInitial(() -> new Yaml(new SafeConstructor(new LoaderOptions())));
+
+    private YamlPropertiesProvider(File dataDir, File templateDir, File outputDir) {
+        super(dataDir, templateDir, outputDir, "yaml");
+    }
+
+    public static YamlPropertiesProvider create(File dataDir, File templateDir, File outputDir) {
+        return new YamlPropertiesProvider(dataDir, templateDir, outputDir);
+    }
+
+    @Override
+    protected Map<String, Object> parse(File yamlDataFile) {
+        return parseYaml(yaml.get(), yamlDataFile);
+    }
+
+    static Map<String, Object> parseYaml(Yaml yaml, File yamlDataFile) {
+        try (Reader reader = new InputStreamReader(Files.newInputStream(yamlDataFile.toPath()), UTF_8)) {
+            final Map<String, Object> data = yaml.load(reader);
+            if (data == null) {
+                throw new IllegalArgumentException("Empty yaml data file");
+            }
+            return data;
+        } catch (Throwable t) {
+            throw new RuntimeException("Could not parse yaml data file: " + yamlDataFile, t);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.freemarker.generator.maven;
+
+import freemarker.template.Configuration;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BuildStateTest {
+
+    private static final String FREEMARKER_VERSION = "2.3.30";
+    private static final File TEST_DIR = new File("target/test-output/build-state");
+    private static final File TEMPLATE_DIR = new File(TEST_DIR, "template");
+    private static final File GENERATOR_FILE = new File(TEST_DIR, "generator/test.txt.json");
+    private static final File OUTPUT_FILE = new File(TEST_DIR, "output/test.txt");
+    private static final File BUILD_STATE_FILE = new File(TEST_DIR, "build-state.json");
+
+    private final Map<String, Object> dataModel = new HashMap<>();
+    private long pomLastModified;
+
+    @Before
+    public void setUp() throws IOException {
+        UnitTestHelper.deleteTestOutputDir(TEST_DIR);
+        FileUtils.write(new File(TEMPLATE_DIR, "main.ftl"), "Hello <#include \"name.ftl\">", UTF_8);
+        FileUtils.write(new File(TEMPLATE_DIR, "name.ftl"), "${name}", UTF_8);
+        dataModel.put("name", "World");
+    }
+
+    @Test
+    public void shouldSkipUnchangedOutput() throws IOException {
+        assertTrue(generate());
+
+        assertFalse(generate());
+        assertEquals("Hello World", FileUtils.readFileToString(OUTPUT_FILE, UTF_8));
+    }
+
+    @Test
+    public void shouldRegenerateOutputWhenIncludedTemplateChanged() throws IOException {
+        assertTrue(generate());
+
+        FileUtils.write(new File(TEMPLATE_DIR, "name.ftl"), "${name}!", UTF_8);
+
+        assertTrue(generate());
+        assertFalse(generate());
+        assertEquals("Hello World!", FileUtils.readFileToString(OUTPUT_FILE, UTF_8));
+    }
+
+    @Test
+    public void shouldKeepTimestampOfUnchangedOutput() throws IOException {
+        assertTrue(generate());
+        OUTPUT_FILE.setLastModified(OUTPUT_FILE.lastModified() - 1000); // File system may only keep 1 second precision.
+        final long lastModified = OUTPUT_FILE.lastModified();
+
+        FileUtils.write(new File(TEMPLATE_DIR, "name.ftl"), "<#-- comment -->${name}", UTF_8);
+
+        assertTrue(generate());
+        assertEquals(lastModified, OUTPUT_FILE.lastModified());
+    }
+
+    @Test
+    public void shouldRegenerateOutputWhenDataModelChanged() throws IOException {
+        assertTrue(generate());
+
+        dataModel.put("name", "FreeMarker");
+
+        assertTrue(generate());
+        assertEquals("Hello FreeMarker", FileUtils.readFileToString(OUTPUT_FILE, UTF_8));
+    }
+
+    @Test
+    public void shouldRegenerateOutputWhenPomChanged() {
+        assertTrue(generate());
+
+        pomLastModified = System.currentTimeMillis();
+
+        assertTrue(generate());
+        assertFalse(generate());
+    }
+
+    @Test
+    public void shouldRegenerateDeletedOutput() {
+        assertTrue(generate());
+
+        OUTPUT_FILE.delete();
+
+        assertTrue(generate());
+        assertTrue(OUTPUT_FILE.isFile());
+    }
+
+    @Test
+    public void shouldRegenerateOutputWhenConfigurationChanged() {
+        assertTrue(generate());
+
+        final BuildState buildState = BuildState.load(BUILD_STATE_FILE, "other");
+
+        assertTrue(generator().generate(configuration(), buildState));
+    }
+
+    private boolean generate() {
+        final BuildState buildState = BuildState.load(BUILD_STATE_FILE, "configuration");
+        final boolean generated = generator().generate(configuration(), buildState);
+        buildState.save();
+        return generated;
+    }
+
+    private OutputGenerator generator() {
+        return OutputGenerator.builder()
+                .addPomLastModifiedTimestamp(pomLastModified)
+                .addGeneratorLocation(GENERATOR_FILE.toPath())
+                .addTemplateLocation(new File(TEMPLATE_DIR, "main.ftl").toPath())
+                .addOutputLocation(OUTPUT_FILE.toPath())
+                .addDataModel(new HashMap<>(dataModel))
+                .create();
+    }
+
+    private static Configuration configuration() {
+        return new ConfigurationSupplier(FREEMARKER_VERSION, TEMPLATE_DIR, TEST_DIR).get();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.freemarker.generator.maven;
+
+import freemarker.template.Configuration;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class ConfigurationCacheTest {
+
+    private static final String FREEMARKER_VERSION = "2.3.30";
+    private static final File SOURCE_DIR = new File("src/test/data/freemarker-mojo/data");
+    private static final File SOURCE_DIR_WITH_FREEMARKER_PROPS = new File("src/test/data/freemarker-mojo");
+    private static final File TEMPLATE_DIR = new File("src/test/data/freemarker-mojo/template");
+
+    private final ConfigurationCache cache = new ConfigurationCache();
+    private final Object session = new Object();
+
+    @Test
+    public void shouldReuseConfigurationWithinSession() {
+        final Configuration configuration = cache.get(session, supplier(SOURCE_DIR));
+
+        assertSame(configuration, cache.get(session, supplier(SOURCE_DIR)));
+        assertEquals(1, cache.size(session));
+    }
+
+    @Test
+    public void shouldCreateConfigurationPerFreeMarkerProperties() {
+        final Configuration configuration = cache.get(session, supplier(SOURCE_DIR));
+
+        assertNotSame(configuration, cache.get(session, supplier(SOURCE_DIR_WITH_FREEMARKER_PROPS)));
+        assertEquals(2, cache.size(session));
+    }
+
+    @Test
+    public void shouldCreateConfigurationPerSession() {
+        final Configuration configuration = cache.get(session, supplier(SOURCE_DIR));
+
+        assertNotSame(configuration, cache.get(new Object(), supplier(SOURCE_DIR)));
+    }
+
+    private static ConfigurationSupplier supplier(File sourceDirectory) {
+        return new ConfigurationSupplier(FREEMARKER_VERSION, TEMPLATE_DIR, sourceDirectory);
+    }
+}
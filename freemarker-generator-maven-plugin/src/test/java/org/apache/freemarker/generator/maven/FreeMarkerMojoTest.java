@@ -33,9 +33,11 @@ import org.junit.Test;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -178,6 +180,54 @@ public class FreeMarkerMojoTest extends Assert {
         mojo.execute();
     }
 
+    @Test
+    public void execute_ignoreUnrelatedSystemPropertiesTest() throws Exception {
+
+        final File mockFile = mock(File.class);
+        final MavenSession session = mock(MavenSession.class);
+        final MavenProject project = mock(MavenProject.class);
+        final MojoExecution mojoExecution = mock(MojoExecution.class);
+        final Properties userProperties = new Properties();
+        final Properties systemProperties = new Properties();
+
+        when(session.getAllProjects()).thenReturn(Collections.singletonList(project));
+        when(session.getCurrentProject()).thenReturn(project);
+        when(session.getUserProperties()).thenReturn(userProperties);
+        when(session.getSystemProperties()).thenReturn(systemProperties);
+        when(project.getProperties()).thenReturn(new Properties());
+        when(project.getFile()).thenReturn(mockFile);
+        when(mockFile.lastModified()).thenReturn(10L);
+
+        final FreeMarkerMojo mojo = new FreeMarkerMojo();
+        final File testCaseOutputDir = new File(TEST_OUTPUT_DIR, "systemPropertiesTest");
+        final File outputFile = new File(testCaseOutputDir, "generated-files/test.txt");
+
+        FieldUtils.writeField(mojo, "freeMarkerVersion", FREEMARKER_VERSION, true);
+        FieldUtils.writeField(mojo, "sourceDirectory", testCaseOutputDir, true);
+        FieldUtils.writeField(mojo, "templateDirectory", new File(testCaseOutputDir, "template"), true);
+        FieldUtils.writeField(mojo, "generatorDirectory", new File(testCaseOutputDir, "data"), true);
+        FieldUtils.writeField(mojo, "outputDirectory", new File(testCaseOutputDir, "generated-files"), true);
+        FieldUtils.writeField(mojo, "buildStateFile", new File(testCaseOutputDir, "build-state.json"), true);
+        FieldUtils.writeField(mojo, "mojo", mojoExecution, true);
+        FieldUtils.writeField(mojo, "session", session, true);
+
+        // the output changes whenever the template is rendered again
+        FileUtils.write(new File(testCaseOutputDir, "data/test.txt.json"), "{ \"templateName\": \"test.ftl\" }", UTF_8);
+        FileUtils.write(new File(testCaseOutputDir, "template/test.ftl"), "${.now?long?c}", UTF_8);
+
+        mojo.execute();
+        final String output = FileUtils.readFileToString(outputFile, UTF_8);
+
+        Thread.sleep(10);
+        systemProperties.setProperty("sun.java.command", "org.codehaus.plexus.classworlds.launcher.Launcher");
+        mojo.execute();
+        assertThat(FileUtils.readFileToString(outputFile, UTF_8)).isEqualTo(output);
+
+        userProperties.setProperty("anyUserProperty", "any");
+        mojo.execute();
+        assertThat(FileUtils.readFileToString(outputFile, UTF_8)).isNotEqualTo(output);
+    }
+
     private static String fixSeparators(String str) {
         if (OperatingSystem.isWindows()) {
             return FilenameUtils.separatorsToWindows(str);
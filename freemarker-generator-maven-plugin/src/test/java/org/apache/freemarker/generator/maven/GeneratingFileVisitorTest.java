@@ -36,6 +36,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -123,6 +125,41 @@ public class GeneratingFileVisitorTest extends Assert {
                 .get(16));
     }
 
+    @Test
+    public void concurrentFailuresAreReportedInPathOrderTest() {
+
+        final MavenSession session = mock(MavenSession.class);
+        final MavenProject project = mock(MavenProject.class);
+        final File mockFile = mock(File.class);
+        final BasicFileAttributes attrs = mock(BasicFileAttributes.class);
+        final List<MavenProject> projects = new ArrayList<>();
+        projects.add(project);
+
+        when(session.getCurrentProject()).thenReturn(project);
+        when(session.getAllProjects()).thenReturn(projects);
+        when(project.getProperties()).thenReturn(pomProperties);
+        when(attrs.isRegularFile()).thenReturn(true);
+        when(project.getFile()).thenReturn(mockFile);
+        when(mockFile.lastModified()).thenReturn(10L);
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            final GeneratingFileVisitor gfv = GeneratingFileVisitor.create(config, session, BUILDERS, null, executorService);
+            gfv.visitFile(new File(DATA_DIR, "mydir/missing-template-name.txt.json").toPath(), attrs);
+            gfv.visitFile(new File(DATA_DIR, "mydir/success-test-2.txt.json").toPath(), attrs);
+            gfv.visitFile(new File(DATA_DIR, "mydir/invalid-json.json").toPath(), attrs);
+
+            final Throwable failure = catchThrowable(gfv::awaitCompletion);
+
+            assertThat(failure).hasMessageStartingWith("Could not parse json data file");
+            assertThat(failure.getSuppressed()).hasSize(1);
+            assertThat(failure.getSuppressed()[0]).hasMessage("Require json data property not found: templateName");
+            assertTrue(new File(OUTPUT_DIR, "mydir/success-test-2.txt").isFile());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
     @Test
     public void visitFile_badExtensionTest() {
 
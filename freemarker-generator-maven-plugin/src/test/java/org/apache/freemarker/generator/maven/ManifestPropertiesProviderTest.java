@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.freemarker.generator.maven;
+
+import org.apache.freemarker.generator.maven.OutputGenerator.OutputGeneratorBuilder;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.Assert.assertEquals;
+
+public class ManifestPropertiesProviderTest {
+    private final File testDir = new File("src/test/data/generating-file-visitor");
+    private final File dataDir = new File(testDir, "data");
+    private final File templateDir = new File(testDir, "template");
+    private final File outputDir = new File("target/test-output/generating-file-visitor");
+    private final Path manifest = dataDir.toPath().resolve("manifest/outputs.manifest.yaml");
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSuccess() {
+        final List<OutputGenerator> outputGenerators = ManifestPropertiesProvider.create(dataDir, templateDir, outputDir)
+                .provideOutputsFromFile(manifest, this::builder)
+                .stream()
+                .map(OutputGeneratorBuilder::create)
+                .collect(toList());
+
+        assertEquals(3, outputGenerators.size());
+
+        assertEquals(outputDir.toPath().resolve("manifest/first.txt"), outputGenerators.get(0).outputLocation);
+        assertEquals(templateDir.toPath().resolve("test.ftl"), outputGenerators.get(0).templateLocation);
+        assertEquals("first value", outputGenerators.get(0).dataModel.get("testVar"));
+        assertEquals("pom value", ((Map<String, Object>) outputGenerators.get(0).dataModel.get("pomProperties")).get("pomVar"));
+
+        assertEquals(outputDir.toPath().resolve("manifest/nested/second.txt"), outputGenerators.get(1).outputLocation);
+        assertEquals("shared value", outputGenerators.get(1).dataModel.get("testVar"));
+
+        assertEquals(templateDir.toPath().resolve("test-pom-only.ftl"), outputGenerators.get(2).templateLocation);
+    }
+
+    @Test
+    public void testOutputOutsideOfOutputDirectory() {
+        final File escapeDataDir = new File("src/test/data/manifest-provider");
+        final Path escapeManifest = escapeDataDir.toPath().resolve("escape.manifest.yaml");
+        final ManifestPropertiesProvider toTest = ManifestPropertiesProvider.create(escapeDataDir, templateDir, outputDir);
+
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> toTest.provideOutputsFromFile(escapeManifest, this::builder))
+                .withMessage("Manifest output is not within the output directory: ../../escaped.txt");
+    }
+
+    private OutputGeneratorBuilder builder() {
+        return OutputGenerator.builder()
+                .addPomLastModifiedTimestamp(10L)
+                .addGeneratorLocation(manifest);
+    }
+}
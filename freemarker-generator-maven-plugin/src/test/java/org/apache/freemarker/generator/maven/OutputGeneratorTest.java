@@ -186,6 +186,27 @@ public class OutputGeneratorTest {
         assertTrue(lastMod < outputFile.lastModified());
     }
 
+    @Test
+    public void generate_outputEncodingTest() throws IOException {
+        final Configuration latin1Config = UnitTestHelper.configuration(TEMPLATE_DIR);
+        latin1Config.setOutputEncoding("ISO-8859-1");
+        final File outputFile = new File(OUTPUT_DIR, "mydir/encoding-test.txt");
+        dataModel.put("testVar", "\u00e4\u00f6\u00fc");
+
+        OutputGenerator.builder()
+                .addPomLastModifiedTimestamp(0)
+                .addGeneratorLocation(new File(DATA_DIR, "mydir/success-test.txt.json").toPath())
+                .addOutputLocation(outputFile.toPath())
+                .addTemplateLocation(new File(TEMPLATE_DIR, "test.ftl").toPath())
+                .addDataModel(dataModel)
+                .create()
+                .generate(latin1Config);
+
+        final List<String> lines = Files.readAllLines(outputFile.toPath(), StandardCharsets.ISO_8859_1);
+        assertEquals("This is a test freemarker template. Test json data: '\u00e4\u00f6\u00fc'. Test pom data: 'pom value'.", lines
+                .get(16));
+    }
+
     @Test
     public void generate_badTemplateNameTest() {
         final OutputGenerator.OutputGeneratorBuilder builder = OutputGenerator.builder();
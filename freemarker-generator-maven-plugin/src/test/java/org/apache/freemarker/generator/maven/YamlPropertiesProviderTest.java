@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.freemarker.generator.maven;
+
+import org.apache.freemarker.generator.maven.OutputGenerator.OutputGeneratorBuilder;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+public class YamlPropertiesProviderTest {
+    private final File testDir = new File("src/test/data/generating-file-visitor");
+    private final File dataDir = new File(testDir, "data");
+    private final File templateDir = new File(testDir, "template");
+    private final File outputDir = new File("target/test-output/generating-file-visitor");
+
+    @Test
+    public void testSuccess() {
+        final OutputGenerator outputGenerator = create(YamlPropertiesProvider.create(dataDir, templateDir, outputDir), "mydir/success-test-3.txt.yaml");
+
+        assertEquals(templateDir.toPath().resolve("test.ftl"), outputGenerator.templateLocation);
+        assertEquals(outputDir.toPath().resolve("mydir/success-test-3.txt"), outputGenerator.outputLocation);
+        assertEquals("test value", outputGenerator.dataModel.get("testVar"));
+    }
+
+    @Test
+    public void testJavaPropertiesSuccess() {
+        final OutputGenerator outputGenerator = create(JavaPropertiesProvider.create(dataDir, templateDir, outputDir), "mydir/success-test-4.txt.properties");
+
+        assertEquals(templateDir.toPath().resolve("test.ftl"), outputGenerator.templateLocation);
+        assertEquals(outputDir.toPath().resolve("mydir/success-test-4.txt"), outputGenerator.outputLocation);
+        assertEquals(1, outputGenerator.dataModel.size());
+        assertEquals("test value", outputGenerator.dataModel.get("testVar"));
+    }
+
+    @Test
+    public void testParsingException() {
+        final OutputGeneratorBuilder builder = mock(OutputGeneratorBuilder.class);
+        final Path path = dataDir.toPath().resolve("mydir/invalid-json.json");
+        final YamlPropertiesProvider toTest = YamlPropertiesProvider.create(dataDir, templateDir, outputDir);
+
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> toTest.providePropertiesFromFile(path, builder))
+                .withMessageStartingWith("Could not parse yaml data file");
+    }
+
+    private OutputGenerator create(SingleOutputPropertiesProvider provider, String name) {
+        final OutputGeneratorBuilder builder = OutputGenerator.builder();
+        builder.addPomLastModifiedTimestamp(10L);
+        builder.addGeneratorLocation(dataDir.toPath().resolve(name));
+        provider.providePropertiesFromFile(dataDir.toPath().resolve(name), builder);
+        return builder.create();
+    }
+}
@@ -16,19 +16,25 @@
  */
 package org.apache.freemarker.generator.tools.commonscsv;
 
+import freemarker.core.Environment;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 import org.apache.commons.io.input.BOMInputStream;
 import org.apache.freemarker.generator.base.datasource.DataSource;
 import org.apache.freemarker.generator.base.util.StringUtils;
+import org.apache.freemarker.generator.tools.commonscsv.impl.CommonsCSVIndex;
+import org.apache.freemarker.generator.tools.commonscsv.impl.CommonsCSVParallelParser;
 import org.apache.freemarker.generator.tools.commonscsv.impl.CommonsCSVPrinterFacade;
+import org.apache.freemarker.generator.tools.commonscsv.impl.CommonsCSVTransformer;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -86,6 +92,36 @@ public class CommonsCSVTool {
         }
     }
 
+    /**
+     * Parse a large file-based CSV data source in parallel using all available processors.
+     *
+     * @param dataSource data source to parse
+     * @param format     CSV format
+     * @return parallel parser providing ordered records and aggregates
+     */
+    public CommonsCSVParallelParser parallelParse(DataSource dataSource, CSVFormat format) {
+        return parallelParse(dataSource, format, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Parse a large file-based CSV data source in parallel. The file is split
+     * into chunks on record boundaries which are parsed concurrently. Other
+     * data sources are parsed sequentially.
+     *
+     * @param dataSource  data source to parse
+     * @param format      CSV format
+     * @param parallelism number of threads parsing chunks
+     * @return parallel parser providing ordered records and aggregates
+     */
+    public CommonsCSVParallelParser parallelParse(DataSource dataSource, CSVFormat format, int parallelism) {
+        if (dataSource == null) {
+            throw new IllegalArgumentException("No data source was provided");
+        }
+
+        // the thread pool is shut down when the data source is closed
+        return dataSource.addClosable(new CommonsCSVParallelParser(dataSource, format, parallelism));
+    }
+
     public Map<String, CSVFormat> getFormats() {
         return createCSVFormats();
     }
@@ -98,6 +134,105 @@ public class CommonsCSVTool {
         return new CommonsCSVPrinterFacade(csvFormat);
     }
 
+    /**
+     * Create a CSV printer writing directly to the given writer instead of
+     * returning each printed record as string.
+     *
+     * @param csvFormat CSV format
+     * @param writer    writer to print to
+     * @return CSV printer
+     * @throws IOException printing the header failed
+     */
+    public CommonsCSVPrinterFacade printer(CSVFormat csvFormat, Writer writer) throws IOException {
+        return new CommonsCSVPrinterFacade(csvFormat, writer);
+    }
+
+    /**
+     * Create a CSV printer writing directly to the current output of the
+     * template. This avoids creating a string for each printed record when
+     * transforming large CSV files. The printer must be created where its
+     * output is expected, e.g. not within a captured <code>#assign</code>.
+     *
+     * @param csvFormat CSV format
+     * @return CSV printer
+     * @throws IOException printing the header failed
+     */
+    public CommonsCSVPrinterFacade outputPrinter(CSVFormat csvFormat) throws IOException {
+        final Environment environment = Environment.getCurrentEnvironment();
+        if (environment == null) {
+            throw new IllegalStateException("No template is currently processed");
+        }
+        return printer(csvFormat, environment.getOut());
+    }
+
+    /**
+     * Transform all records of a CSV data source to the current output of the
+     * template without evaluating the template for each record.
+     *
+     * @param dataSource   data source to transform
+     * @param sourceFormat CSV format of the data source
+     * @param targetFormat CSV format of the output
+     * @return empty string since the records are directly written to the output
+     */
+    public String transform(DataSource dataSource, CSVFormat sourceFormat, CSVFormat targetFormat) {
+        return transform(dataSource, sourceFormat, targetFormat, null, null);
+    }
+
+    /**
+     * Transform the selected columns of a CSV data source to the current output
+     * of the template without evaluating the template for each record.
+     *
+     * @param dataSource   data source to transform
+     * @param sourceFormat CSV format of the data source
+     * @param targetFormat CSV format of the output
+     * @param columns      names or indices of the columns to print or null to print all columns
+     * @return empty string since the records are directly written to the output
+     */
+    public String transform(DataSource dataSource, CSVFormat sourceFormat, CSVFormat targetFormat, List<?> columns) {
+        return transform(dataSource, sourceFormat, targetFormat, columns, null);
+    }
+
+    /**
+     * Transform the selected columns of the matching records of a CSV data source
+     * to the current output of the template without evaluating the template for
+     * each record.
+     *
+     * @param dataSource   data source to transform
+     * @param sourceFormat CSV format of the data source
+     * @param targetFormat CSV format of the output
+     * @param columns      names or indices of the columns to print or null to print all columns
+     * @param filter       maps column names or indices to the accepted value(s) or null to print all records
+     * @return empty string since the records are directly written to the output
+     */
+    public String transform(DataSource dataSource, CSVFormat sourceFormat, CSVFormat targetFormat, List<?> columns, Map<?, ?> filter) {
+        final Environment environment = Environment.getCurrentEnvironment();
+        if (environment == null) {
+            throw new IllegalStateException("No template is currently processed");
+        }
+        transform(dataSource, sourceFormat, targetFormat, columns, filter, environment.getOut());
+        return "";
+    }
+
+    /**
+     * Transform the selected columns of the matching records of a CSV data source
+     * to the writer. The writer is neither flushed nor closed.
+     *
+     * @param dataSource   data source to transform
+     * @param sourceFormat CSV format of the data source
+     * @param targetFormat CSV format of the output
+     * @param columns      names or indices of the columns to print or null to print all columns
+     * @param filter       maps column names or indices to the accepted value(s) or null to print all records
+     * @param writer       writer to print to
+     * @return number of printed records
+     */
+    public long transform(DataSource dataSource, CSVFormat sourceFormat, CSVFormat targetFormat, List<?> columns, Map<?, ?> filter, Writer writer) {
+        try (CSVParser parser = parse(dataSource, sourceFormat)) {
+            return new CommonsCSVTransformer(targetFormat, columns, filter).transform(parser, writer);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to transform CSV: " + dataSource, e);
+        }
+    }
+
     /**
      * Extract the list of unique values (keys) of the column "name".
      *
@@ -168,6 +303,49 @@ public class CommonsCSVTool {
         return toMultiMap(records, new ValueResolver(index));
     }
 
+    /**
+     * Build a lookup index for the column "name" of a CSV data source.
+     *
+     * @param dataSource data source to index
+     * @param format     CSV format
+     * @param name       key column
+     * @return index
+     */
+    public CommonsCSVIndex toIndex(DataSource dataSource, CSVFormat format, String name) {
+        return toIndex(dataSource, format, Collections.singletonList(name), false);
+    }
+
+    /**
+     * Build a lookup index for a single or composite key of a CSV data source.
+     *
+     * @param dataSource data source to index
+     * @param format     CSV format
+     * @param columns    key columns as names or indices
+     * @return index
+     */
+    public CommonsCSVIndex toIndex(DataSource dataSource, CSVFormat format, List<?> columns) {
+        return toIndex(dataSource, format, columns, false);
+    }
+
+    /**
+     * Build a lookup index for a single or composite key of a CSV data source.
+     * The index only stores the positions of the records and decodes matching
+     * records on lookup which allows joining against large lookup files.
+     *
+     * @param dataSource data source to index
+     * @param format     CSV format
+     * @param columns    key columns as names or indices
+     * @param ignoreCase compare keys case-insensitive
+     * @return index
+     */
+    public CommonsCSVIndex toIndex(DataSource dataSource, CSVFormat format, List<?> columns, boolean ignoreCase) {
+        if (dataSource == null) {
+            throw new IllegalArgumentException("No data source was provided");
+        }
+
+        return new CommonsCSVIndex(dataSource, format, columns, ignoreCase);
+    }
+
     /**
      * Maps the symbolic name of a delimiter to a single character since it
      * is not possible to define commonly used delimiters on the command line.
@@ -236,9 +414,7 @@ public class CommonsCSVTool {
 
     private static Map<String, List<CSVRecord>> toMultiMap(Collection<CSVRecord> records, Function<CSVRecord, String> value) {
         final Map<String, List<CSVRecord>> result = new LinkedHashMap<>();
-        final List<String> keys = toKeys(records, value);
-        keys.forEach(key -> result.put(key, new ArrayList<>()));
-        records.forEach(record -> result.get(value.apply(record)).add(record));
+        records.forEach(record -> result.computeIfAbsent(value.apply(record), key -> new ArrayList<>()).add(record));
         return result;
     }
 
@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.tools.commonscsv.impl;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.io.input.CharSequenceReader;
+import org.apache.freemarker.generator.base.datasource.DataSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Split a file-based CSV data source into chunks ending on record boundaries.
+ * The memory-mapped file is scanned once for line breaks outside of quoted
+ * values (respecting delimiters, escape characters and comment lines) which is much
+ * cheaper than parsing the records. Each chunk can then be parsed on its own.
+ */
+class CommonsCSVChunker implements Iterator<CommonsCSVChunker.Chunk> {
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+    private static final int NONE = -1;
+    private static final int MIN_WINDOW_SIZE = 1024 * 1024;
+
+    private final DataSource dataSource;
+    private final long length;
+    private final long chunkSize;
+    private final int windowSize;
+    private final int delimiter;
+    private final int quote;
+    private final int escape;
+    private final int commentMarker;
+    private final boolean ignoreSurroundingSpaces;
+
+    /** Start of the next chunk */
+    private long position;
+
+    /** Index of the next chunk */
+    private int index;
+
+    CommonsCSVChunker(DataSource dataSource, CSVFormat format, long chunkSize) {
+        this.dataSource = requireNonNull(dataSource);
+        this.length = dataSource.getLength();
+        this.chunkSize = chunkSize;
+        this.windowSize = (int) Math.min(Math.max(2 * chunkSize, MIN_WINDOW_SIZE), Integer.MAX_VALUE);
+        this.delimiter = format.getDelimiterString().charAt(0);
+        this.quote = format.getQuoteCharacter() != null ? format.getQuoteCharacter() : NONE;
+        this.escape = format.getEscapeCharacter() != null ? format.getEscapeCharacter() : NONE;
+        this.commentMarker = format.getCommentMarker() != null ? format.getCommentMarker() : NONE;
+        this.ignoreSurroundingSpaces = format.getIgnoreSurroundingSpaces();
+        this.position = 0;
+        this.index = 0;
+    }
+
+    /**
+     * Chunks are only supported for memory-mappable files using a charset where
+     * line breaks, delimiters, quotes, escape characters and comment markers are
+     * encoded as single ASCII bytes never occurring within other characters.
+     *
+     * @param dataSource data source to split
+     * @param format     CSV format
+     * @return true if the data source can be split into chunks
+     */
+    static boolean isSupported(DataSource dataSource, CSVFormat format) {
+        final Charset charset = dataSource.getCharset();
+        return "file".equals(dataSource.getUri().getScheme())
+                && dataSource.getLength() > 0
+                && (charset.equals(UTF_8) || charset.equals(US_ASCII) || charset.equals(ISO_8859_1))
+                && format.getDelimiterString().length() == 1
+                && isAscii(format.getDelimiterString().charAt(0))
+                && isAscii(format.getQuoteCharacter())
+                && isAscii(format.getEscapeCharacter())
+                && isAscii(format.getCommentMarker());
+    }
+
+    @Override
+    public boolean hasNext() {
+        return position < length;
+    }
+
+    @Override
+    public Chunk next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        final long end = findEnd(position);
+        final Chunk chunk = new Chunk(dataSource, index++, position, end);
+        position = end;
+        return chunk;
+    }
+
+    /**
+     * Find the end of a chunk, i.e. the first line break outside of a quoted
+     * value after reaching the chunk size. The scan follows the lexer of Commons
+     * CSV - a quote only starts a quoted value at the start of a field, a doubled
+     * quote within a quoted value is part of the value, and a line ends with LF,
+     * CR or CRLF.
+     */
+    private long findEnd(long start) {
+        final long target = start + chunkSize;
+        if (target >= length) {
+            return length;
+        }
+
+        boolean isQuoted = false;
+        boolean isQuoteEnd = false;
+        boolean isEscaped = false;
+        boolean isComment = false;
+        boolean isCarriageReturn = false;
+        boolean isLineStart = true;
+        boolean isFieldStart = true;
+        long current = start;
+
+        while (current < length) {
+            final ByteBuffer window = dataSource.getByteBuffer(current, Math.min(windowSize, length - current));
+            while (window.hasRemaining()) {
+                final int b = window.get() & 0xFF;
+                current++;
+
+                if (isCarriageReturn) {
+                    isCarriageReturn = false;
+                    if (b == LF) {
+                        if (current >= target) {
+                            return current;
+                        }
+                        continue;
+                    } else if (current - 1 >= target) {
+                        // the line was terminated by a single CR
+                        return current - 1;
+                    }
+                }
+
+                if (isEscaped) {
+                    isEscaped = false;
+                    isLineStart = false;
+                    isFieldStart = false;
+                    continue;
+                }
+
+                if (isQuoteEnd) {
+                    isQuoteEnd = false;
+                    if (b == quote) {
+                        // doubled quote within the quoted value
+                        continue;
+                    }
+                    isQuoted = false;
+                }
+
+                if (isQuoted) {
+                    if (b == escape) {
+                        isEscaped = true;
+                    } else if (b == quote) {
+                        isQuoteEnd = true;
+                    }
+                    continue;
+                }
+
+                if (b == LF || b == CR) {
+                    isComment = false;
+                    isLineStart = true;
+                    isFieldStart = true;
+                    if (b == CR) {
+                        isCarriageReturn = true;
+                    } else if (current >= target) {
+                        return current;
+                    }
+                    continue;
+                }
+
+                if (isComment) {
+                    continue;
+                }
+
+                if (isLineStart && b == commentMarker) {
+                    isComment = true;
+                } else if (b == escape) {
+                    isEscaped = true;
+                } else if (b == delimiter) {
+                    isLineStart = false;
+                    isFieldStart = true;
+                    continue;
+                } else if (isFieldStart && b == quote) {
+                    isQuoted = true;
+                } else if (isFieldStart && ignoreSurroundingSpaces && isWhitespace(b)) {
+                    isLineStart = false;
+                    continue;
+                }
+                isLineStart = false;
+                isFieldStart = false;
+            }
+        }
+
+        return length;
+    }
+
+    private static boolean isWhitespace(int b) {
+        return b == ' ' || b == '\t';
+    }
+
+    private static boolean isAscii(Character c) {
+        return c == null || c < 128;
+    }
+
+    /**
+     * A region of the file containing complete records.
+     */
+    static final class Chunk {
+
+        private static final int UTF8_BOM_LENGTH = 3;
+
+        private final DataSource dataSource;
+        private final int index;
+        private final long start;
+        private final long end;
+
+        Chunk(DataSource dataSource, int index, long start, long end) {
+            this.dataSource = dataSource;
+            this.index = index;
+            this.start = start;
+            this.end = end;
+        }
+
+        int getIndex() {
+            return index;
+        }
+
+        /**
+         * Decode the chunk and create a parser for its records.
+         *
+         * @param format CSV format of the chunk
+         * @return parser
+         * @throws IOException creating the parser failed
+         */
+        CSVParser parse(CSVFormat format) throws IOException {
+            final ByteBuffer buffer = dataSource.getByteBuffer(start, end - start);
+            if (index == 0 && hasUtf8Bom(buffer)) {
+                buffer.position(UTF8_BOM_LENGTH);
+            }
+            final CharBuffer chars = dataSource.getCharset().decode(buffer);
+            return new CSVParser(new CharSequenceReader(chars), format);
+        }
+
+        private static boolean hasUtf8Bom(ByteBuffer buffer) {
+            return buffer.remaining() >= UTF8_BOM_LENGTH
+                    && buffer.get(0) == (byte) 0xEF
+                    && buffer.get(1) == (byte) 0xBB
+                    && buffer.get(2) == (byte) 0xBF;
+        }
+    }
+}
@@ -0,0 +1,463 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.tools.commonscsv.impl;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.io.input.BOMInputStream;
+import org.apache.commons.io.input.CharSequenceReader;
+import org.apache.freemarker.generator.base.datasource.DataSource;
+import org.apache.freemarker.generator.base.util.Validate;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Lookup index over the records of a CSV data source built in a single pass.
+ * Instead of retaining <code>CSVRecord</code> instances the index only stores
+ * the byte offsets of the records in an open-addressing hash table - matching
+ * records are decoded from the (usually memory-mapped) content on lookup.
+ * <p>
+ * Keys consist of one or more columns referenced by name (requires a header)
+ * or by index. Composite keys are looked up using a list of values. Missing
+ * values are treated as empty strings. The character position of records
+ * returned by the index is relative to the record.
+ */
+public class CommonsCSVIndex {
+
+    /** Separates the values of a composite key */
+    private static final char KEY_SEPARATOR = '\u001F';
+
+    private static final int UTF8_BOM_LENGTH = 3;
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final DataSource dataSource;
+    private final ByteBuffer content;
+    private final Charset charset;
+    private final boolean ignoreCase;
+    private final List<String> headerNames;
+    private final CSVFormat recordFormat;
+    private final int[] columnIndices;
+
+    /** Open-addressing table storing "key index + 1" - zero marks an empty slot */
+    private int[] table;
+
+    /** Characters of all distinct keys stored back to back */
+    private char[] keyChars;
+    private int keyCharsSize;
+
+    /** Start of each key within "keyChars" - the key ends where the next key starts */
+    private int[] keyStarts;
+    private int[] keyHashes;
+
+    /** First and last record of each key */
+    private int[] keyFirstRecords;
+    private int[] keyLastRecords;
+    private int keyCount;
+
+    /** Byte offset of each record and the next record having the same key */
+    private int[] recordOffsets;
+    private int[] recordNext;
+    private int recordCount;
+    private long firstRecordNumber;
+
+    /**
+     * Build the index.
+     *
+     * @param dataSource data source to index - must be smaller than 2 GB
+     * @param format     CSV format of the data source
+     * @param columns    key columns as names or indices
+     * @param ignoreCase compare keys case-insensitive
+     */
+    public CommonsCSVIndex(DataSource dataSource, CSVFormat format, List<?> columns, boolean ignoreCase) {
+        Validate.isTrue(columns != null && !columns.isEmpty(), "No key columns provided");
+        Validate.isTrue(isSupported(dataSource.getCharset()), "Unsupported charset for CSV index: " + dataSource.getCharset());
+
+        this.dataSource = requireNonNull(dataSource);
+        this.content = dataSource.getByteBuffer();
+        this.charset = dataSource.getCharset();
+        this.ignoreCase = ignoreCase;
+        this.table = new int[INITIAL_CAPACITY * 2];
+        this.keyChars = new char[INITIAL_CAPACITY * 16];
+        this.keyStarts = new int[INITIAL_CAPACITY];
+        this.keyHashes = new int[INITIAL_CAPACITY];
+        this.keyFirstRecords = new int[INITIAL_CAPACITY];
+        this.keyLastRecords = new int[INITIAL_CAPACITY];
+        this.recordOffsets = new int[INITIAL_CAPACITY];
+        this.recordNext = new int[INITIAL_CAPACITY];
+
+        try (CSVParser parser = parser(format)) {
+            this.headerNames = Collections.unmodifiableList(new ArrayList<>(parser.getHeaderNames()));
+            this.columnIndices = columnIndices(headerNames, columns);
+            this.recordFormat = recordFormat(format, headerNames);
+            index(parser);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to index CSV: " + dataSource, e);
+        }
+    }
+
+    /**
+     * Get the first record matching a single column key.
+     *
+     * @param key key value
+     * @return first matching record or null
+     */
+    public CSVRecord get(String key) {
+        return first(find(normalize(key)));
+    }
+
+    /**
+     * Get the first record matching a composite key.
+     *
+     * @param keys key values in the order of the key columns
+     * @return first matching record or null
+     */
+    public CSVRecord get(List<?> keys) {
+        return first(find(compositeKey(keys)));
+    }
+
+    /**
+     * Get all records matching a single column key.
+     *
+     * @param key key value
+     * @return matching records in their original order
+     */
+    public List<CSVRecord> getAll(String key) {
+        return all(find(normalize(key)));
+    }
+
+    /**
+     * Get all records matching a composite key.
+     *
+     * @param keys key values in the order of the key columns
+     * @return matching records in their original order
+     */
+    public List<CSVRecord> getAll(List<?> keys) {
+        return all(find(compositeKey(keys)));
+    }
+
+    public boolean containsKey(String key) {
+        return find(normalize(key)) != NONE;
+    }
+
+    public boolean containsKey(List<?> keys) {
+        return find(compositeKey(keys)) != NONE;
+    }
+
+    /**
+     * Get the number of indexed records.
+     *
+     * @return number of records
+     */
+    public int size() {
+        return recordCount;
+    }
+
+    /**
+     * Get the number of distinct keys.
+     *
+     * @return number of keys
+     */
+    public int getKeyCount() {
+        return keyCount;
+    }
+
+    public List<String> getHeaderNames() {
+        return headerNames;
+    }
+
+    @Override
+    public String toString() {
+        return "CommonsCSVIndex{" +
+                "dataSource=" + dataSource +
+                ", records=" + recordCount +
+                ", keys=" + keyCount +
+                ", ignoreCase=" + ignoreCase +
+                '}';
+    }
+
+    private CSVParser parser(CSVFormat format) throws IOException {
+        final BOMInputStream is = new BOMInputStream(dataSource.getInputStream(), false);
+        return new CSVParser(new InputStreamReader(is, charset), format);
+    }
+
+    private void index(CSVParser parser) {
+        final ByteOffsets byteOffsets = new ByteOffsets(content, charset);
+        final StringBuilder key = new StringBuilder();
+
+        for (CSVRecord record : parser) {
+            if (recordCount == 0) {
+                firstRecordNumber = record.getRecordNumber();
+            }
+            key.setLength(0);
+            for (int i = 0; i < columnIndices.length; i++) {
+                if (i > 0) {
+                    key.append(KEY_SEPARATOR);
+                }
+                key.append(value(record, columnIndices[i]));
+            }
+            add(normalize(key.toString()), byteOffsets.toByteOffset(record.getCharacterPosition()));
+        }
+    }
+
+    private void add(String key, int offset) {
+        if (recordCount == recordOffsets.length) {
+            recordOffsets = Arrays.copyOf(recordOffsets, recordCount * 2);
+            recordNext = Arrays.copyOf(recordNext, recordCount * 2);
+        }
+
+        final int record = recordCount++;
+        recordOffsets[record] = offset;
+        recordNext[record] = NONE;
+
+        final int hash = hash(key);
+        int slot = hash & (table.length - 1);
+        while (table[slot] != 0) {
+            final int candidate = table[slot] - 1;
+            if (keyHashes[candidate] == hash && keyEquals(candidate, key)) {
+                recordNext[keyLastRecords[candidate]] = record;
+                keyLastRecords[candidate] = record;
+                return;
+            }
+            slot = (slot + 1) & (table.length - 1);
+        }
+
+        table[slot] = addKey(key, hash, record) + 1;
+        if (keyCount * 2 > table.length) {
+            rehash();
+        }
+    }
+
+    private int addKey(String key, int hash, int record) {
+        if (keyCount == keyStarts.length) {
+            keyStarts = Arrays.copyOf(keyStarts, keyCount * 2);
+            keyHashes = Arrays.copyOf(keyHashes, keyCount * 2);
+            keyFirstRecords = Arrays.copyOf(keyFirstRecords, keyCount * 2);
+            keyLastRecords = Arrays.copyOf(keyLastRecords, keyCount * 2);
+        }
+        if (keyCharsSize + key.length() > keyChars.length) {
+            keyChars = Arrays.copyOf(keyChars, Math.max(keyChars.length * 2, keyCharsSize + key.length()));
+        }
+
+        key.getChars(0, key.length(), keyChars, keyCharsSize);
+        keyStarts[keyCount] = keyCharsSize;
+        keyCharsSize += key.length();
+        keyHashes[keyCount] = hash;
+        keyFirstRecords[keyCount] = record;
+        keyLastRecords[keyCount] = record;
+        return keyCount++;
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        for (int key = 0; key < keyCount; key++) {
+            int slot = keyHashes[key] & (table.length - 1);
+            while (table[slot] != 0) {
+                slot = (slot + 1) & (table.length - 1);
+            }
+            table[slot] = key + 1;
+        }
+    }
+
+    private int find(String key) {
+        final int hash = hash(key);
+        int slot = hash & (table.length - 1);
+        while (table[slot] != 0) {
+            final int candidate = table[slot] - 1;
+            if (keyHashes[candidate] == hash && keyEquals(candidate, key)) {
+                return candidate;
+            }
+            slot = (slot + 1) & (table.length - 1);
+        }
+        return NONE;
+    }
+
+    private boolean keyEquals(int key, String value) {
+        final int start = keyStarts[key];
+        final int end = key + 1 < keyCount ? keyStarts[key + 1] : keyCharsSize;
+        if (end - start != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (keyChars[start + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private CSVRecord first(int key) {
+        return key != NONE ? record(keyFirstRecords[key]) : null;
+    }
+
+    private List<CSVRecord> all(int key) {
+        if (key == NONE) {
+            return Collections.emptyList();
+        }
+
+        final List<CSVRecord> result = new ArrayList<>();
+        for (int record = keyFirstRecords[key]; record != NONE; record = recordNext[record]) {
+            result.add(record(record));
+        }
+        return result;
+    }
+
+    /**
+     * Decode a single record - it ends where the next record starts.
+     */
+    private CSVRecord record(int record) {
+        final int start = recordOffsets[record];
+        final int end = record + 1 < recordCount ? recordOffsets[record + 1] : content.limit();
+        final ByteBuffer buffer = content.duplicate();
+        buffer.position(start);
+        buffer.limit(end);
+
+        try (CSVParser parser = new CSVParser(
+                new CharSequenceReader(charset.decode(buffer)),
+                recordFormat,
+                0,
+                firstRecordNumber + record)) {
+            return parser.nextRecord();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read indexed CSV record: " + dataSource, e);
+        }
+    }
+
+    private String compositeKey(List<?> keys) {
+        Validate.isTrue(keys != null && keys.size() == columnIndices.length,
+                "Expected " + columnIndices.length + " key values: " + keys);
+
+        final StringBuilder result = new StringBuilder();
+        for (int i = 0; i < keys.size(); i++) {
+            if (i > 0) {
+                result.append(KEY_SEPARATOR);
+            }
+            result.append(keys.get(i) != null ? keys.get(i) : "");
+        }
+        return normalize(result.toString());
+    }
+
+    private String normalize(String key) {
+        final String value = key != null ? key : "";
+        return ignoreCase ? value.toLowerCase(Locale.ROOT) : value;
+    }
+
+    private static int hash(String key) {
+        final int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /** Missing trailing values of a short record are treated as empty strings */
+    private static String value(CSVRecord record, int index) {
+        return index < record.size() ? record.get(index) : "";
+    }
+
+    private static int[] columnIndices(List<String> headerNames, List<?> columns) {
+        final int[] result = new int[columns.size()];
+        for (int i = 0; i < result.length; i++) {
+            final Object column = columns.get(i);
+            if (column instanceof Number) {
+                result[i] = ((Number) column).intValue();
+            } else {
+                result[i] = headerNames.indexOf(String.valueOf(column));
+                Validate.isTrue(result[i] >= 0, "Unknown CSV column: " + column);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Decoded records don't contain the header record but use its names.
+     */
+    private static CSVFormat recordFormat(CSVFormat format, List<String> headerNames) {
+        if (format.getHeader() == null) {
+            return format;
+        }
+
+        return format.builder()
+                .setHeader(headerNames.toArray(new String[0]))
+                .setSkipHeaderRecord(false)
+                .build();
+    }
+
+    /**
+     * Only charsets are supported where the byte offset of a character can
+     * be determined without decoding the content.
+     */
+    private static boolean isSupported(Charset charset) {
+        return charset.equals(UTF_8) || (charset.canEncode() && charset.newEncoder().maxBytesPerChar() == 1.0f);
+    }
+
+    /**
+     * Converts the increasing character positions reported by the parser into
+     * byte offsets by counting the characters of the encoded content once.
+     */
+    private static final class ByteOffsets {
+
+        private final ByteBuffer content;
+        private final boolean isUtf8;
+        private int byteOffset;
+        private long charPosition;
+
+        ByteOffsets(ByteBuffer content, Charset charset) {
+            this.content = content;
+            this.isUtf8 = charset.equals(UTF_8);
+            this.byteOffset = hasUtf8Bom(content) ? UTF8_BOM_LENGTH : 0;
+            this.charPosition = 0;
+        }
+
+        int toByteOffset(long position) {
+            if (!isUtf8) {
+                byteOffset += (int) (position - charPosition);
+                charPosition = position;
+                return byteOffset;
+            }
+
+            while (charPosition < position && byteOffset < content.limit()) {
+                final int b = content.get(byteOffset) & 0xFF;
+                if (b >= 0xF0 && b < 0xF8) {
+                    // encoded as surrogate pair
+                    byteOffset += 4;
+                    charPosition += 2;
+                } else {
+                    byteOffset += b >= 0xE0 && b < 0xF0 ? 3 : b >= 0xC0 && b < 0xE0 ? 2 : 1;
+                    charPosition++;
+                }
+            }
+            return Math.min(byteOffset, content.limit());
+        }
+
+        private static boolean hasUtf8Bom(ByteBuffer buffer) {
+            return buffer.limit() >= UTF8_BOM_LENGTH
+                    && buffer.get(0) == (byte) 0xEF
+                    && buffer.get(1) == (byte) 0xBB
+                    && buffer.get(2) == (byte) 0xBF;
+        }
+    }
+}
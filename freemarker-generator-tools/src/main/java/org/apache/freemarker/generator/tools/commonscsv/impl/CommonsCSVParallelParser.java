@@ -0,0 +1,402 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.tools.commonscsv.impl;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.io.input.BOMInputStream;
+import org.apache.freemarker.generator.base.datasource.DataSource;
+import org.apache.freemarker.generator.base.util.Validate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Parses a large file-based CSV data source in parallel. The file is split
+ * into chunks ending on record boundaries which are parsed on a fork-join pool
+ * while the results are consumed in the original order - only a few chunks
+ * are parsed ahead to limit the memory consumption.
+ * <p>
+ * Data sources which can't be split (e.g. URLs or charsets such as UTF-16)
+ * are parsed sequentially. The record numbers of the returned records are
+ * relative to their chunk.
+ */
+public class CommonsCSVParallelParser implements Iterable<CSVRecord>, Closeable {
+
+    /** Default size of a chunk in bytes */
+    public static final long DEFAULT_CHUNK_SIZE = 8L * 1024 * 1024;
+
+    private final DataSource dataSource;
+    private final CSVFormat format;
+    private final int parallelism;
+    private final long chunkSize;
+
+    /** Lazily created pool parsing the chunks */
+    private ForkJoinPool pool;
+
+    /** Lazily resolved header names of the first chunk */
+    private List<String> headerNames;
+
+    public CommonsCSVParallelParser(DataSource dataSource, CSVFormat format, int parallelism) {
+        this(dataSource, format, parallelism, DEFAULT_CHUNK_SIZE);
+    }
+
+    public CommonsCSVParallelParser(DataSource dataSource, CSVFormat format, int parallelism, long chunkSize) {
+        Validate.isTrue(parallelism > 0, "parallelism must be greater than zero: " + parallelism);
+        Validate.isTrue(chunkSize > 0, "chunkSize must be greater than zero: " + chunkSize);
+
+        this.dataSource = requireNonNull(dataSource);
+        this.format = requireNonNull(format);
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Iterate over all records in their original order.
+     *
+     * @return record iterator
+     */
+    @Override
+    public Iterator<CSVRecord> iterator() {
+        if (!isChunked()) {
+            return sequentialParser().iterator();
+        }
+
+        final Iterator<List<CSVRecord>> chunks = chunks(CSVParser::getRecords);
+
+        return new Iterator<CSVRecord>() {
+            private Iterator<CSVRecord> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && chunks.hasNext()) {
+                    current = chunks.next().iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public CSVRecord next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    /**
+     * Count the records.
+     *
+     * @return number of records
+     */
+    public long count() {
+        long result = 0;
+        final Iterator<Long> chunks = chunks(parser -> {
+            long count = 0;
+            for (CSVRecord ignored : parser) {
+                count++;
+            }
+            return count;
+        });
+        while (chunks.hasNext()) {
+            result += chunks.next();
+        }
+        return result;
+    }
+
+    /**
+     * Get the distinct values of a column in the order of their first occurrence.
+     *
+     * @param name column name
+     * @return distinct values
+     */
+    public List<String> toKeys(String name) {
+        return toKeys(column(name));
+    }
+
+    /**
+     * Get the distinct values of a column in the order of their first occurrence.
+     *
+     * @param index column index
+     * @return distinct values
+     */
+    public List<String> toKeys(Integer index) {
+        return toKeys(column(index));
+    }
+
+    /**
+     * Count the records per distinct value of a column.
+     *
+     * @param name column name
+     * @return record count per value in the order of the first occurrence
+     */
+    public Map<String, Long> toCounts(String name) {
+        return toCounts(column(name));
+    }
+
+    /**
+     * Count the records per distinct value of a column.
+     *
+     * @param index column index
+     * @return record count per value in the order of the first occurrence
+     */
+    public Map<String, Long> toCounts(Integer index) {
+        return toCounts(column(index));
+    }
+
+    /**
+     * Group the records by the value of a column.
+     *
+     * @param name column name
+     * @return records per value in the order of the first occurrence
+     */
+    public Map<String, List<CSVRecord>> toMultiMap(String name) {
+        return toMultiMap(column(name));
+    }
+
+    /**
+     * Group the records by the value of a column.
+     *
+     * @param index column index
+     * @return records per value in the order of the first occurrence
+     */
+    public Map<String, List<CSVRecord>> toMultiMap(Integer index) {
+        return toMultiMap(column(index));
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Check if the data source is split into chunks parsed in parallel.
+     *
+     * @return true if the data source is parsed in parallel
+     */
+    public boolean isChunked() {
+        return CommonsCSVChunker.isSupported(dataSource, format);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CommonsCSVParallelParser{" +
+                "dataSource=" + dataSource +
+                ", parallelism=" + parallelism +
+                ", chunkSize=" + chunkSize +
+                '}';
+    }
+
+    private List<String> toKeys(Function<CSVRecord, String> column) {
+        final Set<String> result = new LinkedHashSet<>();
+        final Iterator<Set<String>> chunks = chunks(parser -> {
+            final Set<String> keys = new LinkedHashSet<>();
+            for (CSVRecord record : parser) {
+                keys.add(column.apply(record));
+            }
+            return keys;
+        });
+        while (chunks.hasNext()) {
+            result.addAll(chunks.next());
+        }
+        return new ArrayList<>(result);
+    }
+
+    private Map<String, Long> toCounts(Function<CSVRecord, String> column) {
+        final Map<String, Long> result = new LinkedHashMap<>();
+        final Iterator<Map<String, Long>> chunks = chunks(parser -> {
+            final Map<String, Long> counts = new LinkedHashMap<>();
+            for (CSVRecord record : parser) {
+                counts.merge(column.apply(record), 1L, Long::sum);
+            }
+            return counts;
+        });
+        while (chunks.hasNext()) {
+            chunks.next().forEach((key, count) -> result.merge(key, count, Long::sum));
+        }
+        return result;
+    }
+
+    private Map<String, List<CSVRecord>> toMultiMap(Function<CSVRecord, String> column) {
+        final Map<String, List<CSVRecord>> result = new LinkedHashMap<>();
+        final Iterator<Map<String, List<CSVRecord>>> chunks = chunks(parser -> {
+            final Map<String, List<CSVRecord>> groups = new LinkedHashMap<>();
+            for (CSVRecord record : parser) {
+                groups.computeIfAbsent(column.apply(record), key -> new ArrayList<>()).add(record);
+            }
+            return groups;
+        });
+        while (chunks.hasNext()) {
+            chunks.next().forEach((key, records) -> result.computeIfAbsent(key, k -> new ArrayList<>()).addAll(records));
+        }
+        return result;
+    }
+
+    /**
+     * Apply the function to each chunk and return the results in the order of
+     * the chunks. At most <code>parallelism + 1</code> chunks are processed ahead
+     * of the consumer.
+     */
+    private <T> Iterator<T> chunks(ChunkFunction<T> function) {
+        if (!isChunked()) {
+            try (CSVParser parser = sequentialParser()) {
+                return Collections.singletonList(function.apply(parser)).iterator();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to parse CSV: " + dataSource, e);
+            }
+        }
+
+        final CommonsCSVChunker chunker = new CommonsCSVChunker(dataSource, format, chunkSize);
+        final List<String> headerNames = headerNames();
+        final ForkJoinPool pool = pool();
+
+        return new Iterator<T>() {
+            private final Deque<Future<T>> futures = new ArrayDeque<>();
+
+            @Override
+            public boolean hasNext() {
+                submit();
+                return !futures.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(futures.poll());
+            }
+
+            private void submit() {
+                while (futures.size() <= parallelism && chunker.hasNext()) {
+                    final CommonsCSVChunker.Chunk chunk = chunker.next();
+                    final CSVFormat chunkFormat = chunkFormat(chunk.getIndex(), headerNames);
+                    futures.add(pool.submit(() -> {
+                        try (CSVParser parser = chunk.parse(chunkFormat)) {
+                            return function.apply(parser);
+                        }
+                    }));
+                }
+            }
+        };
+    }
+
+    /**
+     * Only the first chunk contains the header record - all other chunks use
+     * the header names of the first chunk.
+     */
+    private CSVFormat chunkFormat(int index, List<String> headerNames) {
+        if (index == 0 || format.getHeader() == null) {
+            return format;
+        }
+
+        return format.builder()
+                .setHeader(headerNames.toArray(new String[0]))
+                .setSkipHeaderRecord(false)
+                .build();
+    }
+
+    private synchronized List<String> headerNames() {
+        if (headerNames == null) {
+            if (format.getHeader() == null) {
+                headerNames = Collections.emptyList();
+            } else if (format.getHeader().length > 0) {
+                headerNames = Arrays.asList(format.getHeader());
+            } else {
+                final CommonsCSVChunker.Chunk first = new CommonsCSVChunker(dataSource, format, chunkSize).next();
+                try (CSVParser parser = first.parse(format)) {
+                    headerNames = new ArrayList<>(parser.getHeaderNames());
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to parse CSV header: " + dataSource, e);
+                }
+            }
+        }
+        return headerNames;
+    }
+
+    private synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+
+    private CSVParser sequentialParser() {
+        try {
+            // the underlying input stream is closed by the data source
+            final BOMInputStream is = new BOMInputStream(dataSource.getInputStream(), false);
+            return new CSVParser(new InputStreamReader(is, dataSource.getCharset()), format);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse CSV: " + dataSource, e);
+        }
+    }
+
+    private <T> T get(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while parsing CSV: " + dataSource, e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to parse CSV: " + dataSource, e.getCause());
+        }
+    }
+
+    private static Function<CSVRecord, String> column(String name) {
+        requireNonNull(name);
+        return record -> record.isMapped(name) ? record.get(name) : "";
+    }
+
+    private static Function<CSVRecord, String> column(Integer index) {
+        requireNonNull(index);
+        return record -> index < record.size() ? record.get(index) : "";
+    }
+
+    @FunctionalInterface
+    private interface ChunkFunction<T> {
+
+        T apply(CSVParser parser) throws IOException;
+    }
+}
@@ -23,19 +23,25 @@ import java.io.Closeable;
 import java.io.Flushable;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * Wrap <code>CSVPrinter</code> so each print method returns
  * a string to be rendered by FreeMarker instead of writing to an
- * internal writer.
+ * internal writer. Alternatively the records are printed directly
+ * to a caller-supplied writer, e.g. the output of the template, which
+ * avoids copying each record into an intermediate string.
  */
 public class CommonsCSVPrinterFacade implements Flushable, Closeable {
 
+    /** Collects the printed output or null when printing to a caller-supplied writer */
     private final StringWriter writer;
     private final CSVPrinter csvPrinter;
 
@@ -44,9 +50,24 @@ public class CommonsCSVPrinterFacade implements Flushable, Closeable {
         this.csvPrinter = new CSVPrinter(writer, format);
     }
 
+    /**
+     * Print directly to the given writer - all print methods return an empty
+     * string and the writer is not closed by the printer.
+     *
+     * @param format CSV format
+     * @param writer caller-supplied writer
+     * @throws IOException printing the header failed
+     */
+    public CommonsCSVPrinterFacade(CSVFormat format, Writer writer) throws IOException {
+        this.writer = null;
+        this.csvPrinter = new CSVPrinter(requireNonNull(writer), format);
+    }
+
     @Override
     public void close() throws IOException {
-        csvPrinter.close();
+        if (writer != null) {
+            csvPrinter.close();
+        }
     }
 
     @Override
@@ -104,6 +125,10 @@ public class CommonsCSVPrinterFacade implements Flushable, Closeable {
     }
 
     private String getOutput() {
+        if (writer == null) {
+            return "";
+        }
+
         writer.flush();
         final String output = writer.getBuffer().toString();
         writer.getBuffer().setLength(0);
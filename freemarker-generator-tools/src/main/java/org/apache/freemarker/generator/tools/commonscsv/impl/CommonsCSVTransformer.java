@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.tools.commonscsv.impl;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Copy CSV records from a parser to a printer in a tight loop, optionally
+ * selecting a subset of columns and skipping records not matching a filter.
+ * Columns are either referenced by name (requires a header) or by index.
+ * The filter maps a column to the accepted value or a collection of accepted
+ * values - a record is copied if all columns of the filter match.
+ */
+public class CommonsCSVTransformer {
+
+    private final CSVFormat targetFormat;
+    private final List<?> columns;
+    private final Map<?, ?> filter;
+
+    public CommonsCSVTransformer(CSVFormat targetFormat, List<?> columns, Map<?, ?> filter) {
+        this.targetFormat = requireNonNull(targetFormat, "targetFormat is null");
+        this.columns = columns != null ? columns : Collections.emptyList();
+        this.filter = filter != null ? filter : Collections.emptyMap();
+    }
+
+    /**
+     * Copy the matching records of the parser to the output. The output
+     * is neither flushed nor closed.
+     *
+     * @param parser CSV parser
+     * @param out    output to print to
+     * @return number of printed records
+     * @throws IOException reading or printing failed
+     */
+    public long transform(CSVParser parser, Appendable out) throws IOException {
+        final List<String> headerNames = parser.getHeaderNames();
+        final int[] columnIndices = columnIndices(headerNames);
+        final int[] filterIndices = filterIndices(headerNames);
+        final List<Set<String>> filterValues = filterValues();
+        final CSVPrinter printer = new CSVPrinter(out, targetFormat);
+
+        if (!headerNames.isEmpty() && targetFormat.getSkipHeaderRecord()) {
+            printHeader(printer, headerNames, columnIndices);
+        }
+
+        long count = 0;
+        for (CSVRecord record : parser) {
+            if (matches(record, filterIndices, filterValues)) {
+                print(printer, record, columnIndices);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void printHeader(CSVPrinter printer, List<String> headerNames, int[] columnIndices) throws IOException {
+        if (columnIndices == null) {
+            printer.printRecord(headerNames);
+        } else {
+            for (int columnIndex : columnIndices) {
+                printer.print(columnIndex < headerNames.size() ? headerNames.get(columnIndex) : "");
+            }
+            printer.println();
+        }
+    }
+
+    private static void print(CSVPrinter printer, CSVRecord record, int[] columnIndices) throws IOException {
+        if (columnIndices == null) {
+            printer.printRecord(record);
+        } else {
+            for (int columnIndex : columnIndices) {
+                printer.print(value(record, columnIndex));
+            }
+            printer.println();
+        }
+    }
+
+    private static boolean matches(CSVRecord record, int[] filterIndices, List<Set<String>> filterValues) {
+        for (int i = 0; i < filterIndices.length; i++) {
+            if (!filterValues.get(i).contains(value(record, filterIndices[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Missing trailing values of a short record are treated as empty strings */
+    private static String value(CSVRecord record, int index) {
+        return index < record.size() ? record.get(index) : "";
+    }
+
+    private int[] columnIndices(List<String> headerNames) {
+        if (columns.isEmpty()) {
+            return null;
+        }
+
+        final int[] result = new int[columns.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = columnIndex(headerNames, columns.get(i));
+        }
+        return result;
+    }
+
+    private int[] filterIndices(List<String> headerNames) {
+        final int[] result = new int[filter.size()];
+        int i = 0;
+        for (Object column : filter.keySet()) {
+            result[i++] = columnIndex(headerNames, column);
+        }
+        return result;
+    }
+
+    private List<Set<String>> filterValues() {
+        final List<Set<String>> result = new ArrayList<>(filter.size());
+        for (Object value : filter.values()) {
+            final Set<String> values = new HashSet<>();
+            if (value instanceof Collection) {
+                ((Collection<?>) value).forEach(v -> values.add(String.valueOf(v)));
+            } else {
+                values.add(String.valueOf(value));
+            }
+            result.add(values);
+        }
+        return result;
+    }
+
+    private static int columnIndex(List<String> headerNames, Object column) {
+        if (column instanceof Number) {
+            return ((Number) column).intValue();
+        }
+
+        final int index = headerNames.indexOf(String.valueOf(column));
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown CSV column: " + column);
+        }
+        return index;
+    }
+}
@@ -24,11 +24,13 @@ import de.unknownreality.dataframe.transform.ColumnDataFrameTransform;
 import de.unknownreality.dataframe.transform.CountTransformer;
 import org.apache.commons.csv.CSVParser;
 import org.apache.freemarker.generator.tools.dataframe.impl.CSVConverter;
+import org.apache.freemarker.generator.tools.dataframe.impl.DataFrameAggregator;
 import org.apache.freemarker.generator.tools.dataframe.impl.ListConverter;
 import org.apache.freemarker.generator.tools.dataframe.impl.MapConverter;
 
 import java.io.StringWriter;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -61,6 +63,19 @@ public class DataFrameTool {
         return CSVConverter.toDataFrame(csvParser);
     }
 
+    /**
+     * Create a data frame from Apache Commons CSVParser with optionally typed
+     * columns, i.e. integer, long, double and boolean columns are inferred from
+     * the values so sorting and filtering compares numbers instead of strings.
+     *
+     * @param csvParser        CSV Parser
+     * @param inferColumnTypes create typed instead of string columns
+     * @return data frame
+     */
+    public DataFrame fromCSVParser(CSVParser csvParser, boolean inferColumnTypes) {
+        return CSVConverter.toDataFrame(csvParser, inferColumnTypes);
+    }
+
     /**
      * Create a data frame from a list of maps.
      *
@@ -82,6 +97,30 @@ public class DataFrameTool {
         return ListConverter.toDataFrame(rows, withFirstRowAsColumnNames);
     }
 
+    /**
+     * Group a data frame by a column to compute aggregates in Java, e.g.
+     * <code>tools.dataframe.groupBy(users, "country").agg(["count", "avg(age)"])</code>.
+     *
+     * @param dataFrame data frame to aggregate
+     * @param column    column to group by
+     * @return aggregator
+     */
+    public DataFrameAggregator groupBy(DataFrame dataFrame, String column) {
+        return groupBy(dataFrame, Collections.singletonList(column));
+    }
+
+    /**
+     * Group a data frame by multiple columns to compute aggregates in Java, e.g.
+     * <code>tools.dataframe.groupBy(users, ["country", "age"]).count().agg()</code>.
+     *
+     * @param dataFrame data frame to aggregate
+     * @param columns   columns to group by
+     * @return aggregator
+     */
+    public DataFrameAggregator groupBy(DataFrame dataFrame, List<String> columns) {
+        return new DataFrameAggregator(dataFrame, columns);
+    }
+
     /**
      * Provide a convenience map with predefined sort orders to be used by templates.
      *
@@ -0,0 +1,420 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.tools.dataframe.impl;
+
+import de.unknownreality.dataframe.DataFrameBuilder;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Buffers the values of a CSV column using primitive arrays. The values are
+ * parsed according to the column type which is promoted when a value does
+ * not fit, i.e. integer to long to double, and any type to string. Empty
+ * values of typed columns are stored as null.
+ * <p>
+ * Leading zeros and plus signs are not treated as numbers since they would
+ * be lost, e.g. for zip codes. Integers too large for a long are strings.
+ * Values appended before a column is demoted to strings keep their original
+ * text, e.g. "1.50" or "TRUE" - the text is only kept for values which can't
+ * be formatted losslessly from their parsed value.
+ */
+final class CSVColumn {
+
+    enum Type {
+        INTEGER,
+        LONG,
+        DOUBLE,
+        BOOLEAN,
+        STRING
+    }
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Long values with up to 18 digits can't overflow */
+    private static final int MAX_SAFE_LONG_DIGITS = 18;
+
+    private final String name;
+    private Type type;
+    private int size;
+
+    private int[] ints;
+    private long[] longs;
+    private double[] doubles;
+    private boolean[] booleans;
+    private String[] strings;
+
+    /** Original text of typed values not matching their formatted value, lazily allocated */
+    private String[] texts;
+
+    /** Rows containing empty values of a typed column */
+    private final BitSet nulls;
+
+    CSVColumn(String name, Type type) {
+        this.name = name;
+        this.type = type;
+        this.size = 0;
+        this.nulls = new BitSet();
+        allocate(type, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Determine the narrowest type for both types.
+     *
+     * @param current current type or null if unknown
+     * @param value   value to fit into the type
+     * @return type
+     */
+    static Type widen(Type current, String value) {
+        if (value == null || value.isEmpty()) {
+            return current;
+        }
+
+        final Type type = typeOf(value);
+        if (current == null || current == type) {
+            return type;
+        } else if (isNumeric(current) && isNumeric(type)) {
+            return current.ordinal() > type.ordinal() ? current : type;
+        } else {
+            return Type.STRING;
+        }
+    }
+
+    void add(String value) {
+        final String current = value != null ? value : "";
+
+        if (type != Type.STRING) {
+            if (current.isEmpty()) {
+                ensureCapacity();
+                nulls.set(size++);
+                return;
+            }
+            final Type widened = widen(type, current);
+            if (widened != type) {
+                promote(widened);
+            }
+        }
+
+        ensureCapacity();
+        switch (type) {
+            case INTEGER:
+                ints[size] = Integer.parseInt(current);
+                break;
+            case LONG:
+                longs[size] = Long.parseLong(current);
+                break;
+            case DOUBLE:
+                doubles[size] = Double.parseDouble(current);
+                break;
+            case BOOLEAN:
+                booleans[size] = Boolean.parseBoolean(current);
+                break;
+            default:
+                strings[size] = current;
+        }
+        if (type != Type.STRING && !isFormatted(current, size)) {
+            setText(size, current);
+        }
+        size++;
+    }
+
+    Comparable<?> get(int row) {
+        if (nulls.get(row)) {
+            return null;
+        }
+
+        switch (type) {
+            case INTEGER:
+                return ints[row];
+            case LONG:
+                return longs[row];
+            case DOUBLE:
+                return doubles[row];
+            case BOOLEAN:
+                return booleans[row];
+            default:
+                return strings[row];
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    DataFrameBuilder addTo(DataFrameBuilder builder) {
+        switch (type) {
+            case INTEGER:
+                return builder.addIntegerColumn(name);
+            case LONG:
+                return builder.addLongColumn(name);
+            case DOUBLE:
+                return builder.addDoubleColumn(name);
+            case BOOLEAN:
+                return builder.addBooleanColumn(name);
+            default:
+                return builder.addStringColumn(name);
+        }
+    }
+
+    private void promote(Type target) {
+        final Type source = type;
+        final int capacity = Math.max(size, INITIAL_CAPACITY);
+        final String[] values = target == Type.STRING || target == Type.DOUBLE ? new String[size] : null;
+
+        if (values != null) {
+            // keep the text of integers since doubles are formatted differently
+            for (int i = 0; i < size; i++) {
+                values[i] = text(i);
+            }
+        }
+
+        allocate(target, capacity);
+        for (int i = 0; i < size; i++) {
+            if (target == Type.STRING) {
+                strings[i] = values[i] != null ? values[i] : "";
+            } else if (!nulls.get(i)) {
+                if (target == Type.LONG) {
+                    longs[i] = ints[i];
+                } else {
+                    doubles[i] = source == Type.INTEGER ? ints[i] : longs[i];
+                    if (!values[i].equals(String.valueOf(doubles[i]))) {
+                        setText(i, values[i]);
+                    }
+                }
+            }
+        }
+
+        if (target == Type.STRING) {
+            nulls.clear();
+            texts = null;
+        }
+        release(source, target);
+        type = target;
+    }
+
+    /**
+     * Get the original text of a value.
+     *
+     * @param row row
+     * @return original text or null for an empty value
+     */
+    private String text(int row) {
+        if (nulls.get(row)) {
+            return null;
+        } else if (texts != null && row < texts.length && texts[row] != null) {
+            return texts[row];
+        } else {
+            return format(row);
+        }
+    }
+
+    private String format(int row) {
+        return String.valueOf(get(row));
+    }
+
+    /**
+     * Check if the text of a value is the same as its formatted value. Integers are
+     * always formatted the same except "-0" so no string needs to be created.
+     */
+    private boolean isFormatted(String text, int row) {
+        if (type == Type.INTEGER || type == Type.LONG) {
+            return !text.equals("-0");
+        }
+        return text.equals(format(row));
+    }
+
+    private void setText(int row, String text) {
+        if (texts == null) {
+            texts = new String[capacity()];
+        } else if (texts.length <= row) {
+            texts = Arrays.copyOf(texts, capacity());
+        }
+        texts[row] = text;
+    }
+
+    private void allocate(Type type, int capacity) {
+        switch (type) {
+            case INTEGER:
+                ints = new int[capacity];
+                break;
+            case LONG:
+                longs = new long[capacity];
+                break;
+            case DOUBLE:
+                doubles = new double[capacity];
+                break;
+            case BOOLEAN:
+                booleans = new boolean[capacity];
+                break;
+            default:
+                strings = new String[capacity];
+        }
+    }
+
+    private void release(Type source, Type target) {
+        if (source != target) {
+            switch (source) {
+                case INTEGER:
+                    ints = null;
+                    break;
+                case LONG:
+                    longs = null;
+                    break;
+                case DOUBLE:
+                    doubles = null;
+                    break;
+                case BOOLEAN:
+                    booleans = null;
+                    break;
+                default:
+                    strings = null;
+            }
+        }
+    }
+
+    private void ensureCapacity() {
+        final int capacity = capacity();
+        if (size == capacity) {
+            final int newCapacity = capacity + (capacity >> 1);
+            switch (type) {
+                case INTEGER:
+                    ints = Arrays.copyOf(ints, newCapacity);
+                    break;
+                case LONG:
+                    longs = Arrays.copyOf(longs, newCapacity);
+                    break;
+                case DOUBLE:
+                    doubles = Arrays.copyOf(doubles, newCapacity);
+                    break;
+                case BOOLEAN:
+                    booleans = Arrays.copyOf(booleans, newCapacity);
+                    break;
+                default:
+                    strings = Arrays.copyOf(strings, newCapacity);
+            }
+            if (texts != null) {
+                texts = Arrays.copyOf(texts, newCapacity);
+            }
+        }
+    }
+
+    private int capacity() {
+        switch (type) {
+            case INTEGER:
+                return ints.length;
+            case LONG:
+                return longs.length;
+            case DOUBLE:
+                return doubles.length;
+            case BOOLEAN:
+                return booleans.length;
+            default:
+                return strings.length;
+        }
+    }
+
+    private static boolean isNumeric(Type type) {
+        return type == Type.INTEGER || type == Type.LONG || type == Type.DOUBLE;
+    }
+
+    private static Type typeOf(String value) {
+        if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
+            return Type.BOOLEAN;
+        }
+
+        final int start = value.charAt(0) == '-' ? 1 : 0;
+        final int length = value.length();
+        if (start == length || value.charAt(start) == '0' && length > start + 1 && value.charAt(start + 1) != '.') {
+            // no digits or leading zeros
+            return Type.STRING;
+        }
+
+        int i = start;
+        while (i < length && isDigit(value.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            return integerType(value, length - start);
+        }
+
+        return isDecimal(value, start) ? Type.DOUBLE : Type.STRING;
+    }
+
+    /**
+     * Integers too large for a long are kept as strings, e.g. identifiers, since
+     * a double would lose their digits.
+     */
+    private static Type integerType(String value, int digits) {
+        if (digits > MAX_SAFE_LONG_DIGITS + 1) {
+            return Type.STRING;
+        }
+        try {
+            final long result = Long.parseLong(value);
+            return result >= Integer.MIN_VALUE && result <= Integer.MAX_VALUE ? Type.INTEGER : Type.LONG;
+        } catch (NumberFormatException e) {
+            // overflow of a 19 digit value
+            return Type.STRING;
+        }
+    }
+
+    /**
+     * Check for "digits [. digits] [(e|E) [-|+] digits]" with at least one digit
+     * before the exponent which is always accepted by <code>Double.parseDouble</code>.
+     */
+    private static boolean isDecimal(String value, int start) {
+        final int length = value.length();
+        int i = start;
+        int digits = 0;
+
+        while (i < length && isDigit(value.charAt(i))) {
+            i++;
+            digits++;
+        }
+        if (i < length && value.charAt(i) == '.') {
+            i++;
+            while (i < length && isDigit(value.charAt(i))) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < length && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+                i++;
+            }
+            final int exponentStart = i;
+            while (i < length && isDigit(value.charAt(i))) {
+                i++;
+            }
+            if (i == exponentStart) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
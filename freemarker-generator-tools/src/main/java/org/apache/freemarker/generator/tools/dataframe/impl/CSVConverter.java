@@ -21,48 +21,106 @@ import de.unknownreality.dataframe.DataFrameBuilder;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 public class CSVConverter {
 
+    /** Number of records used to infer the column types */
+    private static final int SAMPLE_SIZE = 1000;
+
     /**
-     * Create a data frame from  Apache Commons CSV Parser.
+     * Create a data frame with string columns from Apache Commons CSV Parser.
      *
      * @param csvParser CSV Parser
      * @return data frame
      */
     public static DataFrame toDataFrame(CSVParser csvParser) {
-        try {
-            final List<String> headerNames = csvParser.getHeaderNames();
-            final DataFrameBuilder builder = DataFrameBuilder.create();
-            final List<CSVRecord> records = csvParser.getRecords();
-            final CSVRecord firstRecord = records.get(0);
-
-            //  build dataframe with headers
-            if (!headerNames.isEmpty()) {
-                headerNames.forEach(builder::addStringColumn);
-            } else {
-                for (int i = 0; i < firstRecord.size(); i++) {
-                    builder.addStringColumn(ConverterUtils.getAlphaColumnName(i + 1));
-                }
-            }
+        return toDataFrame(csvParser, false);
+    }
+
+    /**
+     * Create a data frame from Apache Commons CSV Parser in a single pass over
+     * the records. When inferring the column types integer, long, double and
+     * boolean columns are created based on a sample of the first records - a
+     * column is promoted to a wider type if required by subsequent records.
+     *
+     * @param csvParser        CSV Parser
+     * @param inferColumnTypes create typed instead of string columns
+     * @return data frame
+     */
+    public static DataFrame toDataFrame(CSVParser csvParser, boolean inferColumnTypes) {
+        final Iterator<CSVRecord> iterator = csvParser.iterator();
+        final List<CSVRecord> sample = new ArrayList<>();
+        while (sample.size() < (inferColumnTypes ? SAMPLE_SIZE : 1) && iterator.hasNext()) {
+            sample.add(iterator.next());
+        }
+
+        final List<String> columnNames = columnNames(csvParser.getHeaderNames(), sample);
+        final CSVColumn[] columns = new CSVColumn[columnNames.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new CSVColumn(columnNames.get(i), inferColumnTypes ? inferType(sample, i) : CSVColumn.Type.STRING);
+        }
 
-            final DataFrame dataFrame = builder.build();
+        sample.forEach(record -> append(columns, record));
+        sample.clear();
+        iterator.forEachRemaining(record -> append(columns, record));
 
-            // populate rows
-            final String[] currValues = new String[firstRecord.size()];
-            for (CSVRecord csvRecord : records) {
-                for (int i = 0; i < currValues.length; i++) {
-                    currValues[i] = csvRecord.get(i);
-                }
-                dataFrame.append(currValues);
+        return build(columns);
+    }
+
+    private static List<String> columnNames(List<String> headerNames, List<CSVRecord> sample) {
+        if (!headerNames.isEmpty()) {
+            return headerNames;
+        }
+
+        final List<String> result = new ArrayList<>();
+        final int size = sample.isEmpty() ? 0 : sample.get(0).size();
+        for (int i = 0; i < size; i++) {
+            result.add(ConverterUtils.getAlphaColumnName(i + 1));
+        }
+        return result;
+    }
+
+    private static CSVColumn.Type inferType(List<CSVRecord> sample, int column) {
+        CSVColumn.Type result = null;
+        for (CSVRecord record : sample) {
+            result = CSVColumn.widen(result, value(record, column));
+            if (result == CSVColumn.Type.STRING) {
+                break;
             }
+        }
+        // columns without any values in the sample are kept as strings
+        return result != null ? result : CSVColumn.Type.STRING;
+    }
 
-            return dataFrame;
-        } catch (IOException e) {
-            throw new RuntimeException("Unable to create DataFrame", e);
+    private static void append(CSVColumn[] columns, CSVRecord record) {
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].add(value(record, i));
         }
     }
 
+    private static DataFrame build(CSVColumn[] columns) {
+        final DataFrameBuilder builder = DataFrameBuilder.create();
+        for (CSVColumn column : columns) {
+            column.addTo(builder);
+        }
+
+        final DataFrame dataFrame = builder.build();
+        final int rows = columns.length > 0 ? columns[0].size() : 0;
+        final Comparable<?>[] values = new Comparable<?>[columns.length];
+        for (int row = 0; row < rows; row++) {
+            for (int i = 0; i < columns.length; i++) {
+                values[i] = columns[i].get(row);
+            }
+            dataFrame.append(values);
+        }
+        return dataFrame;
+    }
+
+    /** Missing trailing values of a short record are treated as empty strings */
+    private static String value(CSVRecord record, int index) {
+        return index < record.size() ? record.get(index) : "";
+    }
 }
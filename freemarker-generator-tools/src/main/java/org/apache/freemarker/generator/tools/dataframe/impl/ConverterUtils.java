@@ -41,7 +41,7 @@ public class ConverterUtils {
         return result.toString();
     }
 
-    private static DataFrameBuilder addColumn(DataFrameBuilder builder, String columnName, Class<?> columnType) {
+    static DataFrameBuilder addColumn(DataFrameBuilder builder, String columnName, Class<?> columnType) {
         switch (columnType.getName()) {
             case "java.lang.Boolean":
                 return builder.addBooleanColumn(columnName);
@@ -0,0 +1,571 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.tools.dataframe.impl;
+
+import de.unknownreality.dataframe.DataFrame;
+import de.unknownreality.dataframe.DataFrameBuilder;
+import de.unknownreality.dataframe.DataFrameColumn;
+import org.apache.freemarker.generator.base.util.Validate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Group the rows of a data frame by one or more columns and compute aggregates
+ * (count, sum, avg, min, max, percentiles) per group in Java instead of
+ * iterating over rows in a template. Groups are hashed and the aggregates are
+ * accumulated into primitive arrays indexed by group. Large data frames are
+ * split into row ranges aggregated concurrently and merged afterwards.
+ * <p>
+ * The resulting data frame contains the group columns followed by a column
+ * per aggregate, e.g. "count", "sum_age" or "p90_age", with the groups in
+ * the order of their first occurrence. Numeric aggregates skip missing values
+ * and accept numeric strings.
+ */
+public class DataFrameAggregator {
+
+    /** Data frames with fewer rows are aggregated on the calling thread */
+    static final int MIN_PARALLEL_ROWS = 100_000;
+
+    /** E.g. "count", "sum(age)" or "p90(age)" */
+    private static final Pattern SPEC_PATTERN = Pattern.compile("^\\s*(\\w+)\\s*(?:\\(\\s*([^)]*?)\\s*\\))?\\s*$");
+    private static final Pattern PERCENTILE_PATTERN = Pattern.compile("^p(\\d{1,2}(?:\\.\\d+)?)$");
+
+    private final DataFrame dataFrame;
+    private final List<String> groupColumns;
+    private final List<Aggregate> aggregates;
+    private boolean isParallel;
+    private int minParallelRows;
+    private int partitions;
+
+    public DataFrameAggregator(DataFrame dataFrame, List<String> groupColumns) {
+        Validate.isTrue(groupColumns != null && !groupColumns.isEmpty(), "No group columns provided");
+
+        this.dataFrame = requireNonNull(dataFrame);
+        this.groupColumns = new ArrayList<>(groupColumns);
+        this.aggregates = new ArrayList<>();
+        this.isParallel = true;
+        this.minParallelRows = MIN_PARALLEL_ROWS;
+        this.partitions = Runtime.getRuntime().availableProcessors();
+    }
+
+    public DataFrameAggregator count() {
+        return add(new Aggregate(Function.COUNT, null, 0));
+    }
+
+    public DataFrameAggregator sum(String column) {
+        return add(new Aggregate(Function.SUM, column, 0));
+    }
+
+    public DataFrameAggregator avg(String column) {
+        return add(new Aggregate(Function.AVG, column, 0));
+    }
+
+    public DataFrameAggregator min(String column) {
+        return add(new Aggregate(Function.MIN, column, 0));
+    }
+
+    public DataFrameAggregator max(String column) {
+        return add(new Aggregate(Function.MAX, column, 0));
+    }
+
+    /**
+     * Compute a percentile using linear interpolation between the closest ranks.
+     *
+     * @param column     column name
+     * @param percentile percentile between 0 and 100, e.g. 50 for the median
+     * @return this aggregator
+     */
+    public DataFrameAggregator percentile(String column, double percentile) {
+        return add(percentileAggregate(column, percentile));
+    }
+
+    /**
+     * Allow aggregating large data frames concurrently (enabled by default).
+     *
+     * @param isParallel aggregate concurrently
+     * @return this aggregator
+     */
+    public DataFrameAggregator parallel(boolean isParallel) {
+        this.isParallel = isParallel;
+        return this;
+    }
+
+    /**
+     * Change how large data frames are split into row ranges, e.g. to
+     * exercise merging partial results with small data frames in tests.
+     *
+     * @param minParallelRows data frames with fewer rows are not split
+     * @param partitions      number of row ranges
+     * @return this aggregator
+     */
+    DataFrameAggregator partitioning(int minParallelRows, int partitions) {
+        Validate.isTrue(partitions > 0, "Partitions must be positive: " + partitions);
+        this.minParallelRows = minParallelRows;
+        this.partitions = partitions;
+        return this;
+    }
+
+    /**
+     * Compute the aggregates given as list of specifications, i.e. "count",
+     * "sum(column)", "avg(column)", "min(column)", "max(column)", "median(column)"
+     * or a percentile such as "p90(column)". The aggregates are computed in
+     * addition to those already added and are not retained by this aggregator.
+     *
+     * @param specs aggregate specifications
+     * @return data frame containing the groups and their aggregates
+     */
+    public DataFrame agg(List<String> specs) {
+        final List<Aggregate> result = new ArrayList<>(aggregates);
+        specs.forEach(spec -> result.add(parse(spec)));
+        return aggregate(result);
+    }
+
+    /**
+     * Compute the aggregates.
+     *
+     * @return data frame containing the groups and their aggregates
+     */
+    public DataFrame agg() {
+        return aggregate(aggregates);
+    }
+
+    @Override
+    public String toString() {
+        return "DataFrameAggregator{" +
+                "groupColumns=" + groupColumns +
+                ", aggregates=" + aggregates +
+                '}';
+    }
+
+    private DataFrame aggregate(List<Aggregate> aggregates) {
+        final DataFrameColumn<?, ?>[] keyColumns = columns(groupColumns);
+        final DataFrameColumn<?, ?>[] valueColumns = columns(aggregates.stream().map(a -> a.column).collect(Collectors.toList()));
+        final int rows = dataFrame.size();
+        final int count = isParallel && rows >= minParallelRows ? partitions : 1;
+        final int partitionSize = (rows + count - 1) / count;
+
+        final List<Partial> partials = IntStream.range(0, count)
+                .parallel()
+                .mapToObj(p -> aggregate(aggregates, keyColumns, valueColumns, p * partitionSize, Math.min(rows, (p + 1) * partitionSize)))
+                .collect(Collectors.toList());
+
+        final Partial result = partials.get(0);
+        for (int i = 1; i < partials.size(); i++) {
+            result.merge(partials.get(i));
+        }
+        return toDataFrame(aggregates, result);
+    }
+
+    private static Aggregate parse(String spec) {
+        final Matcher matcher = SPEC_PATTERN.matcher(spec);
+        Validate.isTrue(matcher.matches(), "Invalid aggregate: " + spec);
+
+        final String name = matcher.group(1).toLowerCase();
+        final String column = matcher.group(2);
+        if (name.equals("count")) {
+            return new Aggregate(Function.COUNT, null, 0);
+        }
+
+        Validate.isTrue(column != null && !column.isEmpty(), "No column provided for aggregate: " + spec);
+        switch (name) {
+            case "sum":
+                return new Aggregate(Function.SUM, column, 0);
+            case "avg":
+                return new Aggregate(Function.AVG, column, 0);
+            case "min":
+                return new Aggregate(Function.MIN, column, 0);
+            case "max":
+                return new Aggregate(Function.MAX, column, 0);
+            case "median":
+                return percentileAggregate(column, 50);
+            default:
+                final Matcher percentile = PERCENTILE_PATTERN.matcher(name);
+                Validate.isTrue(percentile.matches(), "Unsupported aggregate: " + spec);
+                return percentileAggregate(column, Double.parseDouble(percentile.group(1)));
+        }
+    }
+
+    private static Aggregate percentileAggregate(String column, double percentile) {
+        Validate.isTrue(percentile >= 0 && percentile <= 100, "Percentile must be between 0 and 100: " + percentile);
+        return new Aggregate(Function.PERCENTILE, column, percentile);
+    }
+
+    private DataFrameAggregator add(Aggregate aggregate) {
+        aggregates.add(aggregate);
+        return this;
+    }
+
+    private DataFrameColumn<?, ?>[] columns(List<String> names) {
+        final DataFrameColumn<?, ?>[] result = new DataFrameColumn<?, ?>[names.size()];
+        for (int i = 0; i < result.length; i++) {
+            if (names.get(i) != null) {
+                result[i] = dataFrame.getColumn(names.get(i));
+                Validate.isTrue(result[i] != null, "Unknown column: " + names.get(i));
+            }
+        }
+        return result;
+    }
+
+    private static Partial aggregate(List<Aggregate> aggregates, DataFrameColumn<?, ?>[] keyColumns, DataFrameColumn<?, ?>[] valueColumns, int start, int end) {
+        final Partial partial = new Partial(aggregates);
+        for (int row = start; row < end; row++) {
+            final int group = partial.group(key(keyColumns, row));
+            for (int i = 0; i < valueColumns.length; i++) {
+                partial.accumulators[i].add(group, valueColumns[i] != null ? valueColumns[i].get(row) : null);
+            }
+        }
+        return partial;
+    }
+
+    private static Object key(DataFrameColumn<?, ?>[] keyColumns, int row) {
+        if (keyColumns.length == 1) {
+            return keyColumns[0].get(row);
+        }
+
+        final Object[] result = new Object[keyColumns.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = keyColumns[i].get(row);
+        }
+        return Arrays.asList(result);
+    }
+
+    private DataFrame toDataFrame(List<Aggregate> aggregates, Partial partial) {
+        final DataFrameBuilder builder = DataFrameBuilder.create();
+        for (int i = 0; i < groupColumns.size(); i++) {
+            ConverterUtils.addColumn(builder, groupColumns.get(i), keyType(partial.keys, i));
+        }
+        for (Aggregate aggregate : aggregates) {
+            if (aggregate.function == Function.COUNT) {
+                builder.addLongColumn(aggregate.name);
+            } else {
+                builder.addDoubleColumn(aggregate.name);
+            }
+        }
+
+        final DataFrame result = builder.build();
+        final Comparable<?>[] values = new Comparable<?>[groupColumns.size() + aggregates.size()];
+        for (int group = 0; group < partial.keys.size(); group++) {
+            for (int i = 0; i < groupColumns.size(); i++) {
+                values[i] = (Comparable<?>) keyValue(partial.keys.get(group), i);
+            }
+            for (int i = 0; i < aggregates.size(); i++) {
+                values[groupColumns.size() + i] = partial.accumulators[i].result(group);
+            }
+            result.append(values);
+        }
+        return result;
+    }
+
+    private Class<?> keyType(List<Object> keys, int index) {
+        for (Object key : keys) {
+            final Object value = keyValue(key, index);
+            if (value != null) {
+                return value.getClass();
+            }
+        }
+        return String.class;
+    }
+
+    private Object keyValue(Object key, int index) {
+        return groupColumns.size() == 1 ? key : ((List<?>) key).get(index);
+    }
+
+    private enum Function {
+        COUNT,
+        SUM,
+        AVG,
+        MIN,
+        MAX,
+        PERCENTILE
+    }
+
+    private static final class Aggregate {
+
+        private final Function function;
+        private final String column;
+        private final double percentile;
+        private final String name;
+
+        Aggregate(Function function, String column, double percentile) {
+            this.function = function;
+            this.column = column;
+            this.percentile = percentile;
+            this.name = name(function, column, percentile);
+        }
+
+        Accumulator accumulator() {
+            switch (function) {
+                case COUNT:
+                    return new CountAccumulator();
+                case PERCENTILE:
+                    return new PercentileAccumulator(column, percentile);
+                default:
+                    return new NumericAccumulator(function, column);
+            }
+        }
+
+        private static String name(Function function, String column, double percentile) {
+            if (function == Function.COUNT) {
+                return "count";
+            } else if (function == Function.PERCENTILE) {
+                final String value = percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+                return "p" + value + "_" + column;
+            } else {
+                return function.name().toLowerCase() + "_" + column;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * Groups and accumulators of a range of rows.
+     */
+    private static final class Partial {
+
+        private final Map<Object, Integer> groups;
+        private final List<Object> keys;
+        private final Accumulator[] accumulators;
+
+        Partial(List<Aggregate> aggregates) {
+            this.groups = new HashMap<>();
+            this.keys = new ArrayList<>();
+            this.accumulators = aggregates.stream().map(Aggregate::accumulator).toArray(Accumulator[]::new);
+        }
+
+        int group(Object key) {
+            final Integer group = groups.get(key);
+            if (group != null) {
+                return group;
+            }
+
+            final int result = keys.size();
+            groups.put(key, result);
+            keys.add(key);
+            for (Accumulator accumulator : accumulators) {
+                accumulator.ensureCapacity(result + 1);
+            }
+            return result;
+        }
+
+        /**
+         * Merge the groups of a subsequent partial keeping the order of first occurrence.
+         */
+        void merge(Partial other) {
+            final int[] mapping = new int[other.keys.size()];
+            for (int i = 0; i < mapping.length; i++) {
+                mapping[i] = group(other.keys.get(i));
+            }
+            for (int i = 0; i < accumulators.length; i++) {
+                accumulators[i].merge(other.accumulators[i], mapping);
+            }
+        }
+    }
+
+    private interface Accumulator {
+
+        void ensureCapacity(int groups);
+
+        void add(int group, Object value);
+
+        void merge(Accumulator other, int[] mapping);
+
+        Comparable<?> result(int group);
+    }
+
+    private static final class CountAccumulator implements Accumulator {
+
+        private long[] counts = new long[16];
+
+        @Override
+        public void ensureCapacity(int groups) {
+            if (groups > counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(groups, counts.length * 2));
+            }
+        }
+
+        @Override
+        public void add(int group, Object value) {
+            counts[group]++;
+        }
+
+        @Override
+        public void merge(Accumulator other, int[] mapping) {
+            final CountAccumulator source = (CountAccumulator) other;
+            for (int i = 0; i < mapping.length; i++) {
+                counts[mapping[i]] += source.counts[i];
+            }
+        }
+
+        @Override
+        public Comparable<?> result(int group) {
+            return counts[group];
+        }
+    }
+
+    private static final class NumericAccumulator implements Accumulator {
+
+        private final Function function;
+        private final String column;
+        private long[] counts = new long[16];
+        private double[] values = new double[16];
+
+        NumericAccumulator(Function function, String column) {
+            this.function = function;
+            this.column = column;
+        }
+
+        @Override
+        public void ensureCapacity(int groups) {
+            if (groups > counts.length) {
+                final int capacity = Math.max(groups, counts.length * 2);
+                counts = Arrays.copyOf(counts, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+        }
+
+        @Override
+        public void add(int group, Object value) {
+            if (!isMissing(value)) {
+                accumulate(group, 1, toDouble(column, value));
+            }
+        }
+
+        @Override
+        public void merge(Accumulator other, int[] mapping) {
+            final NumericAccumulator source = (NumericAccumulator) other;
+            for (int i = 0; i < mapping.length; i++) {
+                if (source.counts[i] > 0) {
+                    accumulate(mapping[i], source.counts[i], source.values[i]);
+                }
+            }
+        }
+
+        @Override
+        public Comparable<?> result(int group) {
+            if (counts[group] == 0) {
+                return null;
+            }
+            return function == Function.AVG ? values[group] / counts[group] : values[group];
+        }
+
+        /** For SUM and AVG the value is a sum, for MIN and MAX the current extreme */
+        private void accumulate(int group, long count, double value) {
+            if (counts[group] == 0) {
+                values[group] = value;
+            } else if (function == Function.MIN) {
+                values[group] = Math.min(values[group], value);
+            } else if (function == Function.MAX) {
+                values[group] = Math.max(values[group], value);
+            } else {
+                values[group] += value;
+            }
+            counts[group] += count;
+        }
+    }
+
+    private static final class PercentileAccumulator implements Accumulator {
+
+        private final String column;
+        private final double percentile;
+        private double[][] values = new double[16][];
+        private int[] sizes = new int[16];
+
+        PercentileAccumulator(String column, double percentile) {
+            this.column = column;
+            this.percentile = percentile;
+        }
+
+        @Override
+        public void ensureCapacity(int groups) {
+            if (groups > sizes.length) {
+                final int capacity = Math.max(groups, sizes.length * 2);
+                values = Arrays.copyOf(values, capacity);
+                sizes = Arrays.copyOf(sizes, capacity);
+            }
+        }
+
+        @Override
+        public void add(int group, Object value) {
+            if (!isMissing(value)) {
+                append(group, toDouble(column, value));
+            }
+        }
+
+        @Override
+        public void merge(Accumulator other, int[] mapping) {
+            final PercentileAccumulator source = (PercentileAccumulator) other;
+            for (int i = 0; i < mapping.length; i++) {
+                for (int j = 0; j < source.sizes[i]; j++) {
+                    append(mapping[i], source.values[i][j]);
+                }
+            }
+        }
+
+        @Override
+        public Comparable<?> result(int group) {
+            final int size = sizes[group];
+            if (size == 0) {
+                return null;
+            }
+
+            final double[] sorted = Arrays.copyOf(values[group], size);
+            Arrays.sort(sorted);
+            final double rank = (size - 1) * percentile / 100;
+            final int lower = (int) Math.floor(rank);
+            final int upper = Math.min(lower + 1, size - 1);
+            return sorted[lower] + (rank - lower) * (sorted[upper] - sorted[lower]);
+        }
+
+        private void append(int group, double value) {
+            if (values[group] == null) {
+                values[group] = new double[8];
+            } else if (sizes[group] == values[group].length) {
+                values[group] = Arrays.copyOf(values[group], sizes[group] * 2);
+            }
+            values[group][sizes[group]++] = value;
+        }
+    }
+
+    private static boolean isMissing(Object value) {
+        return value == null || (value instanceof String && ((String) value).trim().isEmpty());
+    }
+
+    private static double toDouble(String column, Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        try {
+            return Double.parseDouble(value.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Non-numeric value in column " + column + ": " + value, e);
+        }
+    }
+}
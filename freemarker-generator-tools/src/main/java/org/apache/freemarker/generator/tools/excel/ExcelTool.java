@@ -17,6 +17,10 @@
 package org.apache.freemarker.generator.tools.excel;
 
 import org.apache.freemarker.generator.base.datasource.DataSource;
+import org.apache.freemarker.generator.tools.excel.impl.XlsxRowIterator;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.DataFormatter;
@@ -26,28 +30,37 @@ import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static org.apache.poi.ss.usermodel.Row.MissingCellPolicy.CREATE_NULL_AS_BLANK;
 
 /**
- * Parse Excel documents (XLS &amp; XLSX) using Apache POI.
+ * Parse Excel documents (XLS &amp; XLSX) using Apache POI. The tool is stateless
+ * and can be used concurrently.
  */
 public class ExcelTool {
 
     private static final boolean EMULATE_CSV = true;
-    private static final SimpleDateFormat TIME_DATE_FORMAT = new SimpleDateFormat("HH:mm:ss");
-    private static final SimpleDateFormat YEAR_TIME_FORMAT = new SimpleDateFormat("yyyy");
+
+    /** Excel stores "time-only" values as time on 31-Dec-1899 */
+    private static final int TIME_ONLY_YEAR = 1899;
 
     public Workbook parse(DataSource dataSource) {
         try (InputStream is = dataSource.getUnsafeInputStream()) {
@@ -99,6 +112,46 @@ public class ExcelTool {
         return result;
     }
 
+    /**
+     * Transform all sheets of a workbook into tables. The sheets are converted
+     * concurrently and returned in the order of the sheets.
+     *
+     * @param workbook The workbook
+     * @return Tables containing formatted cell values as strings
+     */
+    public List<List<List<Object>>> toTables(Workbook workbook) {
+        return convertSheets(workbook, this::toTable);
+    }
+
+    /**
+     * Transform all sheets of an Excel data source into tables. The sheets are
+     * converted concurrently and returned in the order of the sheets.
+     *
+     * @param dataSource Excel data source
+     * @return Tables containing formatted cell values as strings
+     */
+    public List<List<List<Object>>> toTables(DataSource dataSource) {
+        return toTables(parse(dataSource));
+    }
+
+    /**
+     * Pass the formatted rows of all sheets to the consumer without creating
+     * tables. The sheets are processed concurrently, i.e. the consumer must be
+     * thread-safe but receives the rows of a single sheet in their order.
+     *
+     * @param workbook The workbook
+     * @param consumer Consumer of sheet and its formatted row
+     */
+    public void forEachRow(Workbook workbook, BiConsumer<Sheet, List<Object>> consumer) {
+        convertSheets(workbook, sheet -> {
+            final DataFormatter dataFormatter = dataFormatter();
+            for (Row row : sheet) {
+                consumer.accept(sheet, toColumns(row, dataFormatter));
+            }
+            return sheet;
+        });
+    }
+
     /**
      * EXPERIMENTAL FEATURE
      * <p>
@@ -120,11 +173,85 @@ public class ExcelTool {
         return result;
     }
 
+    /**
+     * Lazily iterate over the formatted rows of the first sheet of a XLSX
+     * document without loading the workbook into memory. The rows are
+     * formatted like {@link #toTable(Sheet)} does. The iterator is closed
+     * by the data source.
+     *
+     * @param dataSource XLSX data source
+     * @return iterator of rows containing formatted cell values as strings
+     */
+    public Iterator<List<Object>> iterate(DataSource dataSource) {
+        return iterate(dataSource, null);
+    }
+
+    /**
+     * Lazily iterate over the formatted rows of a sheet of a XLSX document
+     * without loading the workbook into memory. The iterator is closed by
+     * the data source.
+     *
+     * @param dataSource XLSX data source
+     * @param sheetName  name of the sheet or null for the first sheet
+     * @return iterator of rows containing formatted cell values as strings
+     */
+    public Iterator<List<Object>> iterate(DataSource dataSource, String sheetName) {
+        return dataSource.addClosable(new XlsxRowIterator(openPackage(dataSource), sheetName));
+    }
+
     @Override
     public String toString() {
         return "Process Excels files (XLS, XLSX) using Apache POI (see https://poi.apache.org)";
     }
 
+    /**
+     * Convert the sheets of a workbook concurrently - a sheet is only read by a
+     * single thread and the workbook must not be modified in the meantime.
+     */
+    private <T> List<T> convertSheets(Workbook workbook, Function<Sheet, T> converter) {
+        final List<Sheet> sheets = getSheets(workbook);
+        final int parallelism = Math.min(sheets.size(), Runtime.getRuntime().availableProcessors());
+        if (parallelism <= 1) {
+            return sheets.stream().map(converter).collect(Collectors.toList());
+        }
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(parallelism);
+        try {
+            final List<Future<T>> futures = sheets.stream()
+                    .map(sheet -> executorService.submit(() -> converter.apply(sheet)))
+                    .collect(Collectors.toList());
+            final List<T> result = new ArrayList<>(futures.size());
+            for (Future<T> future : futures) {
+                result.add(future.get());
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while converting Excel sheets", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to convert Excel sheet", e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Files are opened directly to avoid buffering the whole ZIP archive in memory.
+     */
+    private static OPCPackage openPackage(DataSource dataSource) {
+        try {
+            if ("file".equals(dataSource.getUri().getScheme())) {
+                return OPCPackage.open(new File(dataSource.getUri()), PackageAccess.READ);
+            } else {
+                try (InputStream is = dataSource.getUnsafeInputStream()) {
+                    return OPCPackage.open(is);
+                }
+            }
+        } catch (IOException | InvalidFormatException e) {
+            throw new RuntimeException("Failed to open XLSX data source: " + dataSource, e);
+        }
+    }
+
     private static List<Object> toColumns(Row row, DataFormatter dataFormatter) {
         final List<Object> columnValues = new ArrayList<>();
         for (int columnIndex = 0; columnIndex < row.getLastCellNum(); columnIndex++) {
@@ -160,32 +287,33 @@ public class ExcelTool {
     /**
      * Try desperately to make sense out of Excel and its handling of dates.
      * See https://stackoverflow.com/questions/15710888/reading-time-values-from-spreadsheet-using-poi-api.
+     * The date is classified using its local date and time fields instead of
+     * formatting it, so no shared (and not thread-safe) date formats are needed.
      *
      * @param cell Cell containing some sort of date or time
      * @return The corresponding Java instance
      */
-    private static synchronized Object toDateCellValue(Cell cell) {
+    private static Object toDateCellValue(Cell cell) {
         final Date date = cell.getDateCellValue();
+        final LocalDateTime dateTime = LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
 
         // "Time-only" values have date set to 31-Dec-1899 so if year is "1899"
         // you can assume it is a "time-only" value
-        final String year = YEAR_TIME_FORMAT.format(date);
-
-        if (year.equals("1899")) {
+        if (dateTime.getYear() == TIME_ONLY_YEAR) {
             // handle "Time-only" value
-            return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()).toLocalTime();
+            return dateTime.toLocalTime();
+        } else if (dateTime.toLocalTime().equals(LocalTime.MIDNIGHT)) {
+            // if time is 00:00:00 you can assume it is a date only value (but it could be midnight)
+            return dateTime.toLocalDate();
         } else {
-            // here you may have a date-only or date-time value
-            final String timeStamp = TIME_DATE_FORMAT.format(date);
-            if (timeStamp.equals("00:00:00")) {
-                // if time is 00:00:00 you can assume it is a date only value (but it could be midnight)
-                return new java.sql.Date(date.getTime()).toLocalDate();
-            } else {
-                return date;
-            }
+            // here you have a date-time value
+            return date;
         }
     }
 
+    /**
+     * A <code>DataFormatter</code> is not thread-safe and therefore created per call.
+     */
     private static DataFormatter dataFormatter() {
         return new DataFormatter(EMULATE_CSV);
     }
@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.tools.excel.impl;
+
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Lazily iterate over the rows of a XLSX sheet using the SAX-based event API
+ * of Apache POI instead of loading the whole workbook. The shared strings
+ * table is read once and the sheet is parsed by a background thread handing
+ * over rows through a small bounded queue, so memory consumption does not
+ * depend on the size of the sheet. The background thread stops when the
+ * iterator is closed or no longer referenced.
+ * <p>
+ * Cells are formatted the same way as <code>ExcelTool.toTable</code> does
+ * using a <code>DataFormatter</code> emulating CSV, i.e. formulas are returned
+ * instead of their cached results. Missing cells within a row are returned as
+ * empty strings.
+ */
+public class XlsxRowIterator implements Iterator<List<Object>>, Closeable {
+
+    private static final int QUEUE_CAPACITY = 256;
+
+    /** Interval in milliseconds to check for an abandoned iterator while the queue is full */
+    private static final long OFFER_TIMEOUT = 1000;
+
+    /** Marks the end of the sheet in the queue */
+    private static final Object END_OF_SHEET = new Object();
+
+    private final String sheetName;
+    private final SheetParser parser;
+    private final Thread thread;
+
+    /** Next row taken from the queue or null */
+    private Object next;
+
+    /**
+     * Start parsing a sheet of the workbook.
+     *
+     * @param pkg       opened XLSX package - closed by the iterator
+     * @param sheetName name of the sheet or null to use the first sheet
+     */
+    public XlsxRowIterator(OPCPackage pkg, String sheetName) {
+        final SheetSource sheet = openSheet(requireNonNull(pkg), sheetName);
+        this.sheetName = sheet.name;
+        this.parser = new SheetParser(pkg, sheet, this);
+        this.thread = new Thread(parser, "xlsx-" + sheet.name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = take();
+        }
+        if (next instanceof Throwable) {
+            throw new RuntimeException("Failed to parse XLSX sheet: " + sheetName, (Throwable) next);
+        }
+        return next != END_OF_SHEET;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Object> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final List<Object> row = (List<Object>) next;
+        next = null;
+        return row;
+    }
+
+    public String getSheetName() {
+        return sheetName;
+    }
+
+    /**
+     * Stop parsing - the package is closed by the background thread.
+     */
+    @Override
+    public void close() {
+        parser.isClosed = true;
+        thread.interrupt();
+        parser.queue.clear();
+    }
+
+    private Object take() {
+        if (parser.isClosed) {
+            return END_OF_SHEET;
+        }
+        try {
+            return parser.queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while reading XLSX sheet: " + sheetName, e);
+        }
+    }
+
+    private static SheetSource openSheet(OPCPackage pkg, String sheetName) {
+        try {
+            final XSSFReader reader = new XSSFReader(pkg);
+            final ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg);
+            final StylesTable styles = reader.getStylesTable();
+            final XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+
+            while (sheets.hasNext()) {
+                final InputStream is = sheets.next();
+                if (sheetName == null || sheetName.equals(sheets.getSheetName())) {
+                    return new SheetSource(sheets.getSheetName(), is, styles, sharedStrings);
+                }
+                is.close();
+            }
+        } catch (Exception e) {
+            pkg.revert();
+            throw new RuntimeException("Failed to open XLSX sheet: " + sheetName, e);
+        }
+
+        pkg.revert();
+        throw new IllegalArgumentException("XLSX sheet not found: " + sheetName);
+    }
+
+    private static final class SheetSource {
+
+        private final String name;
+        private final InputStream is;
+        private final StylesTable styles;
+        private final ReadOnlySharedStringsTable sharedStrings;
+
+        SheetSource(String name, InputStream is, StylesTable styles, ReadOnlySharedStringsTable sharedStrings) {
+            this.name = name;
+            this.is = is;
+            this.styles = styles;
+            this.sharedStrings = sharedStrings;
+        }
+    }
+
+    /**
+     * Parses the sheet on the background thread. The parser only keeps a weak
+     * reference to its iterator, so parsing stops once an iterator which was
+     * abandoned without being closed, e.g. by leaving a loop early, is garbage
+     * collected.
+     */
+    private static final class SheetParser implements Runnable {
+
+        private final OPCPackage pkg;
+        private final SheetSource sheet;
+        private final BlockingQueue<Object> queue;
+        private final WeakReference<XlsxRowIterator> owner;
+
+        private volatile boolean isClosed;
+
+        SheetParser(OPCPackage pkg, SheetSource sheet, XlsxRowIterator owner) {
+            this.pkg = pkg;
+            this.sheet = sheet;
+            this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+            this.owner = new WeakReference<>(owner);
+        }
+
+        @Override
+        public void run() {
+            try (InputStream is = sheet.is) {
+                final DataFormatter dataFormatter = new DataFormatter(true);
+                final SheetContentsHandler rowHandler = new RowHandler();
+                final XMLReader xmlReader = SAXHelper.newXMLReader();
+                xmlReader.setContentHandler(new XSSFSheetXMLHandler(sheet.styles, null, sheet.sharedStrings, rowHandler, dataFormatter, true));
+                xmlReader.parse(new InputSource(is));
+                put(END_OF_SHEET);
+            } catch (Exception e) {
+                // nobody is waiting for the rows after the iterator was closed
+                if (!isClosed) {
+                    fail(e);
+                }
+            } finally {
+                pkg.revert();
+            }
+        }
+
+        private void put(Object row) {
+            try {
+                while (!queue.offer(row, OFFER_TIMEOUT, MILLISECONDS)) {
+                    if (isAbandoned()) {
+                        throw new ClosedException();
+                    }
+                }
+            } catch (InterruptedException e) {
+                throw new ClosedException();
+            }
+            if (isClosed) {
+                throw new ClosedException();
+            }
+        }
+
+        private void fail(Exception e) {
+            try {
+                put(e);
+            } catch (ClosedException ignored) {
+                // nobody is waiting for the rows any longer
+            }
+        }
+
+        private boolean isAbandoned() {
+            return isClosed || owner.get() == null;
+        }
+
+        private final class RowHandler implements SheetContentsHandler {
+
+            private List<Object> row;
+
+            @Override
+            public void startRow(int rowNum) {
+                row = new ArrayList<>();
+            }
+
+            @Override
+            public void endRow(int rowNum) {
+                put(row);
+            }
+
+            @Override
+            public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+                final int column = cellReference != null ? new CellReference(cellReference).getCol() : row.size();
+                while (row.size() < column) {
+                    row.add("");
+                }
+                row.add(formattedValue != null ? formattedValue.trim() : "");
+            }
+
+            @Override
+            public void headerFooter(String text, boolean isHeader, String tagName) {
+            }
+        }
+    }
+
+    /** Aborts parsing the sheet after the iterator was closed */
+    private static final class ClosedException extends RuntimeException {
+    }
+}
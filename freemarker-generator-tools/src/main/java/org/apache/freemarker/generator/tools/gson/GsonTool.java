@@ -20,10 +20,14 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.stream.JsonReader;
 import org.apache.freemarker.generator.base.datasource.DataSource;
+import org.apache.freemarker.generator.base.datasource.DataSourceParseCache;
+import org.apache.freemarker.generator.tools.gson.impl.JsonRecordIterator;
 
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -35,17 +39,15 @@ public class GsonTool {
     private volatile Gson gson;
 
     /**
-     * Parse a data source containing a JSON object.
+     * Parse a data source containing a JSON object. When the parse cache is
+     * enabled the parsed JSON is read-only and shared with other templates
+     * parsing the same data source.
      *
      * @param dataSource data source
      * @return parsed JSON either as a map or list
      */
     public Object parse(DataSource dataSource) {
-        try (JsonReader reader = new JsonReader(new InputStreamReader(dataSource.getUnsafeInputStream()))) {
-            return gson().fromJson(reader, Object.class);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to parse data source:" + dataSource, e);
-        }
+        return DataSourceParseCache.getInstance().get(dataSource, GsonTool.class, this::parseDataSource);
     }
 
     /**
@@ -60,6 +62,32 @@ public class GsonTool {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Lazily iterate over the records of a JSON document, i.e. the elements of
+     * a top-level array or the values of newline-delimited JSON. Only a single
+     * record is kept in memory so large documents can be processed using
+     * <code>&lt;#list&gt;</code>. The iterator is closed by the data source.
+     *
+     * @param dataSource data source
+     * @return iterator of records either as a map or list
+     */
+    public Iterator<Object> iterate(DataSource dataSource) {
+        return iterate(dataSource, null);
+    }
+
+    /**
+     * Lazily iterate over the elements of the array selected by a JSON pointer,
+     * e.g. "/data/items". The iterator is closed by the data source.
+     *
+     * @param dataSource data source
+     * @param pointer    JSON pointer selecting an array or null
+     * @return iterator of records either as a map or list
+     */
+    public Iterator<Object> iterate(DataSource dataSource, String pointer) {
+        final Reader reader = new InputStreamReader(dataSource.getUnsafeInputStream(), dataSource.getCharset());
+        return dataSource.addClosable(new JsonRecordIterator(gson(), reader, pointer));
+    }
+
     /**
      * Parse a JSON object string.
      *
@@ -85,6 +113,14 @@ public class GsonTool {
         return "Process JSON files using GSON (see https://github.com/google/gson)";
     }
 
+    private Object parseDataSource(DataSource dataSource) {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(dataSource.getUnsafeInputStream()))) {
+            return gson().fromJson(reader, Object.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse data source:" + dataSource, e);
+        }
+    }
+
     private synchronized Gson gson() {
         if (gson == null) {
             gson = new GsonBuilder().setLenient().setPrettyPrinting().disableHtmlEscaping().create();
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.tools.gson.impl;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Lazily iterate over the records of a JSON document without reading the
+ * whole document into memory. A record is either an element of a JSON array
+ * or a top-level value of newline-delimited JSON (NDJSON). The array can be
+ * selected using a JSON pointer (see RFC 6901), e.g. "/data/items" - without
+ * a JSON pointer a top-level array is iterated.
+ */
+public class JsonRecordIterator implements Iterator<Object>, Closeable {
+
+    private final Gson gson;
+    private final JsonReader reader;
+    private final String pointer;
+
+    /** Are we iterating over the elements of an array instead of top-level values? */
+    private boolean isArray;
+
+    /** Has the reader been positioned on the first record? */
+    private boolean isStarted;
+
+    public JsonRecordIterator(Gson gson, Reader reader, String pointer) {
+        this.gson = requireNonNull(gson);
+        this.reader = new JsonReader(requireNonNull(reader));
+        this.reader.setLenient(true);
+        this.pointer = pointer != null ? pointer : "";
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            start();
+            return isArray ? reader.hasNext() : reader.peek() != JsonToken.END_DOCUMENT;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read JSON record", e);
+        }
+    }
+
+    @Override
+    public Object next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return gson.fromJson(reader, Object.class);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void start() throws IOException {
+        if (isStarted) {
+            return;
+        }
+
+        isStarted = true;
+        moveTo(pointer);
+
+        if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+            reader.beginArray();
+            isArray = true;
+        } else if (!pointer.isEmpty()) {
+            throw new JsonParseException("JSON pointer does not select an array: " + pointer);
+        }
+    }
+
+    /**
+     * Skip all values until the reader is positioned on the value selected
+     * by the JSON pointer.
+     */
+    private void moveTo(String pointer) throws IOException {
+        if (pointer.isEmpty()) {
+            return;
+        }
+
+        if (!pointer.startsWith("/")) {
+            throw new IllegalArgumentException("JSON pointer must start with '/': " + pointer);
+        }
+
+        for (String token : pointer.substring(1).split("/", -1)) {
+            final String name = token.replace("~1", "/").replace("~0", "~");
+            final JsonToken jsonToken = reader.peek();
+            if (jsonToken == JsonToken.BEGIN_OBJECT) {
+                moveToMember(name);
+            } else if (jsonToken == JsonToken.BEGIN_ARRAY) {
+                moveToElement(name);
+            } else {
+                throw new JsonParseException("JSON pointer not found: " + pointer);
+            }
+        }
+    }
+
+    private void moveToMember(String name) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals(name)) {
+                return;
+            }
+            reader.skipValue();
+        }
+        throw new JsonParseException("JSON pointer not found: " + pointer);
+    }
+
+    private void moveToElement(String name) throws IOException {
+        final int index = Integer.parseInt(name);
+        reader.beginArray();
+        for (int i = 0; i < index && reader.hasNext(); i++) {
+            reader.skipValue();
+        }
+        if (!reader.hasNext()) {
+            throw new JsonParseException("JSON pointer not found: " + pointer);
+        }
+    }
+}
@@ -21,6 +21,7 @@ import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.Option;
 import org.apache.freemarker.generator.base.datasource.DataSource;
+import org.apache.freemarker.generator.base.datasource.DataSourceParseCache;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -28,14 +29,26 @@ import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 public class JsonPathTool {
 
+    /**
+     * Parse a data source into a document context. When the parse cache is
+     * enabled the parsed JSON is shared and the document context gets its own
+     * mutable copy, so the JSON is not parsed again but can still be modified.
+     *
+     * @param dataSource data source containing JSON
+     * @return document context
+     */
     public DocumentContext parse(DataSource dataSource) {
-        try (InputStream is = dataSource.getUnsafeInputStream()) {
-            return JsonPath.using(configuration()).parse(is);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to parse data source:" + dataSource, e);
+        final DataSourceParseCache cache = DataSourceParseCache.getInstance();
+        if (!cache.isEnabled()) {
+            return JsonPath.using(configuration()).parse(parseDataSource(dataSource));
         }
+
+        final Object json = cache.get(dataSource, JsonPathTool.class, this::parseDataSource);
+        return JsonPath.using(configuration()).parse(DataSourceParseCache.mutableCopy(json));
     }
 
     public List<DocumentContext> parse(Collection<DataSource> dataSources) {
@@ -53,6 +66,14 @@ public class JsonPathTool {
         return "Process JSON files using Java JSON Path (see https://github.com/json-path/JsonPath)";
     }
 
+    private Object parseDataSource(DataSource dataSource) {
+        try (InputStream is = dataSource.getUnsafeInputStream()) {
+            return configuration().jsonProvider().parse(is, UTF_8.name());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse data source:" + dataSource, e);
+        }
+    }
+
     private Configuration configuration() {
         return Configuration.builder()
                 .options(Option.SUPPRESS_EXCEPTIONS)
@@ -17,6 +17,7 @@
 package org.apache.freemarker.generator.tools.snakeyaml;
 
 import org.apache.freemarker.generator.base.datasource.DataSource;
+import org.apache.freemarker.generator.base.datasource.DataSourceParseCache;
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.Yaml;
 
@@ -30,14 +31,11 @@ import static org.yaml.snakeyaml.DumperOptions.FlowStyle.BLOCK;
 
 public class SnakeYamlTool {
 
-    private Yaml yaml;
+    /** SnakeYAML instances are not thread-safe so every rendering thread gets its own one */
+    private final ThreadLocal<Yaml> yaml = ThreadLocal.withInitial(() -> new Yaml(options()));
 
     public Object parse(DataSource dataSource) {
-        try (InputStream is = dataSource.getUnsafeInputStream()) {
-            return yaml().load(is);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to load YAML data source: " + dataSource, e);
-        }
+        return DataSourceParseCache.getInstance().get(dataSource, SnakeYamlTool.class, this::parseDataSource);
     }
 
     public List<Object> parse(Collection<DataSource> dataSources) {
@@ -59,11 +57,16 @@ public class SnakeYamlTool {
         return "Process YAML files using SnakeYAML(see https://bitbucket.org/asomov/snakeyaml/wiki/Home)";
     }
 
-    private synchronized Yaml yaml() {
-        if (yaml == null) {
-            yaml = new Yaml(options());
+    private Object parseDataSource(DataSource dataSource) {
+        try (InputStream is = dataSource.getUnsafeInputStream()) {
+            return yaml().load(is);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load YAML data source: " + dataSource, e);
         }
-        return yaml;
+    }
+
+    private Yaml yaml() {
+        return yaml.get();
     }
 
     private static DumperOptions options() {
@@ -19,30 +19,47 @@ package org.apache.freemarker.generator.tools.commonscsv;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.io.FileUtils;
 import org.apache.freemarker.generator.base.datasource.DataSource;
 import org.apache.freemarker.generator.base.datasource.DataSourceFactory;
+import org.apache.freemarker.generator.tools.commonscsv.impl.CommonsCSVIndex;
+import org.apache.freemarker.generator.tools.commonscsv.impl.CommonsCSVParallelParser;
 import org.apache.freemarker.generator.tools.commonscsv.impl.CommonsCSVPrinterFacade;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
 import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertNull;
 import static junit.framework.TestCase.assertTrue;
 import static org.apache.commons.csv.CSVFormat.DEFAULT;
 import static org.apache.commons.csv.CSVFormat.EXCEL;
 
 public class CommonsCSVToolTest {
 
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private static final String ANY_KEY = "C71";
     private static final String CONTRACT_ID = "contract_id";
     private static final int CONTRACT_ID_IDX = 0;
     private static final File BOM_CSV = new File("./src/test/data/csv/excel-export-utf8.csv");
     private static final File TEST_CSV = new File("./src/test/data/csv/contract.csv");
+    private static final File MULTILINE_CSV = new File("./src/test/data/csv/multiline.csv");
+    private static final File STRAY_QUOTE_CSV = new File("./src/test/data/csv/stray-quote.csv");
+    private static final String ANY_CSV = "id,name,city\n1,Alice,Graz\n2,Bob,Vienna\n3,Charlie,Graz\n";
 
     @Test
     public void shallParseCvsFile() throws IOException {
@@ -119,6 +136,40 @@ public class CommonsCSVToolTest {
         }
     }
 
+    @Test
+    public void shouldPrintDirectlyToWriter() throws IOException {
+        final StringWriter writer = new StringWriter();
+
+        try (final CommonsCSVPrinterFacade printer = commonsCsvTool.printer(DEFAULT, writer)) {
+            assertEquals("", printer.printRecord("a", "b"));
+            assertEquals("", printer.printRecord("c", "d"));
+        }
+
+        assertEquals("a,b\r\nc,d\r\n", writer.toString());
+    }
+
+    @Test
+    public void shouldTransformCsvRecords() {
+        final StringWriter writer = new StringWriter();
+
+        final long count = commonsCsvTool().transform(dataSource(ANY_CSV), DEFAULT.withFirstRecordAsHeader(), DEFAULT.withFirstRecordAsHeader(), null, null, writer);
+
+        assertEquals(3, count);
+        assertEquals("id,name,city\r\n1,Alice,Graz\r\n2,Bob,Vienna\r\n3,Charlie,Graz\r\n", writer.toString());
+    }
+
+    @Test
+    public void shouldTransformSelectedColumnsOfMatchingCsvRecords() {
+        final StringWriter writer = new StringWriter();
+        final List<Object> columns = Arrays.asList("city", 0);
+        final Map<Object, Object> filter = Collections.singletonMap("city", "Graz");
+
+        final long count = commonsCsvTool().transform(dataSource(ANY_CSV), DEFAULT.withFirstRecordAsHeader(), EXCEL.withDelimiter(';'), columns, filter, writer);
+
+        assertEquals(2, count);
+        assertEquals("Graz;1\r\nGraz;3\r\n", writer.toString());
+    }
+
     @Test
     public void shallStripBomFromCsvFile() throws IOException {
         try (CSVParser parser = commonsCsvTool().parse(dataSource(BOM_CSV), EXCEL.withHeader().withDelimiter(';'))) {
@@ -133,6 +184,121 @@ public class CommonsCSVToolTest {
         assertEquals('^', commonsCsvTool().toDelimiter("^"));
     }
 
+    @Test
+    public void shouldParseChunksInParallel() throws IOException {
+        final CSVFormat format = DEFAULT.withHeader();
+        final List<String> expected = contractIds(commonsCsvTool().parse(dataSource(), format));
+
+        try (CommonsCSVParallelParser parser = new CommonsCSVParallelParser(dataSource(), format, 4, 256)) {
+            assertTrue(parser.isChunked());
+            assertEquals(expected, contractIds(parser));
+            assertEquals(expected, parser.toKeys(CONTRACT_ID));
+            assertEquals(expected, parser.toKeys(CONTRACT_ID_IDX));
+            assertEquals(22, parser.count());
+            assertEquals(Long.valueOf(1), parser.toCounts(CONTRACT_ID).get(ANY_KEY));
+            assertEquals(ANY_KEY, parser.toMultiMap(CONTRACT_ID).get(ANY_KEY).get(0).get(CONTRACT_ID));
+        }
+    }
+
+    @Test
+    public void shouldNotSplitQuotedLineBreaks() throws IOException {
+        try (CommonsCSVParallelParser parser = new CommonsCSVParallelParser(dataSource(MULTILINE_CSV), DEFAULT.withHeader(), 2, 1)) {
+            final Map<String, Long> counts = parser.toCounts("name");
+
+            assertEquals(5, parser.count());
+            assertEquals(Arrays.asList("Alice", "Bob", "Charlie"), new ArrayList<>(counts.keySet()));
+            assertEquals(Long.valueOf(2), counts.get("Alice"));
+            assertEquals("another\nmultiline\nvalue", parser.toMultiMap("name").get("Alice").get(1).get("comment"));
+        }
+    }
+
+    @Test
+    public void shouldNotOpenQuotedValueInTheMiddleOfAField() throws IOException {
+        assertParallelParseEqualsSequentialParse(dataSource(STRAY_QUOTE_CSV));
+    }
+
+    @Test
+    public void shouldSplitLinesEndingWithCarriageReturn() throws IOException {
+        final File file = temporaryFolder.newFile("cr.csv");
+        FileUtils.writeStringToFile(file, FileUtils.readFileToString(STRAY_QUOTE_CSV, UTF_8).replace('\n', '\r'), UTF_8);
+
+        assertParallelParseEqualsSequentialParse(dataSource(file));
+    }
+
+    @Test
+    public void shouldParseSequentiallyWhenDataSourceCannotBeSplit() throws IOException {
+        try (CommonsCSVParallelParser parser = commonsCsvTool().parallelParse(dataSource(ANY_CSV), DEFAULT.withHeader())) {
+            assertFalse(parser.isChunked());
+            assertEquals(Arrays.asList("Graz", "Vienna"), parser.toKeys("city"));
+            assertEquals(3, parser.count());
+        }
+    }
+
+    @Test
+    public void shouldLookupRecordsUsingIndex() {
+        final CommonsCSVIndex index = commonsCsvTool().toIndex(dataSource(), DEFAULT.withHeader(), CONTRACT_ID);
+
+        assertEquals(22, index.size());
+        assertEquals(22, index.getKeyCount());
+        assertEquals(ANY_KEY, index.get(ANY_KEY).get(CONTRACT_ID));
+        assertEquals("The Electric Company", index.get(ANY_KEY).get("seller_company_name"));
+        assertEquals(1, index.get(ANY_KEY).getRecordNumber());
+        assertNull(index.get("unknown"));
+        assertTrue(index.getAll("unknown").isEmpty());
+    }
+
+    @Test
+    public void shouldLookupRecordsUsingCompositeIndex() {
+        final CommonsCSVIndex index = commonsCsvTool().toIndex(dataSource(MULTILINE_CSV), DEFAULT.withHeader(), Arrays.asList("name", 0));
+
+        assertEquals(5, index.getKeyCount());
+        assertEquals("another\nmultiline\nvalue", index.get(Arrays.asList("Alice", "4")).get("comment"));
+        assertFalse(index.containsKey(Arrays.asList("Alice", "2")));
+    }
+
+    @Test
+    public void shouldLookupAllRecordsUsingCaseInsensitiveIndex() {
+        final CommonsCSVIndex index = commonsCsvTool().toIndex(dataSource(MULTILINE_CSV), DEFAULT.withHeader(), Collections.singletonList("name"), true);
+        final List<CSVRecord> records = index.getAll("ALICE");
+
+        assertEquals(3, index.getKeyCount());
+        assertEquals(2, records.size());
+        assertEquals("first line\nsecond line", records.get(0).get("comment"));
+        assertEquals("4", records.get(1).get("id"));
+        assertEquals("quoted \"value\", with comma", index.get("bob").get("comment"));
+    }
+
+    @Test
+    public void shouldLookupRecordsOfUtf8FileWithBom() {
+        final CommonsCSVIndex index = commonsCsvTool().toIndex(dataSource(BOM_CSV), EXCEL.withHeader().withDelimiter(';'), "Text");
+
+        assertEquals("\u20AC100,00", index.get("Row 2").get("Currency"));
+        assertEquals("50", index.get("Row 2").get("Forumula"));
+    }
+
+    private void assertParallelParseEqualsSequentialParse(DataSource dataSource) throws IOException {
+        final CSVFormat format = DEFAULT.withHeader();
+        final List<List<String>> expected = values(commonsCsvTool().parse(dataSource, format));
+
+        try (CommonsCSVParallelParser parser = new CommonsCSVParallelParser(dataSource, format, 2, 1)) {
+            assertTrue(parser.isChunked());
+            assertEquals(5, expected.size());
+            assertEquals(expected, values(parser));
+        }
+    }
+
+    private static List<List<String>> values(Iterable<CSVRecord> records) {
+        final List<List<String>> result = new ArrayList<>();
+        records.forEach(record -> result.add(record.toList()));
+        return result;
+    }
+
+    private static List<String> contractIds(Iterable<CSVRecord> records) {
+        final List<String> result = new ArrayList<>();
+        records.forEach(record -> result.add(record.get(CONTRACT_ID)));
+        return result;
+    }
+
     private DataSource dataSource() {
         return dataSource(TEST_CSV);
     }
@@ -141,6 +307,10 @@ public class CommonsCSVToolTest {
         return DataSourceFactory.fromFile(file, UTF_8);
     }
 
+    private DataSource dataSource(String csv) {
+        return DataSourceFactory.fromString("test.csv", "default", csv, "text/csv");
+    }
+
     private CommonsCSVTool commonsCsvTool() {
         return new CommonsCSVTool();
     }
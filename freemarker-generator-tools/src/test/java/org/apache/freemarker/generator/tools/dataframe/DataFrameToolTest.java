@@ -27,6 +27,7 @@ import org.apache.freemarker.generator.tools.gson.GsonTool;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -93,6 +94,86 @@ public class DataFrameToolTest {
         assertEquals("3", dataFrame.getColumn("CHR").get(2));
     }
 
+    @Test
+    public void shouldParseCsvFileWithTypedColumns() {
+        final CSVParser csvParser = csvParser(CSV_WITH_HEADER, DEFAULT.withHeader().withDelimiter(';'));
+        final DataFrame dataFrame = dataFrameTool().fromCSVParser(csvParser, true);
+
+        assertEquals(4, dataFrame.getRows().size());
+        assertEquals("A", dataFrame.getColumn("GENE_ID").get(0));
+        assertEquals(4, dataFrame.getColumn("FPKM").get(1));
+        assertEquals(3, dataFrame.getColumn("CHR").get(2));
+    }
+
+    @Test
+    public void shouldInferWidestColumnType() {
+        final String csv = "ID;VALUE;FLAG;ZIP\n" +
+                "1;1;true;01234\n" +
+                "3000000000;2.5;FALSE;12345\n" +
+                "3;;false;";
+        final CSVParser csvParser = csvParser(csv, DEFAULT.withHeader().withDelimiter(';'));
+        final DataFrame dataFrame = dataFrameTool().fromCSVParser(csvParser, true);
+
+        assertEquals(3000000000L, dataFrame.getColumn("ID").get(1));
+        assertEquals(1.0, dataFrame.getColumn("VALUE").get(0));
+        assertEquals(Boolean.FALSE, dataFrame.getColumn("FLAG").get(1));
+        assertEquals("01234", dataFrame.getColumn("ZIP").get(0));
+    }
+
+    @Test
+    public void shouldKeepOriginalValuesWhenDemotingColumnToString() {
+        final StringBuilder csv = new StringBuilder("VALUE;FLAG;ID;BIG\n1.50;TRUE;100;12345678901234567890\n");
+        for (int i = 0; i < 1000; i++) {
+            csv.append("1E3;true;100;1\n");
+        }
+        csv.append("2.5;false;2.5;2\n");
+        csv.append("n/a;n/a;n/a;3\n");
+        final CSVParser csvParser = csvParser(csv.toString(), DEFAULT.withHeader().withDelimiter(';'));
+        final DataFrame dataFrame = dataFrameTool().fromCSVParser(csvParser, true);
+
+        assertEquals("1.50", dataFrame.getColumn("VALUE").get(0));
+        assertEquals("1E3", dataFrame.getColumn("VALUE").get(1));
+        assertEquals("TRUE", dataFrame.getColumn("FLAG").get(0));
+        assertEquals("100", dataFrame.getColumn("ID").get(0));
+        assertEquals("2.5", dataFrame.getColumn("ID").get(1001));
+        assertEquals("12345678901234567890", dataFrame.getColumn("BIG").get(0));
+    }
+
+    @Test
+    public void shouldAggregateGroups() {
+        final CSVParser csvParser = csvParser(CSV_WITH_HEADER, DEFAULT.withHeader().withDelimiter(';'));
+        final DataFrame dataFrame = dataFrameTool().fromCSVParser(csvParser, true);
+
+        final DataFrame result = dataFrameTool().groupBy(dataFrame, "FPKM")
+                .agg(Arrays.asList("count", "sum(CHR)", "avg(CHR)", "min(CHR)", "max(CHR)", "median(CHR)"));
+
+        assertEquals(3, result.size());
+        assertEquals(6, result.getColumn("FPKM").get(2));
+        assertEquals(1L, result.getColumn("count").get(0));
+        assertEquals(2L, result.getColumn("count").get(2));
+        assertEquals(4.0, result.getColumn("sum_CHR").get(2));
+        assertEquals(2.0, result.getColumn("avg_CHR").get(2));
+        assertEquals(1.0, result.getColumn("min_CHR").get(2));
+        assertEquals(3.0, result.getColumn("max_CHR").get(2));
+        assertEquals(2.0, result.getColumn("p50_CHR").get(2));
+    }
+
+    @Test
+    public void shouldAggregateStringColumnsByCompositeKey() {
+        final CSVParser csvParser = csvParser(CSV_WITH_HEADER, DEFAULT.withHeader().withDelimiter(';'));
+        final DataFrame dataFrame = dataFrameTool().fromCSVParser(csvParser);
+
+        final DataFrame result = dataFrameTool().groupBy(dataFrame, Arrays.asList("FPKM", "CHR"))
+                .count()
+                .percentile("CHR", 90)
+                .agg();
+
+        assertEquals(4, result.size());
+        assertEquals("6", result.getColumn("FPKM").get(3));
+        assertEquals("1", result.getColumn("CHR").get(3));
+        assertEquals(1.0, result.getColumn("p90_CHR").get(3));
+    }
+
     // === JSON =============================================================
 
     @Test
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.freemarker.generator.tools.dataframe.impl;
+
+import de.unknownreality.dataframe.DataFrame;
+import de.unknownreality.dataframe.DataFrameBuilder;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class DataFrameAggregatorTest {
+
+    private static final List<String> ANY_SPECS = Arrays.asList("count", "sum(value)", "avg(value)", "min(value)", "max(value)", "p90(value)");
+    private static final List<String> ANY_COLUMNS = Arrays.asList("group", "flag", "count", "sum_value", "avg_value", "min_value", "max_value", "p90_value");
+
+    @Test
+    public void shouldMergePartitionsLikeSequentialAggregation() {
+        final DataFrame dataFrame = dataFrame(10_000);
+
+        final DataFrame sequential = new DataFrameAggregator(dataFrame, Arrays.asList("group", "flag"))
+                .parallel(false)
+                .agg(ANY_SPECS);
+        final DataFrame partitioned = new DataFrameAggregator(dataFrame, Arrays.asList("group", "flag"))
+                .partitioning(1, 7)
+                .agg(ANY_SPECS);
+
+        assertEquals(26, sequential.size());
+        assertEquals(ANY_COLUMNS.size(), sequential.getColumns().size());
+        assertEquals(sequential.size(), partitioned.size());
+        for (int row = 0; row < sequential.size(); row++) {
+            for (String column : ANY_COLUMNS) {
+                assertEquals(column + "[" + row + "]", sequential.getColumn(column).get(row), partitioned.getColumn(column).get(row));
+            }
+        }
+    }
+
+    @Test
+    public void shouldNotRetainAggregatesPassedAsSpecs() {
+        final DataFrameAggregator aggregator = new DataFrameAggregator(dataFrame(100), Arrays.asList("group", "flag")).count();
+
+        assertEquals(5, aggregator.agg(Arrays.asList("sum(value)", "max(value)")).getColumns().size());
+        assertEquals(4, aggregator.agg(Arrays.asList("min(value)")).getColumns().size());
+        assertEquals(3, aggregator.agg().getColumns().size());
+    }
+
+    private static DataFrame dataFrame(int rows) {
+        final DataFrame result = DataFrameBuilder.create()
+                .addStringColumn("group")
+                .addBooleanColumn("flag")
+                .addIntegerColumn("value")
+                .build();
+        for (int row = 0; row < rows; row++) {
+            // groups appear for the first time in different partitions
+            final int group = (row / 500) % 13;
+            result.append(String.valueOf((char) ('A' + group)), row % 3 == 0, (row * 31) % 1000);
+        }
+        return result;
+    }
+}
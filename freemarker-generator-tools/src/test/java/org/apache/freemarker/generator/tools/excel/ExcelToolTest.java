@@ -18,18 +18,33 @@ package org.apache.freemarker.generator.tools.excel;
 
 import org.apache.freemarker.generator.base.datasource.DataSource;
 import org.apache.freemarker.generator.base.datasource.DataSourceFactory;
+import org.apache.freemarker.generator.tools.excel.impl.XlsxRowIterator;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
 
 public class ExcelToolTest {
 
@@ -37,6 +52,9 @@ public class ExcelToolTest {
     private final File TEST_XLSX = new File("./src/test/data/excel/test.xlsx");
     private final File MULTIPLE_SHEETS_XSLX_FILE = new File("./src/test/data/excel/test-multiple-sheets.xlsx");
 
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private Locale previousLocale;
 
     @Before
@@ -83,6 +101,25 @@ public class ExcelToolTest {
         assertEquals(2, excelTool().toTable(sheets.get(1)).size());
     }
 
+    @Test
+    public void shouldConvertAllSheetsToTables() {
+        final List<List<List<Object>>> tables = excelTool().toTables(dataSource(MULTIPLE_SHEETS_XSLX_FILE));
+
+        assertEquals(2, tables.size());
+        assertEquals(3, tables.get(0).size());
+        assertEquals(2, tables.get(1).size());
+    }
+
+    @Test
+    public void shouldPassRowsOfAllSheetsToConsumer() {
+        final Map<String, Integer> rows = new ConcurrentHashMap<>();
+
+        excelTool().forEachRow(workbook(MULTIPLE_SHEETS_XSLX_FILE), (sheet, row) -> rows.merge(sheet.getSheetName(), 1, Integer::sum));
+
+        assertEquals(Integer.valueOf(3), rows.get("Sheet1"));
+        assertEquals(Integer.valueOf(2), rows.get("Additional Sheet"));
+    }
+
     @Test
     public void shouldConvertSheetToTable() {
         final Workbook workbook = workbook(TEST_XLSX);
@@ -117,6 +154,73 @@ public class ExcelToolTest {
         assertEquals("C2*F2", record.get(6));
     }
 
+    @Test
+    public void shouldConvertSheetsToRawTablesConcurrently() {
+        final List<String> dates = IntStream.range(0, 16)
+                .parallel()
+                .mapToObj(i -> excelTool().toRawTable(excelTool().getSheets(workbook(TEST_XLSX)).get(0)))
+                .map(records -> records.get(1).get(1).toString() + " " + records.get(1).get(4).toString())
+                .collect(Collectors.toList());
+
+        dates.forEach(date -> assertEquals("2017-01-31 11:00", date));
+    }
+
+    @Test
+    public void shouldIterateXlsxRows() {
+        final List<List<Object>> records = new ArrayList<>();
+        excelTool().iterate(dataSource(TEST_XLSX)).forEachRemaining(records::add);
+
+        final List<Object> record = records.get(1);
+
+        assertEquals(3, records.size());
+        assertEquals("Row 1", record.get(0));
+        assertEquals("01/31/17", record.get(1));
+        assertEquals("100.00", record.get(2));
+        assertEquals("€100.00", record.get(3));
+        assertEquals("11:00", record.get(4));
+        assertEquals("10.00%", record.get(5));
+        assertEquals("C2*F2", record.get(6));
+    }
+
+    @Test
+    public void shouldIterateXlsxRowsOfNamedSheet() {
+        final Iterator<List<Object>> iterator = excelTool().iterate(dataSource(MULTIPLE_SHEETS_XSLX_FILE), "Additional Sheet");
+
+        int count = 0;
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+
+        assertEquals(2, count);
+    }
+
+    @Test
+    public void shouldStopParsingAbandonedXlsxIterator() throws Exception {
+        final File file = temporaryFolder.newFile("abandoned.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream os = new FileOutputStream(file)) {
+            final Sheet sheet = workbook.createSheet("Abandoned");
+            IntStream.range(0, 1000).forEach(i -> sheet.createRow(i).createCell(0).setCellValue(i));
+            workbook.write(os);
+        }
+
+        Iterator<List<Object>> iterator = new XlsxRowIterator(OPCPackage.open(file, PackageAccess.READ), null);
+        assertEquals("0", iterator.next().get(0));
+        iterator = null;
+
+        final long timeout = System.currentTimeMillis() + 30_000;
+        while (isParsing("xlsx-Abandoned") && System.currentTimeMillis() < timeout) {
+            System.gc();
+            Thread.sleep(100);
+        }
+
+        assertFalse(isParsing("xlsx-Abandoned"));
+    }
+
+    private static boolean isParsing(String threadName) {
+        return Thread.getAllStackTraces().keySet().stream().anyMatch(thread -> thread.getName().equals(threadName));
+    }
+
     private Workbook workbook(File file) {
         return excelTool().parse(dataSource(file));
     }
@@ -18,18 +18,23 @@ package org.apache.freemarker.generator.tools.gson;
 
 import org.apache.freemarker.generator.base.datasource.DataSource;
 import org.apache.freemarker.generator.base.datasource.DataSourceFactory;
+import org.apache.freemarker.generator.base.datasource.DataSourceParseCache;
 import org.apache.freemarker.generator.base.mime.Mimetypes;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertSame;
 import static org.apache.commons.io.FileUtils.readFileToString;
+import static org.junit.Assert.assertThrows;
 
 public class GsonToolTest {
 
@@ -63,6 +68,9 @@ public class GsonToolTest {
             "    \"color\": \"Red\"\n" +
             "}";
 
+    private static final String NDJSON = "{\"id\": \"1\", \"name\": \"first\"}\n" +
+            "{\"id\": \"2\", \"name\": \"second\"}\n";
+
     private static final String JSON_ARRAY = "[\n" +
             "    {\n" +
             "        \"Book ID\": \"1\",\n" +
@@ -145,6 +153,54 @@ public class GsonToolTest {
         assertEquals(2, jsonList.size());
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldParseSharedDataSourceOnlyOnce() {
+        final DataSource dataSource = dataSource();
+        DataSourceParseCache.getInstance().configure(10);
+
+        try {
+            final Object json = gsonTool.parse(dataSource);
+
+            assertSame(json, gsonTool().parse(dataSource));
+            assertThrows(UnsupportedOperationException.class, () -> ((Map<String, Object>) json).put("id", 0));
+        } finally {
+            DataSourceParseCache.getInstance().configure(0);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldIterateOverJsonArray() {
+        final Iterator<Object> iterator = gsonTool.iterate(dataSource(JSON_ARRAY));
+
+        assertEquals("1", ((Map<String, Object>) iterator.next()).get("Book ID"));
+        assertEquals("2", ((Map<String, Object>) iterator.next()).get("Book ID"));
+        assertEquals("3", ((Map<String, Object>) iterator.next()).get("Book ID"));
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldIterateOverNewlineDelimitedJson() {
+        final Iterator<Object> iterator = gsonTool.iterate(dataSource(NDJSON));
+
+        assertEquals("1", ((Map<String, Object>) iterator.next()).get("id"));
+        assertEquals("2", ((Map<String, Object>) iterator.next()).get("id"));
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldIterateOverJsonArraySelectedByPointer() {
+        final Iterator<Object> iterator = gsonTool.iterate(dataSource(JSON_OBJECT_WITH_ARRAY), "/eBooks");
+
+        assertEquals("Pascal", ((Map<String, Object>) iterator.next()).get("language"));
+        assertEquals("Python", ((Map<String, Object>) iterator.next()).get("language"));
+        assertEquals("SQL", ((Map<String, Object>) iterator.next()).get("language"));
+        assertFalse(iterator.hasNext());
+    }
+
     @Test
     public void shouldConvertToJson() {
         assertEquals(JSON_OBJECT, gsonTool.toJson(gsonTool.parse(JSON_OBJECT)));
@@ -165,6 +221,10 @@ public class GsonToolTest {
     }
 
     private DataSource dataSource() {
-        return DataSourceFactory.fromString("name", "group", JSON_OBJECT, Mimetypes.MIME_APPLICATION_JSON);
+        return dataSource(JSON_OBJECT);
+    }
+
+    private DataSource dataSource(String json) {
+        return DataSourceFactory.fromString("name", "group", json, Mimetypes.MIME_APPLICATION_JSON);
     }
 }
@@ -17,10 +17,15 @@
 package org.apache.freemarker.generator.tools.jsonpath;
 
 import com.jayway.jsonpath.DocumentContext;
+import org.apache.freemarker.generator.base.datasource.DataSource;
+import org.apache.freemarker.generator.base.datasource.DataSourceFactory;
+import org.apache.freemarker.generator.base.datasource.DataSourceParseCache;
 import org.junit.Test;
 
 import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertNull;
+import static org.apache.freemarker.generator.base.FreeMarkerConstants.DEFAULT_GROUP;
+import static org.apache.freemarker.generator.base.mime.Mimetypes.MIME_APPLICATION_JSON;
 
 public class JsonPathToolTest {
 
@@ -83,6 +88,23 @@ public class JsonPathToolTest {
         assertNull(parse(JSON_OBJECT_STRING).read("$.unknown"));
     }
 
+    @Test
+    public void shouldModifyCachedDocument() {
+        final DataSource dataSource = DataSourceFactory.fromString("test.json", DEFAULT_GROUP, JSON_OBJECT_STRING, MIME_APPLICATION_JSON);
+        DataSourceParseCache.getInstance().configure(10);
+
+        try {
+            final DocumentContext json = jsonPathTool().parse(dataSource);
+            json.set("$.language", "Java");
+
+            assertEquals("Java", json.read("$.language"));
+            assertEquals("Python", jsonPathTool().parse(dataSource).read("$.language"));
+            assertEquals(1, DataSourceParseCache.getInstance().size());
+        } finally {
+            DataSourceParseCache.getInstance().configure(0);
+        }
+    }
+
     private DocumentContext parse(String json) {
         return jsonPathTool().parse(json);
     }